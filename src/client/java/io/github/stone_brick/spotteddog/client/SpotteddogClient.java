@@ -2,6 +2,7 @@ package io.github.stone_brick.spotteddog.client;
 
 import io.github.stone_brick.spotteddog.client.command.SpotCommand;
 import io.github.stone_brick.spotteddog.client.command.WhitelistAdminCommand;
+import io.github.stone_brick.spotteddog.client.network.PermissionSyncHandler;
 import io.github.stone_brick.spotteddog.client.network.PublicSpotListHandler;
 import io.github.stone_brick.spotteddog.client.network.TeleportConfirmHandler;
 import net.fabricmc.api.ClientModInitializer;
@@ -14,6 +15,7 @@ public class SpotteddogClient implements ClientModInitializer {
         // 注册客户端网络处理器
         TeleportConfirmHandler.register();
         PublicSpotListHandler.register();
+        PermissionSyncHandler.register();
 
         ClientCommandRegistrationCallback.EVENT.register((dispatcher, registryAccess) -> {
             SpotCommand.register(dispatcher);
@@ -5,6 +5,7 @@ import io.github.stone_brick.spotteddog.client.network.PublicSpotListHandler;
 import io.github.stone_brick.spotteddog.network.c2s.PublicSpotActionC2SPayload;
 import io.github.stone_brick.spotteddog.network.c2s.PublicSpotTeleportC2SPayload;
 import io.github.stone_brick.spotteddog.network.c2s.TeleportLogAdminC2SPayload;
+import io.github.stone_brick.spotteddog.server.data.TeleportLogQuery;
 import io.github.stone_brick.spotteddog.network.c2s.TeleportRequestC2SPayload;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
@@ -118,6 +119,13 @@ public class MultiplayerSpotStrategy implements SpotStrategy {
         ClientPlayNetworking.send(new TeleportLogAdminC2SPayload("list", count));
     }
 
+    @Override
+    public void findLogs(ClientPlayerEntity player, TeleportLogQuery query) {
+        ClientPlayNetworking.send(TeleportLogAdminC2SPayload.query(query.getPlayer(), query.getTeleportType(),
+                query.getDimension(), query.getFromMillis(), query.getToMillis(),
+                query.getCursor(), query.getPageSize()));
+    }
+
     @Override
     public void clearLogs(ClientPlayerEntity player) {
         ClientPlayNetworking.send(new TeleportLogAdminC2SPayload("clear", 0));
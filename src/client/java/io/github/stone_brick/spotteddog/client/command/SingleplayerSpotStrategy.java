@@ -2,6 +2,8 @@ package io.github.stone_brick.spotteddog.client.command;
 
 import io.github.stone_brick.spotteddog.client.data.Spot;
 import io.github.stone_brick.spotteddog.client.data.TeleportLogManager;
+import io.github.stone_brick.spotteddog.server.data.TeleportLogQuery;
+import io.github.stone_brick.spotteddog.server.teleport.DimensionResolver;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.minecraft.client.MinecraftClient;
@@ -51,8 +53,7 @@ public class SingleplayerSpotStrategy implements SpotStrategy {
         }
 
         // 获取目标世界（安全获取，支持未访问过的维度）
-        RegistryKey<World> targetKey = getWorldKey(spot.getDimension());
-        ServerWorld targetWorld = getWorld(server, targetKey);
+        ServerWorld targetWorld = DimensionResolver.getWorld(server, spot.getWorldKey());
         if (targetWorld == null) {
             sendSystemMessage(player, "spotteddog.teleport.failed.world");
             return;
@@ -74,35 +75,6 @@ public class SingleplayerSpotStrategy implements SpotStrategy {
                 spot.getDimension(), spot.getX(), spot.getY(), spot.getZ());
     }
 
-    private RegistryKey<World> getWorldKey(String dimension) {
-        return switch (dimension) {
-            case "minecraft:overworld", "overworld" -> World.OVERWORLD;
-            case "minecraft:the_nether", "nether" -> World.NETHER;
-            case "minecraft:the_end", "the_end", "end" -> World.END;
-            default -> {
-                net.minecraft.util.Identifier dimId = net.minecraft.util.Identifier.of(dimension);
-                yield RegistryKey.of(net.minecraft.registry.RegistryKeys.WORLD, dimId);
-            }
-        };
-    }
-
-    /**
-     * 安全地获取世界，可能世界还未被访问过。
-     */
-    private ServerWorld getWorld(MinecraftServer server, RegistryKey<World> worldKey) {
-        ServerWorld world = server.getWorld(worldKey);
-        if (world != null) {
-            return world;
-        }
-        // 如果世界还未被访问过，从 server.getWorlds() 中查找
-        for (ServerWorld candidate : server.getWorlds()) {
-            if (candidate.getRegistryKey().equals(worldKey)) {
-                return candidate;
-            }
-        }
-        return null;
-    }
-
     @Override
     public void teleportToSpawn(ClientPlayerEntity player) {
         MinecraftClient client = MinecraftClient.getInstance();
@@ -163,14 +135,14 @@ public class SingleplayerSpotStrategy implements SpotStrategy {
 
         GlobalPos deathPos = deathPosOpt.get();
         BlockPos pos = deathPos.pos();
-        String dimension = deathPos.dimension().getValue().toString();
+        RegistryKey<World> targetKey = deathPos.dimension();
+        String dimension = targetKey.getValue().toString();
         double targetX = pos.getX() + 0.5;
         double targetY = pos.getY();
         double targetZ = pos.getZ() + 0.5;
 
         // 获取目标世界（安全获取，支持未访问过的维度）
-        RegistryKey<World> targetKey = getWorldKey(dimension);
-        ServerWorld targetWorld = getWorld(server, targetKey);
+        ServerWorld targetWorld = DimensionResolver.getWorld(server, targetKey);
         if (targetWorld == null) {
             sendSystemMessage(player, "spotteddog.teleport.failed.world");
             return;
@@ -272,6 +244,35 @@ public class SingleplayerSpotStrategy implements SpotStrategy {
         }
     }
 
+    @Override
+    public void findLogs(ClientPlayerEntity player, TeleportLogQuery query) {
+        List<TeleportLogManager.ClientTeleportLog> logs = TeleportLogManager.getInstance().queryLogs(query);
+        boolean hasMore = logs.size() > query.getPageSize();
+        if (hasMore) {
+            logs = logs.subList(0, query.getPageSize());
+        }
+
+        sendSystemMessage(player, "spotteddog.log.query.header.local", logs.size());
+
+        if (logs.isEmpty()) {
+            sendSystemMessage(player, "spotteddog.log.query.empty");
+            return;
+        }
+        for (var log : logs) {
+            String spotInfo = log.spotName != null ? log.spotName : log.teleportType;
+            String message = String.format("[%s] %s %s -> (%s, %.1f, %.1f, %.1f)",
+                    log.timestamp.substring(0, 19).replace('T', ' '),
+                    log.playerName, spotInfo,
+                    log.targetDimension, log.targetX, log.targetY, log.targetZ);
+            player.sendMessage(net.minecraft.text.Text.literal(message), false);
+        }
+        if (hasMore) {
+            // 续查位置为本页最后一条日志的时间戳
+            long cursor = TeleportLogQuery.parseTimestamp(logs.get(logs.size() - 1).timestamp);
+            sendSystemMessage(player, "spotteddog.log.query.more", Long.toString(cursor));
+        }
+    }
+
     @Override
     public void clearLogs(ClientPlayerEntity player) {
         TeleportLogManager.getInstance().clearLogs();
@@ -11,6 +11,7 @@ import io.github.stone_brick.spotteddog.client.data.PlayerDataManager;
 import io.github.stone_brick.spotteddog.client.data.Spot;
 import io.github.stone_brick.spotteddog.client.network.PublicSpotListHandler;
 import io.github.stone_brick.spotteddog.client.ui.SpotTableBuilder;
+import io.github.stone_brick.spotteddog.server.data.TeleportLogQuery;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.fabricmc.fabric.api.client.command.v2.FabricClientCommandSource;
@@ -56,6 +57,11 @@ public class SpotCommand {
 
         // 添加公开 Spot（带 - 前缀），仅在多人模式下
         if (!MinecraftClient.getInstance().isInSingleplayer()) {
+            // 列表未完全加载时按输入的名称前缀向服务端查询，结果在下一次补全时出现
+            String typed = remaining.startsWith("\"") ? remaining.substring(1) : remaining;
+            if (typed.startsWith("-")) {
+                PublicSpotListHandler.prefetchByPrefix(typed.substring(1));
+            }
             List<PublicSpotListHandler.PublicSpotInfo> publicSpots = PublicSpotListHandler.getPublicSpots();
             for (PublicSpotListHandler.PublicSpotInfo spot : publicSpots) {
                 String fullName = spot.getFullName();
@@ -79,6 +85,21 @@ public class SpotCommand {
         PermissionChecker.setPermissions(canTeleport, canManagePublicSpots);
     }
 
+    /**
+     * 应用服务端主动推送的权限（供 PermissionSyncHandler 调用）
+     */
+    public static void applyPermissionSync(boolean canTeleport, boolean canManagePublicSpots) {
+        PermissionChecker.setPermissions(canTeleport, canManagePublicSpots);
+        PermissionChecker.markSynced(true);
+    }
+
+    /**
+     * 清除权限推送标记（断开连接时调用）
+     */
+    public static void resetPermissionSync() {
+        PermissionChecker.markSynced(false);
+    }
+
     /**
      * 刷新权限信息（多人模式）- 通过请求公开 Spot 列表获取权限
      */
@@ -89,6 +110,11 @@ public class SpotCommand {
             return;
         }
 
+        // 服务端已主动推送权限，无需请求
+        if (PermissionChecker.isSynced()) {
+            return;
+        }
+
         // 请求公开 Spot 列表，响应中会包含权限信息
         PublicSpotListHandler.requestPublicSpots();
     }
@@ -97,6 +123,10 @@ public class SpotCommand {
      * 如果距离上次请求超过冷却时间，则向服务器请求公开 Spot 列表。
      */
     private static void requestPublicSpotsIfNeeded() {
+        // 服务端会主动推送变更，缓存已是最新
+        if (PublicSpotListHandler.isPushEnabled()) {
+            return;
+        }
         long now = System.currentTimeMillis();
         if (now - lastPublicSpotRequestTime > REQUEST_COOLDOWN_MS) {
             lastPublicSpotRequestTime = now;
@@ -177,7 +207,10 @@ public class SpotCommand {
         // /spot list
         dispatcher.register(LiteralArgumentBuilder.<FabricClientCommandSource>literal("spot")
                 .then(LiteralArgumentBuilder.<FabricClientCommandSource>literal("list")
-                        .executes(context -> listSpots())));
+                        .executes(context -> listSpots())
+                        // /spot list more - 加载下一页公开 Spot
+                        .then(LiteralArgumentBuilder.<FabricClientCommandSource>literal("more")
+                                .executes(context -> listMorePublicSpots()))));
 
         // /spot debug - 测试命令，查看 getUserData 返回内容
         dispatcher.register(LiteralArgumentBuilder.<FabricClientCommandSource>literal("spot")
@@ -205,6 +238,10 @@ public class SpotCommand {
                                 .executes(context -> listTeleportLogs(10))
                                 .then(RequiredArgumentBuilder.<FabricClientCommandSource, Integer>argument("count", IntegerArgumentType.integer(1, 100))
                                         .executes(context -> listTeleportLogs(IntegerArgumentType.getInteger(context, "count")))))
+                        // /spot log find <filters> - 按 player= type= dim= from= to= cursor= 查询历史日志
+                        .then(LiteralArgumentBuilder.<FabricClientCommandSource>literal("find")
+                                .then(RequiredArgumentBuilder.<FabricClientCommandSource, String>argument("filters", StringArgumentType.greedyString())
+                                        .executes(context -> findTeleportLogs(getString(context, "filters")))))
                         .then(LiteralArgumentBuilder.<FabricClientCommandSource>literal("clear")
                                 .executes(context -> clearTeleportLogs()))));
     }
@@ -470,6 +507,19 @@ public class SpotCommand {
         } else {
             // 多人模式：显示私有 Spot + 公开 Spot（使用缓存数据）
             displaySpotTable(privateSpots, publicSpots, false);
+            if (PublicSpotListHandler.hasMore()) {
+                sendFeedback("spotteddog.public.list.more");
+            }
+        }
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static int listMorePublicSpots() {
+        if (MinecraftClient.getInstance().isInSingleplayer()) {
+            return listSpots();
+        }
+        if (!PublicSpotListHandler.requestNextPage(spots -> listSpots())) {
+            sendSystemMessage("spotteddog.public.list.end");
         }
         return Command.SINGLE_SUCCESS;
     }
@@ -579,11 +629,12 @@ public class SpotCommand {
 
     /**
      * 权限检查工具类（多人模式从服务端同步）
-     * 权限值由 refreshPermissionsIfNeeded() 在命令执行前刷新
+     * 权限值由服务端主动推送，旧版服务端由 refreshPermissionsIfNeeded() 在命令执行前刷新
      */
     private static class PermissionChecker {
         private static boolean canTeleport = true;
         private static boolean canManagePublicSpots = false;
+        private static boolean synced = false;
 
         static synchronized boolean canTeleport() {
             return canTeleport;
@@ -597,6 +648,14 @@ public class SpotCommand {
             canTeleport = teleport;
             canManagePublicSpots = managePublic;
         }
+
+        static synchronized boolean isSynced() {
+            return synced;
+        }
+
+        static synchronized void markSynced(boolean value) {
+            synced = value;
+        }
     }
 
     private static void sendTableHeader(boolean isSingleplayer) {
@@ -1049,6 +1108,23 @@ public class SpotCommand {
         return Command.SINGLE_SUCCESS;
     }
 
+    private static int findTeleportLogs(String filters) {
+        ClientPlayerEntity player = getPlayer();
+        if (player == null) return 0;
+
+        TeleportLogQuery query;
+        try {
+            query = TeleportLogQuery.parse(filters, 10);
+        } catch (IllegalArgumentException e) {
+            sendFeedback("spotteddog.log.query.invalid", e.getMessage());
+            return 0;
+        }
+
+        // 使用策略模式
+        SpotHandler.findLogs(player, query);
+        return Command.SINGLE_SUCCESS;
+    }
+
     private static int clearTeleportLogs() {
         ClientPlayerEntity player = getPlayer();
         if (player == null) return 0;
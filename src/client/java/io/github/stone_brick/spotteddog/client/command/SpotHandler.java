@@ -1,6 +1,7 @@
 package io.github.stone_brick.spotteddog.client.command;
 
 import io.github.stone_brick.spotteddog.client.data.Spot;
+import io.github.stone_brick.spotteddog.server.data.TeleportLogQuery;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.minecraft.client.MinecraftClient;
@@ -47,6 +48,10 @@ public class SpotHandler {
         getStrategy().showLogs(player, count);
     }
 
+    public static void findLogs(ClientPlayerEntity player, TeleportLogQuery query) {
+        getStrategy().findLogs(player, query);
+    }
+
     public static void clearLogs(ClientPlayerEntity player) {
         getStrategy().clearLogs(player);
     }
@@ -1,6 +1,7 @@
 package io.github.stone_brick.spotteddog.client.command;
 
 import io.github.stone_brick.spotteddog.client.data.Spot;
+import io.github.stone_brick.spotteddog.server.data.TeleportLogQuery;
 import net.minecraft.client.network.ClientPlayerEntity;
 
 public interface SpotStrategy {
@@ -15,5 +16,6 @@ public interface SpotStrategy {
 
     // 日志管理
     void showLogs(ClientPlayerEntity player, int count);
+    void findLogs(ClientPlayerEntity player, TeleportLogQuery query);
     void clearLogs(ClientPlayerEntity player);
 }
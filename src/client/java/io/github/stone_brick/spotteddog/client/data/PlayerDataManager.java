@@ -2,10 +2,11 @@ package io.github.stone_brick.spotteddog.client.data;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import io.github.stone_brick.spotteddog.Spotteddog;
+import io.github.stone_brick.spotteddog.storage.AtomicFileStorage;
 import net.fabricmc.loader.api.FabricLoader;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
@@ -96,19 +97,12 @@ public class PlayerDataManager {
             return;
         }
 
-        try {
-            Path file = getCurrentWorldFile();
-            if (Files.exists(file)) {
-                String json = Files.readString(file);
-                Spot[] loaded = GSON.fromJson(json, Spot[].class);
-                if (loaded != null) {
-                    for (Spot spot : loaded) {
-                        spots.add(spot);
-                    }
-                }
+        // 数据文件损坏时自动回退到 .bak
+        Spot[] loaded = AtomicFileStorage.read(getCurrentWorldFile(), json -> GSON.fromJson(json, Spot[].class));
+        if (loaded != null) {
+            for (Spot spot : loaded) {
+                spots.add(spot);
             }
-        } catch (IOException e) {
-            // 忽略加载错误
         }
     }
 
@@ -118,12 +112,10 @@ public class PlayerDataManager {
         }
 
         try {
-            Path file = getCurrentWorldFile();
-            Files.createDirectories(file.getParent());
             String json = GSON.toJson(spots);
-            Files.writeString(file, json);
+            AtomicFileStorage.writeString(getCurrentWorldFile(), json);
         } catch (IOException e) {
-            // 忽略保存错误
+            Spotteddog.LOGGER.warn("Failed to save spots for world {}", currentWorldIdentifier, e);
         }
     }
 
@@ -1,5 +1,9 @@
 package io.github.stone_brick.spotteddog.client.data;
 
+import io.github.stone_brick.spotteddog.server.teleport.DimensionResolver;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.world.World;
+
 import java.util.UUID;
 
 /**
@@ -15,6 +19,8 @@ public class Spot {
     private float yaw;
     private float pitch;
     private String dimension;
+    // 解析后的维度（不序列化，维度变化时重新解析）
+    private transient RegistryKey<World> worldKey;
 
     public Spot() {
     }
@@ -28,6 +34,7 @@ public class Spot {
         this.yaw = yaw;
         this.pitch = pitch;
         this.dimension = dimension;
+        this.worldKey = null;
     }
 
     public Spot(String id, String name, double x, double y, double z, float yaw, float pitch, String dimension) {
@@ -39,6 +46,7 @@ public class Spot {
         this.yaw = yaw;
         this.pitch = pitch;
         this.dimension = dimension;
+        this.worldKey = null;
     }
 
     // Getters and Setters
@@ -64,13 +72,30 @@ public class Spot {
     public void setPitch(float pitch) { this.pitch = pitch; }
 
     public String getDimension() { return dimension; }
-    public void setDimension(String dimension) { this.dimension = dimension; }
+    public void setDimension(String dimension) {
+        this.dimension = dimension;
+        this.worldKey = null;
+    }
+
+    /**
+     * 获取维度 RegistryKey。
+     * 首次调用时通过 {@link DimensionResolver} 解析并保存。
+     */
+    public RegistryKey<World> getWorldKey() {
+        RegistryKey<World> key = worldKey;
+        if (key == null) {
+            key = DimensionResolver.resolve(dimension);
+            worldKey = key;
+        }
+        return key;
+    }
 
     public void setPosition(double x, double y, double z, String dimension) {
         this.x = x;
         this.y = y;
         this.z = z;
         this.dimension = dimension;
+        this.worldKey = null;
     }
 
     public void setPositionAndRotation(double x, double y, double z, float yaw, float pitch, String dimension) {
@@ -80,5 +105,6 @@ public class Spot {
         this.yaw = yaw;
         this.pitch = pitch;
         this.dimension = dimension;
+        this.worldKey = null;
     }
 }
@@ -3,6 +3,7 @@ package io.github.stone_brick.spotteddog.client.data;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
+import io.github.stone_brick.spotteddog.server.data.TeleportLogQuery;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.util.WorldSavePath;
@@ -130,6 +131,29 @@ public class TeleportLogManager {
         return result.size() > count ? result.subList(0, count) : result;
     }
 
+    /**
+     * 按条件分页查询日志（倒序，最新的在前）。
+     * 有续查位置（上一页最后一条日志的时间戳）时只返回更早的日志。
+     * 最多返回 pageSize + 1 条，多出的一条表示还有下一页。
+     */
+    public synchronized List<ClientTeleportLog> queryLogs(TeleportLogQuery query) {
+        loadLogs();
+        List<ClientTeleportLog> result = new ArrayList<>();
+        long before = query.hasCursor() ? query.getCursorMillis() : Long.MAX_VALUE;
+        for (int i = logs.size() - 1; i >= 0 && result.size() <= query.getPageSize(); i--) {
+            ClientTeleportLog log = logs.get(i);
+            long time = TeleportLogQuery.parseTimestamp(log.timestamp);
+            if (time >= before) {
+                continue;
+            }
+            if (query.matches(log.playerUuid, log.playerName, null, null, log.teleportType, null,
+                    log.targetDimension, time)) {
+                result.add(log);
+            }
+        }
+        return result;
+    }
+
     /**
      * 获取日志总数。
      */
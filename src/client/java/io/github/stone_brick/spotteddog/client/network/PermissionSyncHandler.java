@@ -0,0 +1,41 @@
+package io.github.stone_brick.spotteddog.client.network;
+
+import io.github.stone_brick.spotteddog.client.command.SpotCommand;
+import io.github.stone_brick.spotteddog.network.s2c.PermissionSyncS2CPayload;
+import io.github.stone_brick.spotteddog.server.permission.PermissionManager;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
+
+/**
+ * 客户端权限同步处理器。
+ * 接收服务端主动推送的权限位掩码，收到后不再需要通过请求公开 Spot 列表来刷新权限。
+ */
+@Environment(EnvType.CLIENT)
+public class PermissionSyncHandler {
+
+    /**
+     * 注册客户端 S2C 处理器。
+     */
+    public static void register() {
+        // 动态注册 S2C 负载类型（单人模式需避免重复注册）
+        try {
+            PayloadTypeRegistry.playS2C().register(
+                PermissionSyncS2CPayload.ID,
+                PermissionSyncS2CPayload.CODEC
+            );
+        } catch (IllegalArgumentException e) {
+            // 已注册过，忽略
+        }
+
+        ClientPlayNetworking.registerGlobalReceiver(PermissionSyncS2CPayload.ID, (payload, context) ->
+                SpotCommand.applyPermissionSync(
+                        payload.has(PermissionManager.TELEPORT),
+                        payload.has(PermissionManager.PUBLIC_SPOT)));
+
+        // 断开连接后恢复为按需刷新（下一个服务器可能不推送权限）
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> SpotCommand.resetPermissionSync());
+    }
+}
@@ -2,19 +2,36 @@ package io.github.stone_brick.spotteddog.client.network;
 
 import io.github.stone_brick.spotteddog.client.command.SpotCommand;
 import io.github.stone_brick.spotteddog.network.c2s.PublicSpotListC2SPayload;
+import io.github.stone_brick.spotteddog.network.c2s.PublicSpotSubscribeC2SPayload;
 import io.github.stone_brick.spotteddog.network.c2s.PublicSpotUpdateC2SPayload;
+import io.github.stone_brick.spotteddog.network.s2c.PublicSpotDeltaS2CPayload;
 import io.github.stone_brick.spotteddog.network.s2c.PublicSpotListS2CPayload;
+import io.github.stone_brick.spotteddog.network.s2c.PublicSpotSyncS2CPayload;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
+import net.minecraft.client.network.ClientPlayerEntity;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
  * 客户端公开 Spot 列表处理器。
+ *
+ * <p>公开 Spot 列表按页加载：完整加载时只请求第一页和自己的公开 Spot，
+ * 之后通过 {@code /spot list more} 继续加载，补全时按输入的名称前缀按需查询。
+ * 再次刷新时附带已同步的版本号，服务端只返回变更。
+ * 订阅变更推送后，缓存由服务端每 tick 合并推送的变更保持最新，无需频繁轮询；
+ * 推送要求重新同步时在后台补齐（请求被服务端丢弃时定时重试），另外保留低频的兜底同步。</p>
  */
 @Environment(EnvType.CLIENT)
 public class PublicSpotListHandler {
@@ -52,8 +69,32 @@ public class PublicSpotListHandler {
         public String getDimension() { return dimension; }
     }
 
-    private static final List<PublicSpotInfo> publicSpots = new ArrayList<>();
+    // 每页请求条数（服务端会限制在其配置的上限内）
+    private static final int PAGE_SIZE = 50;
+    // 需要重新同步时的重试间隔（毫秒）
+    private static final long SYNC_RETRY_MS = 5_000;
+    // 订阅期间的兜底同步间隔（毫秒）
+    private static final long FALLBACK_SYNC_MS = 60_000;
+
+    // 已加载的公开 Spot（完整名称 -> 信息，保持加载顺序）
+    private static final Map<String, PublicSpotInfo> publicSpots = new LinkedHashMap<>();
+    // 不过滤列表的下一页续传令牌，空字符串表示已全部加载
+    private static String nextCursor = "";
+    // 已请求过的名称前缀（列表未完全加载时用于补全）
+    private static final Set<String> requestedPrefixes = new HashSet<>();
+    // 已同步的列表版本号，0 表示没有缓存
+    private static long revision;
+    // 是否已订阅服务端变更推送
+    private static boolean subscribed;
+    // 推送要求重新同步，但尚未收到同步响应
+    private static boolean stale;
+    // 当前请求由后台同步发出（不显示消息）
+    private static boolean backgroundSync;
+    // 上次发出同步请求的时间
+    private static long lastSyncAt;
     private static Consumer<List<PublicSpotInfo>> listCallback;
+    // 回调前还需等待的响应数
+    private static int awaitingResponses;
 
     /**
      * 注册处理器。
@@ -68,16 +109,44 @@ public class PublicSpotListHandler {
         } catch (IllegalArgumentException e) {
             // 已注册过，忽略
         }
+        try {
+            PayloadTypeRegistry.playS2C().register(
+                    PublicSpotDeltaS2CPayload.ID,
+                    PublicSpotDeltaS2CPayload.CODEC
+            );
+        } catch (IllegalArgumentException e) {
+            // 已注册过，忽略
+        }
+        try {
+            PayloadTypeRegistry.playS2C().register(
+                    PublicSpotSyncS2CPayload.ID,
+                    PublicSpotSyncS2CPayload.CODEC
+            );
+        } catch (IllegalArgumentException e) {
+            // 已注册过，忽略
+        }
 
         // 注册接收处理器
         ClientPlayNetworking.registerGlobalReceiver(PublicSpotListS2CPayload.ID, (payload, context) -> {
             var player = context.player();
             if (player == null) return;
 
-            // 更新缓存
-            publicSpots.clear();
+            // 更新缓存：不过滤的第一页替换缓存，其余响应合并
+            if (!payload.filtered()) {
+                if (payload.cursor().isEmpty()) {
+                    stale = false;
+                    publicSpots.clear();
+                    requestedPrefixes.clear();
+                    revision = payload.revision();
+                    // 完整重新加载时另外请求自己的全部公开 Spot（用于判断本地 Spot 是否已公开）
+                    awaitingResponses++;
+                    ClientPlayNetworking.send(PublicSpotListC2SPayload.filtered(
+                            "", PAGE_SIZE, player.getName().getString(), "", ""));
+                }
+                nextCursor = payload.nextCursor();
+            }
             for (PublicSpotListS2CPayload.PublicSpotInfo spot : payload.spots()) {
-                publicSpots.add(new PublicSpotInfo(
+                put(new PublicSpotInfo(
                         spot.ownerName(),
                         spot.displayName(),
                         spot.x(), spot.y(), spot.z(),
@@ -88,27 +157,151 @@ public class PublicSpotListHandler {
             // 更新权限缓存
             SpotCommand.updatePermissions(payload.canTeleport(), payload.canManagePublicSpots());
 
-            // 回调（如果调用方需要自定义处理）
-            if (listCallback != null) {
-                listCallback.accept(new ArrayList<>(publicSpots));
-                listCallback = null;
-                return; // 回调负责显示消息，不显示默认消息
+            // 补全用的前缀查询不显示消息
+            onResponse(player, !payload.filtered());
+        });
+
+        // 增量同步：应用变更并更新版本号
+        ClientPlayNetworking.registerGlobalReceiver(PublicSpotDeltaS2CPayload.ID, (payload, context) -> {
+            var player = context.player();
+            if (player == null) return;
+
+            applyChanges(payload.changes());
+            revision = payload.revision();
+            stale = false;
+
+            // 列表未变化时不显示消息
+            onResponse(player, !payload.isUnchanged());
+        });
+
+        // 服务端推送的变更：版本号连续时直接应用，否则通过增量同步补齐
+        ClientPlayNetworking.registerGlobalReceiver(PublicSpotSyncS2CPayload.ID, (payload, context) -> {
+            if (revision == 0) {
+                return; // 尚未加载列表，下次加载时会得到最新数据
+            }
+            if (payload.resync() || payload.baseRevision() != revision) {
+                stale = true;
+                requestBackgroundSync();
+                return;
             }
+            applyChanges(payload.changes());
+            revision = payload.revision();
+        });
 
-            // 显示默认消息
-            if (publicSpots.isEmpty()) {
-                player.sendMessage(net.minecraft.text.Text.translatable("spotteddog.public.none"), true);
-            } else {
-                player.sendMessage(net.minecraft.text.Text.translatable("spotteddog.public.list.updated", publicSpots.size()), true);
+        // 进入服务器时订阅变更推送（旧版服务端不支持时继续使用轮询）
+        ClientPlayConnectionEvents.JOIN.register((handler, sender, client) -> {
+            if (!client.isInSingleplayer() && ClientPlayNetworking.canSend(PublicSpotSubscribeC2SPayload.ID)) {
+                ClientPlayNetworking.send(new PublicSpotSubscribeC2SPayload(true));
+                subscribed = true;
             }
         });
+
+        ClientTickEvents.END_CLIENT_TICK.register(client -> tickSync());
+
+        // 断开连接后缓存和版本号对下一个服务器无效
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> {
+            subscribed = false;
+            clearCache();
+        });
+    }
+
+    /**
+     * 将变更应用到缓存。
+     */
+    private static void applyChanges(List<PublicSpotDeltaS2CPayload.SpotChange> changes) {
+        for (PublicSpotDeltaS2CPayload.SpotChange change : changes) {
+            switch (change.type()) {
+                case PublicSpotDeltaS2CPayload.REMOVE ->
+                        publicSpots.remove("-" + change.displayName() + "-" + change.ownerName());
+                case PublicSpotDeltaS2CPayload.RENAME -> {
+                    publicSpots.remove("-" + change.previousName() + "-" + change.ownerName());
+                    put(toInfo(change));
+                }
+                default -> put(toInfo(change));
+            }
+        }
+    }
+
+    /**
+     * 缓存是否由服务端推送保持最新（已订阅、已加载过列表且无需重新同步），此时无需轮询。
+     */
+    public static boolean isPushEnabled() {
+        return subscribed && revision != 0 && !stale;
+    }
+
+    /**
+     * 订阅期间的后台同步：需要重新同步时按较短间隔重试（请求可能被服务端速率限制丢弃），
+     * 否则按兜底间隔同步一次，防止遗漏推送。
+     */
+    private static void tickSync() {
+        if (!subscribed || revision == 0) {
+            return;
+        }
+        long interval = stale ? SYNC_RETRY_MS : FALLBACK_SYNC_MS;
+        if (System.currentTimeMillis() - lastSyncAt >= interval) {
+            requestBackgroundSync();
+        }
+    }
+
+    /**
+     * 在后台发送同步请求，不显示消息。刚发出过同步请求时跳过，由 {@link #tickSync()} 稍后重试。
+     */
+    private static void requestBackgroundSync() {
+        if (System.currentTimeMillis() - lastSyncAt < SYNC_RETRY_MS) {
+            return;
+        }
+        requestPublicSpots();
+        backgroundSync = true;
+    }
+
+    private static void put(PublicSpotInfo info) {
+        publicSpots.put(info.getFullName(), info);
+    }
+
+    private static PublicSpotInfo toInfo(PublicSpotDeltaS2CPayload.SpotChange change) {
+        return new PublicSpotInfo(change.ownerName(), change.displayName(),
+                change.x(), change.y(), change.z(), change.dimension());
+    }
+
+    /**
+     * 处理一次响应：同一批请求全部返回后调用回调，没有回调时按需显示默认消息。
+     */
+    private static void onResponse(ClientPlayerEntity player, boolean showMessage) {
+        if (awaitingResponses > 0 && --awaitingResponses > 0) {
+            return; // 等待同一批请求的其余响应
+        }
+        boolean quiet = backgroundSync;
+        backgroundSync = false;
+
+        // 回调（如果调用方需要自定义处理）
+        if (listCallback != null) {
+            Consumer<List<PublicSpotInfo>> callback = listCallback;
+            listCallback = null;
+            callback.accept(getPublicSpots());
+            return; // 回调负责显示消息，不显示默认消息
+        }
+
+        if (!showMessage || quiet) {
+            return;
+        }
+
+        // 显示默认消息
+        if (publicSpots.isEmpty()) {
+            player.sendMessage(net.minecraft.text.Text.translatable("spotteddog.public.none"), true);
+        } else {
+            player.sendMessage(net.minecraft.text.Text.translatable("spotteddog.public.list.updated", publicSpots.size()), true);
+        }
     }
 
     /**
      * 请求获取公开 Spot 列表。
+     * 附带已同步的版本号：列表未变化时服务端只返回几个字节，变更不多时返回增量，否则返回完整的第一页。
      */
     public static void requestPublicSpots() {
-        ClientPlayNetworking.send(PublicSpotListC2SPayload.create());
+        awaitingResponses = 1;
+        backgroundSync = false;
+        lastSyncAt = System.currentTimeMillis();
+        ClientPlayNetworking.send(PublicSpotListC2SPayload.sync(revision, PAGE_SIZE));
     }
 
     /**
@@ -119,11 +312,47 @@ public class PublicSpotListHandler {
         requestPublicSpots();
     }
 
+    /**
+     * 请求下一页公开 Spot，合并到缓存后调用回调。
+     *
+     * @return false 如果已全部加载
+     */
+    public static boolean requestNextPage(Consumer<List<PublicSpotInfo>> callback) {
+        if (nextCursor.isEmpty()) {
+            return false;
+        }
+        listCallback = callback;
+        awaitingResponses = 1;
+        ClientPlayNetworking.send(PublicSpotListC2SPayload.page(nextCursor, PAGE_SIZE));
+        return true;
+    }
+
+    /**
+     * 列表未完全加载时，按名称前缀向服务端查询匹配的公开 Spot（用于补全）。
+     * 同一前缀只请求一次，结果合并到缓存，下一次补全时生效。
+     */
+    public static void prefetchByPrefix(String namePrefix) {
+        if (nextCursor.isEmpty() || namePrefix.isEmpty()) {
+            return;
+        }
+        String prefix = namePrefix.toLowerCase(Locale.ROOT);
+        if (requestedPrefixes.add(prefix)) {
+            ClientPlayNetworking.send(PublicSpotListC2SPayload.filtered("", PAGE_SIZE, "", "", prefix));
+        }
+    }
+
+    /**
+     * 是否还有未加载的公开 Spot。
+     */
+    public static boolean hasMore() {
+        return !nextCursor.isEmpty();
+    }
+
     /**
      * 获取缓存的公开 Spot 列表。
      */
     public static List<PublicSpotInfo> getPublicSpots() {
-        return new ArrayList<>(publicSpots);
+        return new ArrayList<>(publicSpots.values());
     }
 
     /**
@@ -131,18 +360,19 @@ public class PublicSpotListHandler {
      */
     public static void clearCache() {
         publicSpots.clear();
+        requestedPrefixes.clear();
+        nextCursor = "";
+        revision = 0;
+        stale = false;
+        backgroundSync = false;
+        awaitingResponses = 0;
     }
 
     /**
      * 检查指定名称的 Spot 是否已公开（本地缓存）。
      */
     public static boolean isSpotPublic(String spotName, String playerName) {
-        for (PublicSpotInfo spot : publicSpots) {
-            if (spot.getOwnerName().equals(playerName) && spot.getDisplayName().equals(spotName)) {
-                return true;
-            }
-        }
-        return false;
+        return publicSpots.containsKey("-" + spotName + "-" + playerName);
     }
 
     /**
@@ -32,6 +32,12 @@ public class TeleportConfirmHandler {
         ClientPlayNetworking.registerGlobalReceiver(TeleportConfirmS2CPayload.ID, (payload, context) -> {
             var player = context.player();
 
+            if (payload.pending()) {
+                // 等待服务端加载目标区块
+                player.sendMessage(Text.translatable("spotteddog.teleport.pending"), true);
+                return;
+            }
+
             if (payload.success()) {
                 // 传送成功不显示消息
                 if ("public".equals(payload.type())) {
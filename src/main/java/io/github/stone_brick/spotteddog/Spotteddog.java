@@ -4,11 +4,21 @@ import io.github.stone_brick.spotteddog.event.AdminLogEvents;
 import io.github.stone_brick.spotteddog.event.DefaultAdminLogLogger;
 import io.github.stone_brick.spotteddog.event.DefaultTeleportLogLogger;
 import io.github.stone_brick.spotteddog.event.TeleportLogEvents;
+import io.github.stone_brick.spotteddog.server.config.ConfigFileWatcher;
+import io.github.stone_brick.spotteddog.server.config.CooldownManager;
 import io.github.stone_brick.spotteddog.server.network.PublicSpotHandler;
+import io.github.stone_brick.spotteddog.server.network.PublicSpotSyncHandler;
 import io.github.stone_brick.spotteddog.server.network.TeleportLogHandler;
 import io.github.stone_brick.spotteddog.server.network.TeleportRequestHandler;
 import io.github.stone_brick.spotteddog.server.network.WhitelistAdminHandler;
+import io.github.stone_brick.spotteddog.server.permission.PermissionManager;
+import io.github.stone_brick.spotteddog.server.teleport.DimensionResolver;
+import io.github.stone_brick.spotteddog.server.teleport.HotSpotChunkKeeper;
+import io.github.stone_brick.spotteddog.server.teleport.SafeLandingResolver;
+import io.github.stone_brick.spotteddog.server.teleport.TeleportScheduler;
 import net.fabricmc.api.ModInitializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * SpottedDog 模组主入口。
@@ -16,14 +26,30 @@ import net.fabricmc.api.ModInitializer;
  */
 public class Spotteddog implements ModInitializer {
 
+    public static final Logger LOGGER = LoggerFactory.getLogger("spotteddog");
+
     @Override
     public void onInitialize() {
         // 注册服务端网络处理器
         TeleportRequestHandler.register();
         PublicSpotHandler.register();
+        PublicSpotSyncHandler.register();
         WhitelistAdminHandler.register();
         TeleportLogHandler.register();
 
+        // 注册维度缓存、安全落点缓存、传送前区块预加载和热门公开 Spot 区块保持
+        DimensionResolver.register();
+        SafeLandingResolver.register();
+        TeleportScheduler.register();
+        HotSpotChunkKeeper.register();
+
+        // 注册冷却记录清理和权限缓存失效
+        CooldownManager.register();
+        PermissionManager.register();
+
+        // 注册配置和白名单文件热重载
+        ConfigFileWatcher.register();
+
         // 注册日志事件监听器
         TeleportLogEvents.TELEPORT.register(new DefaultTeleportLogLogger());
         AdminLogEvents.ADMIN_OPERATION.register(new DefaultAdminLogLogger());
@@ -15,6 +15,9 @@ import net.fabricmc.fabric.api.event.EventFactory;
  * });
  * }</pre>
  *
+ * <p>事件通过 {@link #post(AdminLogEvent)} 发布，回调在 {@link AsyncEventDispatcher}
+ * 的消费线程上执行，而不是服务端主线程。</p>
+ *
  * @see AdminLogEvent
  * @see AdminLogCallback
  */
@@ -53,4 +56,13 @@ public final class AdminLogEvents {
                 }
             }
     );
+
+    /**
+     * 异步发布管理操作日志事件，不在调用方线程执行任何回调。
+     *
+     * @return true 如果已入队，false 如果因队列溢出被丢弃
+     */
+    public static boolean post(AdminLogEvent event) {
+        return AsyncEventDispatcher.getInstance().submit(() -> ADMIN_OPERATION.invoker().onAdminOperation(event));
+    }
 }
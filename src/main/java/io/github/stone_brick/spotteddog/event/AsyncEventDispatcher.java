@@ -0,0 +1,197 @@
+package io.github.stone_brick.spotteddog.event;
+
+import io.github.stone_brick.spotteddog.server.config.ConfigManager;
+
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 日志事件异步分发器。
+ * 事件发布方只把回调任务放入有界无锁队列，由独立的消费线程依次执行，
+ * 传送等操作的延迟不再受日志监听器（文件 I/O、加锁）影响。
+ *
+ * <p>队列满时的处理策略由配置 {@code log_event_overflow_policy} 决定：</p>
+ * <ul>
+ *   <li>{@code drop} - 丢弃新事件（默认）</li>
+ *   <li>{@code block} - 阻塞发布方直到队列有空位</li>
+ *   <li>{@code sample} - 队列超过一半时按 {@code log_event_sample_rate} 抽样保留，满时丢弃</li>
+ * </ul>
+ */
+public final class AsyncEventDispatcher {
+
+    /**
+     * 队列溢出策略。
+     */
+    public enum OverflowPolicy {
+        DROP, BLOCK, SAMPLE;
+
+        public static OverflowPolicy fromString(String value) {
+            if (value != null) {
+                try {
+                    return valueOf(value.trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    // 未知策略使用默认值
+                }
+            }
+            return DROP;
+        }
+    }
+
+    private static final AsyncEventDispatcher INSTANCE = new AsyncEventDispatcher();
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean consumerWaiting = new AtomicBoolean();
+    private final AtomicInteger sampleCounter = new AtomicInteger();
+    private final Thread consumer;
+    private volatile boolean busy;
+
+    // 监控指标
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong processedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private AsyncEventDispatcher() {
+        consumer = new Thread(this::consumeLoop, "SpottedDog-LogEventDispatcher");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    public static AsyncEventDispatcher getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 提交一个事件回调任务，不会在发布方线程执行任何监听器。
+     *
+     * @return true 如果已入队，false 如果按溢出策略被丢弃
+     */
+    public boolean submit(Runnable task) {
+        int capacity = ConfigManager.getLogEventQueueCapacity();
+        OverflowPolicy policy = ConfigManager.getLogEventOverflowPolicy();
+
+        if (policy == OverflowPolicy.SAMPLE && size.get() >= capacity / 2
+                && sampleCounter.incrementAndGet() % ConfigManager.getLogEventSampleRate() != 0) {
+            droppedCount.incrementAndGet();
+            return false;
+        }
+
+        while (!tryReserve(capacity)) {
+            if (policy != OverflowPolicy.BLOCK || Thread.currentThread() == consumer) {
+                droppedCount.incrementAndGet();
+                return false;
+            }
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+
+        queue.offer(task);
+        submittedCount.incrementAndGet();
+        if (consumerWaiting.get()) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * 无锁地占用一个队列位置。
+     */
+    private boolean tryReserve(int capacity) {
+        int current;
+        do {
+            current = size.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void consumeLoop() {
+        while (true) {
+            Runnable task = queue.poll();
+            if (task == null) {
+                consumerWaiting.set(true);
+                // 再检查一次，避免在设置等待标记前入队的任务错过唤醒
+                if (queue.isEmpty()) {
+                    LockSupport.park(this);
+                }
+                consumerWaiting.set(false);
+                continue;
+            }
+            busy = true;
+            size.decrementAndGet();
+            try {
+                task.run();
+                processedCount.incrementAndGet();
+            } catch (RuntimeException e) {
+                // 监听器异常不影响后续事件
+                failedCount.incrementAndGet();
+            } finally {
+                busy = false;
+            }
+        }
+    }
+
+    /**
+     * 等待队列中的事件全部处理完成（服务端关闭时调用）。
+     *
+     * @param timeoutMs 最长等待时间（毫秒）
+     * @return true 如果已全部处理，false 如果超时
+     */
+    public boolean awaitDrained(long timeoutMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (size.get() > 0 || busy) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            LockSupport.unpark(consumer);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return true;
+    }
+
+    // ===== 监控指标 =====
+
+    /**
+     * 获取当前队列中的事件数（用于监控）。
+     */
+    public int getQueueSize() {
+        return size.get();
+    }
+
+    /**
+     * 获取已入队的事件总数（用于监控）。
+     */
+    public long getSubmittedCount() {
+        return submittedCount.get();
+    }
+
+    /**
+     * 获取已处理的事件总数（用于监控）。
+     */
+    public long getProcessedCount() {
+        return processedCount.get();
+    }
+
+    /**
+     * 获取因队列溢出或抽样被丢弃的事件数（用于监控）。
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * 获取监听器抛出异常的次数（用于监控）。
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+}
@@ -20,6 +20,7 @@ public class DefaultAdminLogLogger implements AdminLogCallback {
         // 构建日志条目
         TeleportLog log = TeleportLog.builder()
                 .type("admin_operation")
+                .timestamp(event.getTimestamp())
                 .operator(event.getOperatorName(), event.getOperatorUuid())
                 .teleportType(event.getOperationType())
                 .spotName(event.getSpotName())
@@ -19,8 +19,9 @@ public class DefaultTeleportLogLogger implements TeleportLogCallback {
     public void onTeleport(TeleportLogEvent event) {
         // 构建日志条目，使用事件中包含的源位置和目标位置
         TeleportLog log = TeleportLog.builder()
-                .playerName(event.getPlayer().getName().getString())
-                .playerUuid(event.getPlayer().getUuid().toString())
+                .timestamp(event.getTimestamp())
+                .playerName(event.getPlayerName())
+                .playerUuid(event.getPlayerUuid())
                 .teleportType(event.getTeleportType())
                 .spotName(event.getSpotName())
                 .source(
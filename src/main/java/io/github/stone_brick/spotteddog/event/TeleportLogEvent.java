@@ -4,12 +4,17 @@ import net.minecraft.registry.RegistryKey;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.world.World;
 
+import java.time.Instant;
+
 /**
  * 传送日志事件。
  * 当玩家执行传送操作时记录此事件。
  *
  * <p>事件在传送执行<strong>之后</strong>触发，包含完整的源位置和目标位置信息。</p>
  *
+ * <p>事件是不可变快照：创建时复制玩家名称和 UUID，不持有 {@link ServerPlayerEntity} 引用，
+ * 因此可以安全地交给 {@link AsyncEventDispatcher} 在其他线程处理。</p>
+ *
  * <p>支持的传送类型：</p>
  * <ul>
  *   <li>{@code spot} - 传送到玩家自己的 Spot</li>
@@ -22,7 +27,8 @@ import net.minecraft.world.World;
  * @see TeleportLogEvents
  */
 public class TeleportLogEvent {
-    private final ServerPlayerEntity player;
+    private final String playerName;
+    private final String playerUuid;
     private final String teleportType;
     private final String spotName;
     private final String sourceDimension;
@@ -33,9 +39,10 @@ public class TeleportLogEvent {
     private final double targetX;
     private final double targetY;
     private final double targetZ;
+    private final String timestamp;
 
     /**
-     * 创建传送日志事件。
+     * 创建传送日志事件，立即复制玩家信息。
      *
      * @param player 执行传送的玩家
      * @param teleportType 传送类型（spot, spawn, respawn, death, public_spot）
@@ -53,7 +60,32 @@ public class TeleportLogEvent {
                             String sourceDimension, double sourceX, double sourceY, double sourceZ,
                             RegistryKey<World> targetDimension,
                             double targetX, double targetY, double targetZ) {
-        this.player = player;
+        this(player.getName().getString(), player.getUuid().toString(), teleportType, spotName,
+                sourceDimension, sourceX, sourceY, sourceZ, targetDimension, targetX, targetY, targetZ);
+    }
+
+    /**
+     * 创建传送日志事件。
+     *
+     * @param playerName 执行传送的玩家名称
+     * @param playerUuid 执行传送的玩家 UUID
+     * @param teleportType 传送类型（spot, spawn, respawn, death, public_spot）
+     * @param spotName Spot 名称（可为 null）
+     * @param sourceDimension 源维度
+     * @param sourceX 源 X 坐标
+     * @param sourceY 源 Y 坐标
+     * @param sourceZ 源 Z 坐标
+     * @param targetDimension 目标维度
+     * @param targetX 目标 X 坐标
+     * @param targetY 目标 Y 坐标
+     * @param targetZ 目标 Z 坐标
+     */
+    public TeleportLogEvent(String playerName, String playerUuid, String teleportType, String spotName,
+                            String sourceDimension, double sourceX, double sourceY, double sourceZ,
+                            RegistryKey<World> targetDimension,
+                            double targetX, double targetY, double targetZ) {
+        this.playerName = playerName;
+        this.playerUuid = playerUuid;
         this.teleportType = teleportType;
         this.spotName = spotName;
         this.sourceDimension = sourceDimension;
@@ -64,15 +96,25 @@ public class TeleportLogEvent {
         this.targetX = targetX;
         this.targetY = targetY;
         this.targetZ = targetZ;
+        this.timestamp = Instant.now().toString();
+    }
+
+    /**
+     * 获取执行传送的玩家名称。
+     *
+     * @return 玩家名称
+     */
+    public String getPlayerName() {
+        return playerName;
     }
 
     /**
-     * 获取执行传送的玩家。
+     * 获取执行传送的玩家 UUID。
      *
-     * @return 玩家实体
+     * @return 玩家 UUID 字符串
      */
-    public ServerPlayerEntity getPlayer() {
-        return player;
+    public String getPlayerUuid() {
+        return playerUuid;
     }
 
     /**
@@ -164,4 +206,13 @@ public class TeleportLogEvent {
     public double getTargetZ() {
         return targetZ;
     }
+
+    /**
+     * 获取传送发生的时间。
+     *
+     * @return ISO 格式时间戳
+     */
+    public String getTimestamp() {
+        return timestamp;
+    }
 }
@@ -11,10 +11,13 @@ import net.fabricmc.fabric.api.event.EventFactory;
  * <pre>{@code
  * TeleportLogEvents.TELEPORT.register(event -> {
  *     // 处理传送日志事件
- *     System.out.println("Player teleported: " + event.getPlayer().getName());
+ *     System.out.println("Player teleported: " + event.getPlayerName());
  * });
  * }</pre>
  *
+ * <p>事件通过 {@link #post(TeleportLogEvent)} 发布，回调在 {@link AsyncEventDispatcher}
+ * 的消费线程上执行，而不是服务端主线程。回调中不要直接修改世界或玩家状态。</p>
+ *
  * @see TeleportLogEvent
  * @see TeleportLogCallback
  */
@@ -32,7 +35,7 @@ public final class TeleportLogEvents {
      *
      * <p>回调可以访问：</p>
      * <ul>
-     *   <li>{@link TeleportLogEvent#getPlayer()} - 执行传送的玩家</li>
+     *   <li>{@link TeleportLogEvent#getPlayerName()} / {@link TeleportLogEvent#getPlayerUuid()} - 执行传送的玩家</li>
      *   <li>{@link TeleportLogEvent#getTeleportType()} - 传送类型</li>
      *   <li>{@link TeleportLogEvent#getSpotName()} - Spot 名称（可为 null）</li>
      *   <li>{@link TeleportLogEvent#getTargetDimension()} - 目标维度</li>
@@ -47,4 +50,13 @@ public final class TeleportLogEvents {
                 }
             }
     );
+
+    /**
+     * 异步发布传送日志事件，不在调用方线程执行任何回调。
+     *
+     * @return true 如果已入队，false 如果因队列溢出被丢弃
+     */
+    public static boolean post(TeleportLogEvent event) {
+        return AsyncEventDispatcher.getInstance().submit(() -> TELEPORT.invoker().onTeleport(event));
+    }
 }
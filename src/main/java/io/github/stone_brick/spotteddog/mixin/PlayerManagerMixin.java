@@ -0,0 +1,25 @@
+package io.github.stone_brick.spotteddog.mixin;
+
+import io.github.stone_brick.spotteddog.server.permission.PermissionManager;
+import net.minecraft.server.PlayerManager;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * OP 列表变化时使权限缓存失效并重新计算在线玩家的权限。
+ */
+@Mixin(PlayerManager.class)
+public abstract class PlayerManagerMixin {
+
+    @Inject(method = "addToOperators", at = @At("TAIL"))
+    private void spotteddog$onAddToOperators(CallbackInfo ci) {
+        PermissionManager.onOperatorsChanged();
+    }
+
+    @Inject(method = "removeFromOperators", at = @At("TAIL"))
+    private void spotteddog$onRemoveFromOperators(CallbackInfo ci) {
+        PermissionManager.onOperatorsChanged();
+    }
+}
@@ -0,0 +1,204 @@
+package io.github.stone_brick.spotteddog.network;
+
+import io.netty.handler.codec.DecoderException;
+import net.minecraft.network.PacketByteBuf;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spot 数据包的紧凑二进制编码工具。
+ *
+ * <p>每个使用紧凑编码的数据包以 VarInt 格式版本号开头，之后为一个标记字节。
+ * 所有者名和维度等重复度高的字符串通过 {@link Dictionary} 在每个数据包中只发送一次，
+ * 条目中以 VarInt 下标引用。坐标默认为 8 字节 double，设置 {@link #FLAG_FIXED_POINT}
+ * 时改为 1/{@value #FIXED_POINT_SCALE} 方块精度的定点数（ZigZag VarLong，通常 2~4 字节）。</p>
+ */
+public final class SpotWireCodec {
+
+    // 当前编码格式版本
+    public static final int FORMAT_VERSION = 1;
+
+    // 标记：坐标使用定点数
+    public static final int FLAG_FIXED_POINT = 1;
+
+    // 定点数精度（每方块的刻度数）
+    public static final int FIXED_POINT_SCALE = 16;
+
+    // 常用维度（下标固定，无需在数据包中发送）
+    private static final String[] KNOWN_DIMENSIONS = {
+            "minecraft:overworld", "minecraft:the_nether", "minecraft:the_end"
+    };
+
+    private SpotWireCodec() {
+        // 工具类，禁止实例化
+    }
+
+    /**
+     * 写入格式版本号和标记。
+     */
+    public static void writeHeader(PacketByteBuf buf, int flags) {
+        buf.writeVarInt(FORMAT_VERSION);
+        buf.writeByte(flags);
+    }
+
+    /**
+     * 读取格式版本号和标记。
+     *
+     * @return 标记
+     * @throws DecoderException 版本号不受支持时
+     */
+    public static int readHeader(PacketByteBuf buf) {
+        int version = buf.readVarInt();
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new DecoderException("Unsupported spot wire format version: " + version);
+        }
+        return buf.readUnsignedByte();
+    }
+
+    /**
+     * 写入坐标。
+     */
+    public static void writeCoordinate(PacketByteBuf buf, double value, int flags) {
+        if ((flags & FLAG_FIXED_POINT) != 0) {
+            long fixed = Math.round(value * FIXED_POINT_SCALE);
+            buf.writeVarLong((fixed << 1) ^ (fixed >> 63));
+        } else {
+            buf.writeDouble(value);
+        }
+    }
+
+    /**
+     * 读取坐标。
+     */
+    public static double readCoordinate(PacketByteBuf buf, int flags) {
+        if ((flags & FLAG_FIXED_POINT) != 0) {
+            long zigzag = buf.readVarLong();
+            long fixed = (zigzag >>> 1) ^ -(zigzag & 1);
+            return (double) fixed / FIXED_POINT_SCALE;
+        }
+        return buf.readDouble();
+    }
+
+    /**
+     * 写入维度：常用维度只写一个下标，其他维度写下标后跟完整标识符。
+     */
+    public static void writeDimension(PacketByteBuf buf, String dimension) {
+        for (int i = 0; i < KNOWN_DIMENSIONS.length; i++) {
+            if (KNOWN_DIMENSIONS[i].equals(dimension)) {
+                buf.writeVarInt(i);
+                return;
+            }
+        }
+        buf.writeVarInt(KNOWN_DIMENSIONS.length);
+        buf.writeString(dimension);
+    }
+
+    /**
+     * 读取维度。
+     */
+    public static String readDimension(PacketByteBuf buf) {
+        int index = buf.readVarInt();
+        if (index >= 0 && index < KNOWN_DIMENSIONS.length) {
+            return KNOWN_DIMENSIONS[index];
+        }
+        if (index != KNOWN_DIMENSIONS.length) {
+            throw new DecoderException("Invalid dimension index: " + index);
+        }
+        return buf.readString();
+    }
+
+    /**
+     * 写入传送类型（枚举序号）。
+     */
+    public static void writeTeleportType(PacketByteBuf buf, String type) {
+        buf.writeVarInt(TeleportType.fromString(type).ordinal());
+    }
+
+    /**
+     * 读取传送类型。
+     */
+    public static String readTeleportType(PacketByteBuf buf) {
+        int ordinal = buf.readVarInt();
+        TeleportType[] types = TeleportType.values();
+        if (ordinal < 0 || ordinal >= types.length) {
+            throw new DecoderException("Invalid teleport type: " + ordinal);
+        }
+        return types[ordinal].asString();
+    }
+
+    /**
+     * 每个数据包内的字符串字典。
+     * 编码前先 {@link #add} 收集所有字符串并写入字典，条目中再通过 {@link #writeRef} 写入下标。
+     */
+    public static final class Dictionary {
+        private final Map<String, Integer> indexes = new LinkedHashMap<>();
+
+        /**
+         * 添加字符串（重复添加只保留一份）。
+         */
+        public void add(String value) {
+            indexes.putIfAbsent(value, indexes.size());
+        }
+
+        /**
+         * 写入字典内容。
+         */
+        public void write(PacketByteBuf buf) {
+            buf.writeVarInt(indexes.size());
+            for (String value : indexes.keySet()) {
+                buf.writeString(value);
+            }
+        }
+
+        /**
+         * 写入字符串在字典中的下标。
+         */
+        public void writeRef(PacketByteBuf buf, String value) {
+            Integer index = indexes.get(value);
+            if (index == null) {
+                throw new IllegalStateException("String not in dictionary: " + value);
+            }
+            buf.writeVarInt(index);
+        }
+
+        /**
+         * 读取字典内容。
+         */
+        public static List<String> read(PacketByteBuf buf) {
+            int size = buf.readVarInt();
+            if (size < 0 || size > buf.readableBytes()) {
+                throw new DecoderException("Invalid dictionary size: " + size);
+            }
+            List<String> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(buf.readString());
+            }
+            return values;
+        }
+
+        /**
+         * 读取下标并返回对应的字符串。
+         */
+        public static String readRef(PacketByteBuf buf, List<String> values) {
+            int index = buf.readVarInt();
+            if (index < 0 || index >= values.size()) {
+                throw new DecoderException("Invalid dictionary index: " + index);
+            }
+            return values.get(index);
+        }
+    }
+
+    /**
+     * 读取列表长度并做基本校验（每个条目至少占一个字节）。
+     */
+    public static int readCount(PacketByteBuf buf) {
+        int size = buf.readVarInt();
+        if (size < 0 || size > buf.readableBytes()) {
+            throw new DecoderException("Invalid list size: " + size);
+        }
+        return size;
+    }
+}
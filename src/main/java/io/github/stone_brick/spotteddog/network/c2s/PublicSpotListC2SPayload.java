@@ -6,16 +6,43 @@ import net.minecraft.network.packet.CustomPayload;
 
 /**
  * 获取公开 Spot 列表请求（C2S）。
+ *
+ * <p>分页请求：cursor 为上一页响应中的续传令牌，空字符串表示第一页；
+ * owner、dimension、namePrefix 为过滤条件，空字符串表示不限。</p>
+ *
+ * <p>sinceRevision 为客户端已同步的版本号（0 表示没有缓存）。不过滤的第一页请求带有版本号时，
+ * 服务端可能只返回 {@code PublicSpotDeltaS2CPayload}（未变化或增量）。</p>
  */
-public record PublicSpotListC2SPayload() implements CustomPayload {
+public record PublicSpotListC2SPayload(
+        String cursor,      // 续传令牌
+        int pageSize,       // 每页条数，0 表示使用服务端默认值
+        String owner,       // 所有者名称（不区分大小写）
+        String dimension,   // 维度
+        String namePrefix,  // Spot 名称前缀（不区分大小写）
+        long sinceRevision  // 客户端已同步的版本号
+) implements CustomPayload {
 
     public static final CustomPayload.Id<PublicSpotListC2SPayload> ID =
             CustomPayload.id("spotteddog/public_spot_list_request");
 
     public static final PacketCodec<PacketByteBuf, PublicSpotListC2SPayload> CODEC =
             PacketCodec.ofStatic(
-                    (buf, payload) -> {},
-                    buf -> new PublicSpotListC2SPayload()
+                    (buf, payload) -> {
+                        buf.writeString(payload.cursor());
+                        buf.writeVarInt(payload.pageSize());
+                        buf.writeString(payload.owner());
+                        buf.writeString(payload.dimension());
+                        buf.writeString(payload.namePrefix());
+                        buf.writeVarLong(payload.sinceRevision());
+                    },
+                    buf -> new PublicSpotListC2SPayload(
+                            buf.readString(),
+                            buf.readVarInt(),
+                            buf.readString(),
+                            buf.readString(),
+                            buf.readString(),
+                            buf.readVarLong()
+                    )
             );
 
     @Override
@@ -23,7 +50,45 @@ public record PublicSpotListC2SPayload() implements CustomPayload {
         return ID;
     }
 
+    /**
+     * 是否带有过滤条件。
+     */
+    public boolean isFiltered() {
+        return !owner.isEmpty() || !dimension.isEmpty() || !namePrefix.isEmpty();
+    }
+
+    /**
+     * 创建第一页请求（不过滤）。
+     */
     public static PublicSpotListC2SPayload create() {
-        return new PublicSpotListC2SPayload();
+        return page("", 0);
+    }
+
+    /**
+     * 创建不过滤的分页请求。
+     */
+    public static PublicSpotListC2SPayload page(String cursor, int pageSize) {
+        return new PublicSpotListC2SPayload(cursor != null ? cursor : "", pageSize, "", "", "", 0);
+    }
+
+    /**
+     * 创建同步请求：第一页，附带客户端已同步的版本号。
+     */
+    public static PublicSpotListC2SPayload sync(long sinceRevision, int pageSize) {
+        return new PublicSpotListC2SPayload("", pageSize, "", "", "", sinceRevision);
+    }
+
+    /**
+     * 创建带过滤条件的请求，null 条件按不限处理。
+     */
+    public static PublicSpotListC2SPayload filtered(String cursor, int pageSize,
+                                                    String owner, String dimension, String namePrefix) {
+        return new PublicSpotListC2SPayload(
+                cursor != null ? cursor : "",
+                pageSize,
+                owner != null ? owner : "",
+                dimension != null ? dimension : "",
+                namePrefix != null ? namePrefix : "",
+                0);
     }
 }
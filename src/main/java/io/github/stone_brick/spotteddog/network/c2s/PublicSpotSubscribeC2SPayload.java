@@ -0,0 +1,25 @@
+package io.github.stone_brick.spotteddog.network.c2s;
+
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+
+/**
+ * 订阅/取消订阅公开 Spot 变更推送（C2S）。
+ */
+public record PublicSpotSubscribeC2SPayload(boolean subscribe) implements CustomPayload {
+
+    public static final CustomPayload.Id<PublicSpotSubscribeC2SPayload> ID =
+            CustomPayload.id("spotteddog/public_spot_subscribe");
+
+    public static final PacketCodec<PacketByteBuf, PublicSpotSubscribeC2SPayload> CODEC =
+            PacketCodec.ofStatic(
+                    (buf, payload) -> buf.writeBoolean(payload.subscribe()),
+                    buf -> new PublicSpotSubscribeC2SPayload(buf.readBoolean())
+            );
+
+    @Override
+    public CustomPayload.Id<PublicSpotSubscribeC2SPayload> getId() {
+        return ID;
+    }
+}
@@ -6,10 +6,18 @@ import net.minecraft.network.packet.CustomPayload;
 
 /**
  * 客户端到服务端的日志管理请求数据包。
+ *
+ * <p>"list" 只使用 count；"query" 使用全部过滤字段，空字符串/0 表示不限。</p>
  */
 public record TeleportLogAdminC2SPayload(
-        String action,
-        int count
+        String action,      // "list" 或 "query"
+        int count,          // list: 条数；query: 每页条数
+        String player,      // 玩家名称或 UUID
+        String teleportType,
+        String dimension,   // 目标维度
+        long fromTime,      // 起始时间（毫秒）
+        long toTime,        // 结束时间（毫秒）
+        String cursor       // 续查位置，空字符串表示从最新的日志开始
 ) implements CustomPayload {
 
     public static final CustomPayload.Id<TeleportLogAdminC2SPayload> ID =
@@ -20,15 +28,43 @@ public record TeleportLogAdminC2SPayload(
                     (buf, payload) -> {
                         buf.writeString(payload.action());
                         buf.writeInt(payload.count());
+                        buf.writeString(payload.player());
+                        buf.writeString(payload.teleportType());
+                        buf.writeString(payload.dimension());
+                        buf.writeLong(payload.fromTime());
+                        buf.writeLong(payload.toTime());
+                        buf.writeString(payload.cursor());
                     },
                     buf -> new TeleportLogAdminC2SPayload(
                             buf.readString(),
-                            buf.readInt()
+                            buf.readInt(),
+                            buf.readString(),
+                            buf.readString(),
+                            buf.readString(),
+                            buf.readLong(),
+                            buf.readLong(),
+                            buf.readString()
                     )
             );
 
+    public TeleportLogAdminC2SPayload(String action, int count) {
+        this(action, count, "", "", "", 0, 0, "");
+    }
+
     @Override
     public CustomPayload.Id<TeleportLogAdminC2SPayload> getId() {
         return ID;
     }
+
+    /**
+     * 创建日志查询请求，null 条件按不限处理。
+     */
+    public static TeleportLogAdminC2SPayload query(String player, String teleportType, String dimension,
+                                                   long fromTime, long toTime, String cursor, int pageSize) {
+        return new TeleportLogAdminC2SPayload("query", pageSize,
+                player != null ? player : "",
+                teleportType != null ? teleportType : "",
+                dimension != null ? dimension : "",
+                fromTime, toTime, cursor != null ? cursor : "");
+    }
 }
@@ -1,11 +1,16 @@
 package io.github.stone_brick.spotteddog.network.c2s;
 
+import io.github.stone_brick.spotteddog.network.SpotWireCodec;
+import io.github.stone_brick.spotteddog.network.TeleportType;
 import net.minecraft.network.PacketByteBuf;
 import net.minecraft.network.codec.PacketCodec;
 import net.minecraft.network.packet.CustomPayload;
 
 /**
  * 客户端到服务端的传送请求数据包。
+ *
+ * <p>传送类型以 {@link TeleportType} 序号编码；坐标和维度只在 spot 类型时发送，
+ * 常用维度只占一个字节。</p>
  */
 public record TeleportRequestC2SPayload(
         String type,
@@ -24,27 +29,38 @@ public record TeleportRequestC2SPayload(
     public static final PacketCodec<PacketByteBuf, TeleportRequestC2SPayload> CODEC =
             PacketCodec.ofStatic(
                     (buf, payload) -> {
-                        buf.writeString(payload.type());
+                        SpotWireCodec.writeHeader(buf, 0);
+                        SpotWireCodec.writeTeleportType(buf, payload.type());
                         buf.writeString(payload.targetName());
-                        buf.writeDouble(payload.x());
-                        buf.writeDouble(payload.y());
-                        buf.writeDouble(payload.z());
                         buf.writeFloat(payload.yaw());
                         buf.writeFloat(payload.pitch());
-                        buf.writeString(payload.dimension());
+                        // 只有 spot 类型使用客户端提供的坐标和维度
+                        if (isSpot(payload.type())) {
+                            buf.writeDouble(payload.x());
+                            buf.writeDouble(payload.y());
+                            buf.writeDouble(payload.z());
+                            SpotWireCodec.writeDimension(buf, payload.dimension());
+                        }
                     },
-                    buf -> new TeleportRequestC2SPayload(
-                            buf.readString(),
-                            buf.readString(),
-                            buf.readDouble(),
-                            buf.readDouble(),
-                            buf.readDouble(),
-                            buf.readFloat(),
-                            buf.readFloat(),
-                            buf.readString()
-                    )
+                    buf -> {
+                        SpotWireCodec.readHeader(buf);
+                        String type = SpotWireCodec.readTeleportType(buf);
+                        String targetName = buf.readString();
+                        float yaw = buf.readFloat();
+                        float pitch = buf.readFloat();
+                        if (!isSpot(type)) {
+                            return new TeleportRequestC2SPayload(type, targetName, 0, 0, 0, yaw, pitch, "");
+                        }
+                        return new TeleportRequestC2SPayload(type, targetName,
+                                buf.readDouble(), buf.readDouble(), buf.readDouble(),
+                                yaw, pitch, SpotWireCodec.readDimension(buf));
+                    }
             );
 
+    private static boolean isSpot(String type) {
+        return TeleportType.fromString(type) == TeleportType.SPOT;
+    }
+
     @Override
     public CustomPayload.Id<TeleportRequestC2SPayload> getId() {
         return ID;
@@ -0,0 +1,35 @@
+package io.github.stone_brick.spotteddog.network.s2c;
+
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+
+/**
+ * 服务端到客户端的权限同步数据包。
+ * 玩家加入或权限变化时由服务端主动推送，位定义见 {@code PermissionManager}。
+ */
+public record PermissionSyncS2CPayload(
+        int permissions     // 权限位掩码
+) implements CustomPayload {
+
+    public static final CustomPayload.Id<PermissionSyncS2CPayload> ID =
+            CustomPayload.id("spotteddog/permission_sync");
+
+    public static final PacketCodec<PacketByteBuf, PermissionSyncS2CPayload> CODEC =
+            PacketCodec.ofStatic(
+                    (buf, payload) -> buf.writeVarInt(payload.permissions()),
+                    buf -> new PermissionSyncS2CPayload(buf.readVarInt())
+            );
+
+    @Override
+    public CustomPayload.Id<PermissionSyncS2CPayload> getId() {
+        return ID;
+    }
+
+    /**
+     * 检查是否包含指定权限位。
+     */
+    public boolean has(int bit) {
+        return (permissions & bit) != 0;
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.stone_brick.spotteddog.network.s2c;
+
+import io.github.stone_brick.spotteddog.network.SpotWireCodec;
+import io.github.stone_brick.spotteddog.server.config.ConfigManager;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 公开 Spot 列表增量同步响应（S2C）。
+ *
+ * <p>客户端带版本号请求列表时，若列表未变化则 changes 为空（只有几个字节），
+ * 否则包含该版本之后的全部变更；客户端应用后将版本号更新为 revision。</p>
+ */
+public record PublicSpotDeltaS2CPayload(
+        long revision,
+        List<SpotChange> changes
+) implements CustomPayload {
+
+    public static final byte ADD = 0;
+    public static final byte REMOVE = 1;
+    public static final byte UPDATE = 2;
+    public static final byte RENAME = 3;
+
+    public static final CustomPayload.Id<PublicSpotDeltaS2CPayload> ID =
+            CustomPayload.id("spotteddog/public_spot_delta");
+
+    public static final PacketCodec<PacketByteBuf, PublicSpotDeltaS2CPayload> CODEC =
+            PacketCodec.ofStatic(
+                    (buf, payload) -> {
+                        buf.writeVarLong(payload.revision());
+                        SpotChange.writeList(buf, payload.changes());
+                    },
+                    buf -> new PublicSpotDeltaS2CPayload(buf.readVarLong(), SpotChange.readList(buf))
+            );
+
+    @Override
+    public CustomPayload.Id<PublicSpotDeltaS2CPayload> getId() {
+        return ID;
+    }
+
+    /**
+     * 是否表示列表未变化。
+     */
+    public boolean isUnchanged() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * 单条变更（用于网络传输）。REMOVE 只使用所有者和名称，previousName 仅 RENAME 使用。
+     */
+    public record SpotChange(
+            byte type,
+            String ownerName,
+            String displayName,
+            String previousName,
+            double x,
+            double y,
+            double z,
+            String dimension
+    ) {
+        /**
+         * 写入变更列表（带格式头和所有者/维度字典）。
+         */
+        public static void writeList(PacketByteBuf buf, List<SpotChange> changes) {
+            int flags = ConfigManager.isPublicListFixedPointCoords() ? SpotWireCodec.FLAG_FIXED_POINT : 0;
+            SpotWireCodec.writeHeader(buf, flags);
+
+            SpotWireCodec.Dictionary dictionary = new SpotWireCodec.Dictionary();
+            for (SpotChange change : changes) {
+                dictionary.add(change.ownerName());
+                if (change.type() != REMOVE) {
+                    dictionary.add(change.dimension());
+                }
+            }
+            dictionary.write(buf);
+
+            buf.writeVarInt(changes.size());
+            for (SpotChange change : changes) {
+                buf.writeByte(change.type());
+                dictionary.writeRef(buf, change.ownerName());
+                buf.writeString(change.displayName());
+                if (change.type() == REMOVE) {
+                    continue;
+                }
+                if (change.type() == RENAME) {
+                    buf.writeString(change.previousName());
+                }
+                SpotWireCodec.writeCoordinate(buf, change.x(), flags);
+                SpotWireCodec.writeCoordinate(buf, change.y(), flags);
+                SpotWireCodec.writeCoordinate(buf, change.z(), flags);
+                dictionary.writeRef(buf, change.dimension());
+            }
+        }
+
+        /**
+         * 读取变更列表。
+         */
+        public static List<SpotChange> readList(PacketByteBuf buf) {
+            int flags = SpotWireCodec.readHeader(buf);
+            List<String> dictionary = SpotWireCodec.Dictionary.read(buf);
+            int size = SpotWireCodec.readCount(buf);
+            List<SpotChange> changes = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                byte type = buf.readByte();
+                String ownerName = SpotWireCodec.Dictionary.readRef(buf, dictionary);
+                String displayName = buf.readString();
+                if (type == REMOVE) {
+                    changes.add(new SpotChange(type, ownerName, displayName, "", 0, 0, 0, ""));
+                    continue;
+                }
+                String previousName = type == RENAME ? buf.readString() : "";
+                changes.add(new SpotChange(type, ownerName, displayName, previousName,
+                        SpotWireCodec.readCoordinate(buf, flags),
+                        SpotWireCodec.readCoordinate(buf, flags),
+                        SpotWireCodec.readCoordinate(buf, flags),
+                        SpotWireCodec.Dictionary.readRef(buf, dictionary)));
+            }
+            return changes;
+        }
+    }
+
+    /**
+     * 创建"未变化"响应。
+     */
+    public static PublicSpotDeltaS2CPayload unchanged(long revision) {
+        return new PublicSpotDeltaS2CPayload(revision, List.of());
+    }
+}
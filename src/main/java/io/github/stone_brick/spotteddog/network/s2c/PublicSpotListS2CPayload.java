@@ -1,5 +1,8 @@
 package io.github.stone_brick.spotteddog.network.s2c;
 
+import io.github.stone_brick.spotteddog.network.SpotWireCodec;
+import io.github.stone_brick.spotteddog.server.config.ConfigManager;
+import io.netty.buffer.Unpooled;
 import net.minecraft.network.PacketByteBuf;
 import net.minecraft.network.codec.PacketCodec;
 import net.minecraft.network.packet.CustomPayload;
@@ -10,11 +13,24 @@ import java.util.List;
 /**
  * 公开 Spot 列表响应（S2C）。
  * 同时包含玩家的权限信息。
+ *
+ * <p>每个响应只包含一页：cursor 回显请求的续传令牌（空字符串表示第一页），
+ * nextCursor 为下一页的续传令牌，空字符串表示已是最后一页。
+ * revision 为服务端生成该页时的版本号，客户端以第一页的版本号作为后续增量同步的起点。</p>
+ *
+ * <p>使用 {@link SpotWireCodec} 紧凑编码：所有者名和维度通过每包字典引用，
+ * 坐标可按配置 {@code public_list_fixed_point_coords} 使用定点数。
+ * 与玩家无关的列表主体在前、权限标记在后，服务端可对同一页复用预编码的主体。</p>
  */
 public record PublicSpotListS2CPayload(
         List<PublicSpotInfo> spots,
         boolean canTeleport,
-        boolean canManagePublicSpots
+        boolean canManagePublicSpots,
+        String cursor,
+        String nextCursor,
+        boolean filtered,   // 是否为带过滤条件的请求的响应
+        long revision,      // 公开 Spot 列表版本号
+        byte[] encodedBody  // 预编码的列表主体（仅服务端发送缓存页时非 null）
 ) implements CustomPayload {
 
     public static final CustomPayload.Id<PublicSpotListS2CPayload> ID =
@@ -23,39 +39,101 @@ public record PublicSpotListS2CPayload(
     public static final PacketCodec<PacketByteBuf, PublicSpotListS2CPayload> CODEC =
             PacketCodec.ofStatic(
                     (buf, payload) -> {
-                        buf.writeInt(payload.spots().size());
-                        for (PublicSpotInfo spot : payload.spots()) {
-                            buf.writeString(spot.ownerName());
-                            buf.writeString(spot.displayName());
-                            buf.writeDouble(spot.x());
-                            buf.writeDouble(spot.y());
-                            buf.writeDouble(spot.z());
-                            buf.writeString(spot.dimension());
+                        // 列表主体与玩家无关，可直接写入预编码的字节；权限标记附加在末尾
+                        if (payload.encodedBody() != null) {
+                            buf.writeBytes(payload.encodedBody());
+                        } else {
+                            writeBody(buf, payload.spots(), payload.cursor(), payload.nextCursor(),
+                                    payload.filtered(), payload.revision(),
+                                    ConfigManager.isPublicListFixedPointCoords());
                         }
                         buf.writeBoolean(payload.canTeleport());
                         buf.writeBoolean(payload.canManagePublicSpots());
                     },
                     buf -> {
-                        int size = buf.readInt();
-                        List<PublicSpotInfo> spots = new ArrayList<>();
+                        int flags = SpotWireCodec.readHeader(buf);
+                        List<String> dictionary = SpotWireCodec.Dictionary.read(buf);
+                        int size = SpotWireCodec.readCount(buf);
+                        List<PublicSpotInfo> spots = new ArrayList<>(size);
                         for (int i = 0; i < size; i++) {
                             spots.add(new PublicSpotInfo(
+                                    SpotWireCodec.Dictionary.readRef(buf, dictionary),
                                     buf.readString(),
-                                    buf.readString(),
-                                    buf.readDouble(),
-                                    buf.readDouble(),
-                                    buf.readDouble(),
-                                    buf.readString()
+                                    SpotWireCodec.readCoordinate(buf, flags),
+                                    SpotWireCodec.readCoordinate(buf, flags),
+                                    SpotWireCodec.readCoordinate(buf, flags),
+                                    SpotWireCodec.Dictionary.readRef(buf, dictionary)
                             ));
                         }
-                        return new PublicSpotListS2CPayload(
-                                spots,
-                                buf.readBoolean(),
-                                buf.readBoolean()
-                        );
+                        String cursor = buf.readString();
+                        String nextCursor = buf.readString();
+                        boolean filtered = buf.readBoolean();
+                        long revision = buf.readVarLong();
+                        return new PublicSpotListS2CPayload(spots, buf.readBoolean(), buf.readBoolean(),
+                                cursor, nextCursor, filtered, revision, null);
                     }
             );
 
+    /**
+     * 写入列表主体（除权限标记外的全部内容）。
+     */
+    private static void writeBody(PacketByteBuf buf, List<PublicSpotInfo> spots, String cursor,
+                                  String nextCursor, boolean filtered, long revision, boolean fixedPoint) {
+        int flags = fixedPoint ? SpotWireCodec.FLAG_FIXED_POINT : 0;
+        SpotWireCodec.writeHeader(buf, flags);
+
+        // 所有者名和维度只在字典中发送一次
+        SpotWireCodec.Dictionary dictionary = new SpotWireCodec.Dictionary();
+        for (PublicSpotInfo spot : spots) {
+            dictionary.add(spot.ownerName());
+            dictionary.add(spot.dimension());
+        }
+        dictionary.write(buf);
+
+        buf.writeVarInt(spots.size());
+        for (PublicSpotInfo spot : spots) {
+            dictionary.writeRef(buf, spot.ownerName());
+            buf.writeString(spot.displayName());
+            SpotWireCodec.writeCoordinate(buf, spot.x(), flags);
+            SpotWireCodec.writeCoordinate(buf, spot.y(), flags);
+            SpotWireCodec.writeCoordinate(buf, spot.z(), flags);
+            dictionary.writeRef(buf, spot.dimension());
+        }
+        buf.writeString(cursor);
+        buf.writeString(nextCursor);
+        buf.writeBoolean(filtered);
+        buf.writeVarLong(revision);
+    }
+
+    /**
+     * 预编码列表主体，供多个玩家的响应复用。坐标编码方式取自配置。
+     *
+     * @return 编码后的字节
+     */
+    public static byte[] encodeBody(List<PublicSpotInfo> spots, String cursor, String nextCursor,
+                                    boolean filtered, long revision) {
+        return encodeBody(spots, cursor, nextCursor, filtered, revision, ConfigManager.isPublicListFixedPointCoords());
+    }
+
+    /**
+     * 按指定的坐标编码方式预编码列表主体。
+     *
+     * @param fixedPoint 是否以定点数编码坐标
+     * @return 编码后的字节
+     */
+    public static byte[] encodeBody(List<PublicSpotInfo> spots, String cursor, String nextCursor,
+                                    boolean filtered, long revision, boolean fixedPoint) {
+        PacketByteBuf buf = new PacketByteBuf(Unpooled.buffer());
+        try {
+            writeBody(buf, spots, cursor, nextCursor != null ? nextCursor : "", filtered, revision, fixedPoint);
+            byte[] bytes = new byte[buf.readableBytes()];
+            buf.readBytes(bytes);
+            return bytes;
+        } finally {
+            buf.release();
+        }
+    }
+
     @Override
     public CustomPayload.Id<PublicSpotListS2CPayload> getId() {
         return ID;
@@ -81,7 +159,7 @@ public record PublicSpotListS2CPayload(
      * 创建只有 Spot 列表的负载（向后兼容）。
      */
     public static PublicSpotListS2CPayload create(List<PublicSpotInfo> spots) {
-        return new PublicSpotListS2CPayload(spots, true, false);
+        return new PublicSpotListS2CPayload(spots, true, false, "", "", false, 0, null);
     }
 
     /**
@@ -89,6 +167,37 @@ public record PublicSpotListS2CPayload(
      */
     public static PublicSpotListS2CPayload create(List<PublicSpotInfo> spots,
                                                    boolean canTeleport, boolean canManagePublicSpots) {
-        return new PublicSpotListS2CPayload(spots, canTeleport, canManagePublicSpots);
+        return new PublicSpotListS2CPayload(spots, canTeleport, canManagePublicSpots, "", "", false, 0, null);
+    }
+
+    /**
+     * 创建分页响应。
+     */
+    public static PublicSpotListS2CPayload page(List<PublicSpotInfo> spots,
+                                                boolean canTeleport, boolean canManagePublicSpots,
+                                                String cursor, String nextCursor, boolean filtered,
+                                                long revision) {
+        return new PublicSpotListS2CPayload(spots, canTeleport, canManagePublicSpots,
+                cursor, nextCursor != null ? nextCursor : "", filtered, revision, null);
+    }
+
+    /**
+     * 使用预编码的列表主体创建分页响应，只有权限标记按玩家填写。
+     *
+     * @param encodedBody {@link #encodeBody} 的结果，必须与其余参数描述同一页
+     */
+    public static PublicSpotListS2CPayload encoded(List<PublicSpotInfo> spots,
+                                                   boolean canTeleport, boolean canManagePublicSpots,
+                                                   String cursor, String nextCursor, boolean filtered,
+                                                   long revision, byte[] encodedBody) {
+        return new PublicSpotListS2CPayload(spots, canTeleport, canManagePublicSpots,
+                cursor, nextCursor != null ? nextCursor : "", filtered, revision, encodedBody);
+    }
+
+    /**
+     * 是否还有下一页。
+     */
+    public boolean hasMore() {
+        return !nextCursor.isEmpty();
     }
 }
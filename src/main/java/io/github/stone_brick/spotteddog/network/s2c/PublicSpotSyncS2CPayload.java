@@ -0,0 +1,53 @@
+package io.github.stone_brick.spotteddog.network.s2c;
+
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+
+import java.util.List;
+
+/**
+ * 公开 Spot 变更推送（S2C）。
+ * 服务端每 tick 把本 tick 内的全部变更合并为一个数据包，推送给订阅了公开 Spot 同步的客户端。
+ *
+ * <p>客户端缓存版本号等于 baseRevision 时直接应用 changes 并更新为 revision；
+ * 版本号不一致或 resync 为 true 时应重新请求列表。</p>
+ */
+public record PublicSpotSyncS2CPayload(
+        long baseRevision,
+        long revision,
+        boolean resync,     // 变更过多或日志已截断，需要重新请求列表
+        List<PublicSpotDeltaS2CPayload.SpotChange> changes
+) implements CustomPayload {
+
+    public static final CustomPayload.Id<PublicSpotSyncS2CPayload> ID =
+            CustomPayload.id("spotteddog/public_spot_sync");
+
+    public static final PacketCodec<PacketByteBuf, PublicSpotSyncS2CPayload> CODEC =
+            PacketCodec.ofStatic(
+                    (buf, payload) -> {
+                        buf.writeVarLong(payload.baseRevision());
+                        buf.writeVarLong(payload.revision());
+                        buf.writeBoolean(payload.resync());
+                        PublicSpotDeltaS2CPayload.SpotChange.writeList(buf, payload.changes());
+                    },
+                    buf -> new PublicSpotSyncS2CPayload(
+                            buf.readVarLong(),
+                            buf.readVarLong(),
+                            buf.readBoolean(),
+                            PublicSpotDeltaS2CPayload.SpotChange.readList(buf)
+                    )
+            );
+
+    @Override
+    public CustomPayload.Id<PublicSpotSyncS2CPayload> getId() {
+        return ID;
+    }
+
+    /**
+     * 创建要求重新请求列表的推送。
+     */
+    public static PublicSpotSyncS2CPayload resync(long baseRevision, long revision) {
+        return new PublicSpotSyncS2CPayload(baseRevision, revision, true, List.of());
+    }
+}
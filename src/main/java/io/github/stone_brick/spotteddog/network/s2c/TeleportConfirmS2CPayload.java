@@ -6,12 +6,15 @@ import net.minecraft.network.packet.CustomPayload;
 
 /**
  * 服务端到客户端的传送确认数据包。
+ *
+ * <p>pending 为 true 表示请求已接受、正在等待目标区块加载，之后还会再发送一次最终结果。</p>
  */
 public record TeleportConfirmS2CPayload(
         boolean success,
         String type,
         String targetName,
-        String message
+        String message,
+        boolean pending
 ) implements CustomPayload {
 
     public static final CustomPayload.Id<TeleportConfirmS2CPayload> ID =
@@ -24,12 +27,14 @@ public record TeleportConfirmS2CPayload(
                         buf.writeString(payload.type());
                         buf.writeString(payload.targetName());
                         buf.writeString(payload.message() != null ? payload.message() : "");
+                        buf.writeBoolean(payload.pending());
                     },
                     buf -> new TeleportConfirmS2CPayload(
                             buf.readBoolean(),
                             buf.readString(),
                             buf.readString(),
-                            buf.readString()
+                            buf.readString(),
+                            buf.readBoolean()
                     )
             );
 
@@ -39,10 +44,14 @@ public record TeleportConfirmS2CPayload(
     }
 
     public static TeleportConfirmS2CPayload success(String type, String targetName) {
-        return new TeleportConfirmS2CPayload(true, type, targetName, "");
+        return new TeleportConfirmS2CPayload(true, type, targetName, "", false);
     }
 
     public static TeleportConfirmS2CPayload failure(String type, String targetName, String reason) {
-        return new TeleportConfirmS2CPayload(false, type, targetName, reason);
+        return new TeleportConfirmS2CPayload(false, type, targetName, reason, false);
+    }
+
+    public static TeleportConfirmS2CPayload pending(String type, String targetName) {
+        return new TeleportConfirmS2CPayload(true, type, targetName, "", true);
     }
 }
@@ -0,0 +1,168 @@
+package io.github.stone_brick.spotteddog.server.config;
+
+import io.github.stone_brick.spotteddog.server.permission.WhitelistManager;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 配置文件监听器。
+ * 使用 NIO {@link WatchService} 监听配置文件和白名单文件，文件修改后自动重新加载，无需重启服务端。
+ *
+ * <p>同一批文件事件会在 {@link #DEBOUNCE_MS} 内合并，编辑器多次写入只触发一次重新加载。
+ * {@code AtomicFileStorage} 写入时产生的 {@code .tmp}/{@code .bak} 文件事件被忽略。
+ * 是否启用由配置 {@code config_watch_enabled} 决定（在服务端启动时读取）。</p>
+ */
+public final class ConfigFileWatcher {
+
+    private static final long DEBOUNCE_MS = 200;
+
+    // 目录 -> (文件名 -> 重新加载回调)
+    private static final Map<Path, Map<String, Runnable>> handlers = new HashMap<>();
+
+    private static WatchService watchService;
+    private static Thread thread;
+
+    private ConfigFileWatcher() {
+        // 工具类，禁止实例化
+    }
+
+    /**
+     * 注册监听的文件并在服务端启动/停止时启停监听线程。
+     */
+    public static void register() {
+        watch(ConfigManager.getConfigPath(), ConfigManager::reload);
+        for (WhitelistManager.WhitelistType type : WhitelistManager.WhitelistType.values()) {
+            watch(WhitelistManager.getWhitelistPath(type), () -> WhitelistManager.reloadWhitelist(type));
+        }
+
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> start());
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> stop());
+    }
+
+    /**
+     * 添加监听文件。
+     *
+     * @param file     文件路径
+     * @param onChange 文件变化时调用（在监听线程执行）
+     */
+    public static synchronized void watch(Path file, Runnable onChange) {
+        Path absolute = file.toAbsolutePath();
+        handlers.computeIfAbsent(absolute.getParent(), dir -> new HashMap<>())
+                .put(absolute.getFileName().toString(), onChange);
+    }
+
+    /**
+     * 启动监听线程。
+     */
+    public static synchronized void start() {
+        if (thread != null || !ConfigManager.isConfigWatchEnabled()) {
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            for (Path dir : handlers.keySet()) {
+                Files.createDirectories(dir);
+                dir.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        } catch (IOException e) {
+            // 文件系统不支持监听时仅关闭热重载功能
+            closeWatchService();
+            return;
+        }
+
+        WatchService service = watchService;
+        thread = new Thread(() -> watchLoop(service), "SpottedDog-ConfigWatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 停止监听线程。
+     */
+    public static synchronized void stop() {
+        closeWatchService();
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    private static void closeWatchService() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                // 关闭失败不影响服务端
+            }
+            watchService = null;
+        }
+    }
+
+    private static void watchLoop(WatchService service) {
+        try {
+            while (true) {
+                Set<Runnable> pending = new LinkedHashSet<>();
+                collect(service.take(), pending);
+
+                // 合并短时间内的后续事件
+                WatchKey key;
+                while ((key = service.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS)) != null) {
+                    collect(key, pending);
+                }
+
+                for (Runnable handler : pending) {
+                    try {
+                        handler.run();
+                    } catch (RuntimeException e) {
+                        // 单个文件重新加载失败不影响其他文件
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // 服务端停止
+        }
+    }
+
+    private static void collect(WatchKey key, Set<Runnable> pending) {
+        Path dir = (Path) key.watchable();
+        Map<String, Runnable> files;
+        synchronized (ConfigFileWatcher.class) {
+            files = handlers.get(dir);
+        }
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (files == null) {
+                continue;
+            }
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // 事件丢失时重新加载该目录下的所有文件
+                pending.addAll(files.values());
+                continue;
+            }
+            String name = event.context().toString();
+            if (name.endsWith(".tmp") || name.endsWith(".bak")) {
+                continue;
+            }
+            Runnable handler = files.get(name);
+            if (handler != null) {
+                pending.add(handler);
+            }
+        }
+        key.reset();
+    }
+}
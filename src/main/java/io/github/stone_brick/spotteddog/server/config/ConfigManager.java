@@ -2,16 +2,26 @@ package io.github.stone_brick.spotteddog.server.config;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import com.google.gson.annotations.SerializedName;
+import io.github.stone_brick.spotteddog.Spotteddog;
+import io.github.stone_brick.spotteddog.event.AsyncEventDispatcher;
+import io.github.stone_brick.spotteddog.storage.AtomicFileStorage;
 import net.fabricmc.loader.api.FabricLoader;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * 服务端配置管理类。
  * 管理模组配置文件，支持冷却时间等设置。
+ *
+ * <p>配置以不可变的 {@link ConfigSnapshot} 通过 volatile 引用发布，读取无锁且总能看到完整的一份配置。
+ * 配置文件修改后由 {@link ConfigFileWatcher} 触发 {@link #reload()}：解析并校验通过后才整体替换快照，
+ * 然后通知重新加载监听器；文件有误时保留当前配置。</p>
  */
 public class ConfigManager {
 
@@ -19,7 +29,10 @@ public class ConfigManager {
     private static final Path CONFIG_DIR = FabricLoader.getInstance().getConfigDir().resolve("spotteddog").resolve("config");
     private static final Path CONFIG_FILE = CONFIG_DIR.resolve(CONFIG_FILE_NAME);
 
-    private static Config instance;
+    private static volatile ConfigSnapshot snapshot;
+    private static Config source;       // 当前快照对应的原始配置（仅用于保存）
+    private static String loadedJson;   // 当前快照对应的文件内容（用于忽略未变化的文件事件）
+    private static final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
 
     /**
@@ -32,6 +45,39 @@ public class ConfigManager {
         @SerializedName("max_teleports_per_second")
         public int maxTeleportsPerSecond = 10;
 
+        @SerializedName("teleport_burst")
+        public int teleportBurst = 10; // 全局传送允许的最大突发数
+
+        @SerializedName("teleport_prewarm_enabled")
+        public boolean teleportPrewarmEnabled = true; // 传送前异步预加载目标区块
+
+        @SerializedName("teleport_prewarm_timeout_ticks")
+        public int teleportPrewarmTimeoutTicks = 100; // 预加载超时（tick），超时后直接传送
+
+        @SerializedName("teleport_queue_max_per_tick")
+        public int teleportQueueMaxPerTick = 20; // 每 tick 最多执行的传送数
+
+        @SerializedName("teleport_queue_tick_budget_micros")
+        public int teleportQueueTickBudgetMicros = 2000; // 每 tick 执行传送的时间预算（微秒）
+
+        @SerializedName("teleport_queue_capacity")
+        public int teleportQueueCapacity = 256; // 等待中的传送上限，超出时拒绝新请求
+
+        @SerializedName("hot_spot_ticket_count")
+        public int hotSpotTicketCount = 4; // 保持区块加载的热门公开 Spot 数量（0 表示关闭）
+
+        @SerializedName("hot_spot_chunk_budget")
+        public int hotSpotChunkBudget = 36; // 热门公开 Spot 最多保持加载的区块数
+
+        @SerializedName("hot_spot_half_life_minutes")
+        public int hotSpotHalfLifeMinutes = 30; // 公开 Spot 热度的半衰期（分钟）
+
+        @SerializedName("safe_landing_enabled")
+        public boolean safeLandingEnabled = true; // 传送前检查落点是否安全，不安全时在附近寻找安全位置
+
+        @SerializedName("safe_landing_vertical_range")
+        public int safeLandingVerticalRange = 8; // 寻找安全落点时向上/向下搜索的最大格数
+
         @SerializedName("allow_all_players_teleport")
         public boolean allowAllPlayersTeleport = false; // 默认仅OP可使用传送功能
 
@@ -47,48 +93,174 @@ public class ConfigManager {
         @SerializedName("max_public_spot_requests_per_second")
         public int maxPublicSpotRequestsPerSecond = 10; // 每秒最大公开/取消公开请求数
 
+        @SerializedName("public_spot_request_burst")
+        public int publicSpotRequestBurst = 10; // 公开/取消公开请求允许的最大突发数
+
+        @SerializedName("max_public_list_requests_per_second")
+        public int maxPublicListRequestsPerSecond = 20; // 全局每秒最大公开 Spot 列表请求数
+
+        @SerializedName("public_list_request_burst")
+        public int publicListRequestBurst = 20; // 公开 Spot 列表请求允许的最大突发数
+
+        @SerializedName("player_list_requests_per_second")
+        public int playerListRequestsPerSecond = 4; // 每个玩家每秒最大翻页/过滤列表请求数
+
+        @SerializedName("player_list_request_burst")
+        public int playerListRequestBurst = 10; // 每个玩家翻页/过滤列表请求允许的最大突发数
+
+        @SerializedName("public_list_page_size")
+        public int publicListPageSize = 50; // 公开 Spot 列表每页最大条数
+
+        @SerializedName("public_list_changelog_size")
+        public int publicListChangelogSize = 256; // 保留多少条公开 Spot 变更用于增量同步
+
+        @SerializedName("public_list_fixed_point_coords")
+        public boolean publicListFixedPointCoords = true; // 公开 Spot 列表坐标使用 1/16 方块精度的定点数编码
+
+        @SerializedName("cooldown_sweep_interval_ticks")
+        public int cooldownSweepIntervalTicks = 200; // 每隔多少 tick 清理一次过期的冷却记录
+
+        @SerializedName("admin_cache_ttl_seconds")
+        public int adminCacheTtlSeconds = 30; // OP 判断结果缓存时间（秒）
+
+        @SerializedName("config_watch_enabled")
+        public boolean configWatchEnabled = true; // 配置和白名单文件修改后自动重新加载
+
         @SerializedName("teleport_log_enabled")
         public boolean teleportLogEnabled = false; // 是否启用传送日志
 
         @SerializedName("teleport_log_max_entries")
-        public int teleportLogMaxEntries = 1000; // 日志最大保留条数
+        public int teleportLogMaxEntries = 1000; // 内存中缓存的最近日志条数
+
+        @SerializedName("teleport_log_segment_max_bytes")
+        public long teleportLogSegmentMaxBytes = 8L * 1024 * 1024; // 单个日志分段大小上限（字节）
+
+        @SerializedName("teleport_log_retention_days")
+        public int teleportLogRetentionDays = 90; // 日志分段保留天数，0 表示永久保留
+
+        @SerializedName("teleport_log_compress_segments")
+        public boolean teleportLogCompressSegments = true; // 是否 gzip 压缩已滚动的日志分段
+
+        @SerializedName("log_event_queue_capacity")
+        public int logEventQueueCapacity = 4096; // 日志事件异步队列容量
+
+        @SerializedName("log_event_overflow_policy")
+        public String logEventOverflowPolicy = "drop"; // 队列满时的策略：drop、block、sample
+
+        @SerializedName("log_event_sample_rate")
+        public int logEventSampleRate = 10; // sample 策略下队列过半时每 N 个事件保留 1 个
+
+        @SerializedName("public_spot_journal_enabled")
+        public boolean publicSpotJournalEnabled = true; // 公开 Spot 修改以追加日志方式持久化
+
+        @SerializedName("public_spot_checkpoint_records")
+        public int publicSpotCheckpointRecords = 500; // 日志累计多少条记录后合并为快照
+
+        @SerializedName("public_spot_flush_interval_ms")
+        public long publicSpotFlushIntervalMs = 1000; // 公开 Spot 后台写入间隔（毫秒）
+
+        @SerializedName("public_spot_flush_threshold")
+        public int publicSpotFlushThreshold = 64; // 累计多少次修改后提前写入
     }
 
     /**
-     * 获取配置实例，如果不存在则创建默认配置。
+     * 获取当前配置快照，如果尚未加载则加载或创建默认配置。
      */
-    public static Config getConfig() {
-        if (instance == null) {
+    public static ConfigSnapshot getConfig() {
+        ConfigSnapshot current = snapshot;
+        if (current == null) {
             loadOrCreate();
+            current = snapshot;
         }
-        return instance;
+        return current;
     }
 
     /**
      * 加载配置，如果不存在则创建默认配置。
      */
     public static synchronized void loadOrCreate() {
-        try {
-            // 确保配置目录存在
-            if (!Files.exists(CONFIG_DIR)) {
-                Files.createDirectories(CONFIG_DIR);
+        // 配置文件损坏时自动回退到 .bak
+        String[] json = new String[1];
+        Config loaded = AtomicFileStorage.read(CONFIG_FILE, content -> {
+            json[0] = content;
+            return GSON.fromJson(content, Config.class);
+        });
+        ConfigSnapshot next = null;
+        if (loaded != null) {
+            try {
+                next = ConfigSnapshot.of(loaded);
+            } catch (IllegalArgumentException e) {
+                // 配置值无效：使用默认配置，但不覆盖用户文件以便修正
+                loaded = null;
             }
+        }
+        if (next != null) {
+            source = loaded;
+            loadedJson = json[0];
+        } else if (!AtomicFileStorage.exists(CONFIG_FILE)) {
+            // 创建默认配置
+            source = new Config();
+            next = ConfigSnapshot.of(source);
+            save();
+        } else {
+            // 文件存在但无法解析：使用默认配置，但不覆盖用户文件以便修正
+            source = new Config();
+            next = ConfigSnapshot.of(source);
+        }
+        snapshot = next;
+        fireReloadListeners();
+    }
 
-            if (Files.exists(CONFIG_FILE)) {
-                // 加载现有配置
-                String json = Files.readString(CONFIG_FILE);
-                instance = GSON.fromJson(json, Config.class);
-                if (instance == null) {
-                    instance = new Config();
-                    save();
-                }
-            } else {
-                // 创建默认配置
-                instance = new Config();
-                save();
-            }
+    /**
+     * 重新读取配置文件（文件变化时调用）。
+     * 只读取主文件且不回退到 .bak；解析或校验失败时保留当前快照。
+     *
+     * @return true 如果配置已替换
+     */
+    public static synchronized boolean reload() {
+        String json;
+        try {
+            json = Files.readString(CONFIG_FILE);
         } catch (IOException e) {
-            instance = new Config();
+            // 文件正在替换或已删除，保留当前配置
+            return false;
+        }
+        if (json.equals(loadedJson)) {
+            // 内容未变化（例如自身写入触发的事件）
+            return false;
+        }
+
+        ConfigSnapshot next;
+        Config parsed;
+        try {
+            parsed = GSON.fromJson(json, Config.class);
+            next = ConfigSnapshot.of(parsed);
+        } catch (JsonParseException | IllegalArgumentException e) {
+            // 编辑中途的不完整内容或无效配置值，等待下一次修改
+            return false;
+        }
+
+        source = parsed;
+        loadedJson = json;
+        snapshot = next;
+        fireReloadListeners();
+        return true;
+    }
+
+    /**
+     * 添加配置重新加载监听器，在新快照发布后调用（调用线程不确定）。
+     */
+    public static void addReloadListener(Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    private static void fireReloadListeners() {
+        for (Runnable listener : reloadListeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                // 监听器异常不影响配置生效
+            }
         }
     }
 
@@ -97,13 +269,12 @@ public class ConfigManager {
      */
     public static synchronized void save() {
         try {
-            if (!Files.exists(CONFIG_DIR)) {
-                Files.createDirectories(CONFIG_DIR);
-            }
-            String json = GSON.toJson(instance);
-            Files.writeString(CONFIG_FILE, json);
+            String json = GSON.toJson(source);
+            AtomicFileStorage.writeString(CONFIG_FILE, json);
+            loadedJson = json;
         } catch (IOException e) {
-            // 忽略保存失败
+            // 原文件保持不变，内存中的配置仍然生效
+            Spotteddog.LOGGER.warn("Failed to save config file {}", CONFIG_FILE, e);
         }
     }
 
@@ -111,7 +282,21 @@ public class ConfigManager {
      * 获取冷却时间（秒）。
      */
     public static int getTeleportCooldownSeconds() {
-        return getConfig().teleportCooldownSeconds;
+        return getConfig().getTeleportCooldownSeconds();
+    }
+
+    /**
+     * 获取冷却时间（毫秒）。
+     */
+    public static long getTeleportCooldownMillis() {
+        return getConfig().getTeleportCooldownMillis();
+    }
+
+    /**
+     * 获取全局每秒最大传送请求数。
+     */
+    public static int getMaxTeleportsPerSecond() {
+        return getConfig().getMaxTeleportsPerSecond();
     }
 
     /**
@@ -120,7 +305,7 @@ public class ConfigManager {
      * @return true 如果允许所有玩家使用传送
      */
     public static boolean isAllowAllPlayersTeleport() {
-        return getConfig().allowAllPlayersTeleport;
+        return getConfig().isAllowAllPlayersTeleport();
     }
 
     /**
@@ -129,7 +314,7 @@ public class ConfigManager {
      * @return true 如果允许所有玩家使用公开 Spot
      */
     public static boolean isAllowAllPlayersPublicSpot() {
-        return getConfig().allowAllPlayersPublicSpot;
+        return getConfig().isAllowAllPlayersPublicSpot();
     }
 
     /**
@@ -138,7 +323,14 @@ public class ConfigManager {
      * @return 冷却时间（秒）
      */
     public static int getPublicSpotCooldownSeconds() {
-        return getConfig().publicSpotCooldownSeconds;
+        return getConfig().getPublicSpotCooldownSeconds();
+    }
+
+    /**
+     * 获取公开/取消公开 Spot 的冷却时间（毫秒）。
+     */
+    public static long getPublicSpotCooldownMillis() {
+        return getConfig().getPublicSpotCooldownMillis();
     }
 
     /**
@@ -147,7 +339,168 @@ public class ConfigManager {
      * @return 最大请求数
      */
     public static int getMaxPublicSpotRequestsPerSecond() {
-        return getConfig().maxPublicSpotRequestsPerSecond;
+        return getConfig().getMaxPublicSpotRequestsPerSecond();
+    }
+
+    /**
+     * 获取全局传送允许的最大突发数。
+     */
+    public static int getTeleportBurst() {
+        return getConfig().getTeleportBurst();
+    }
+
+    /**
+     * 传送前是否预加载目标区块。
+     */
+    public static boolean isTeleportPrewarmEnabled() {
+        return getConfig().isTeleportPrewarmEnabled();
+    }
+
+    /**
+     * 获取区块预加载超时时间（tick）。
+     */
+    public static int getTeleportPrewarmTimeoutTicks() {
+        return getConfig().getTeleportPrewarmTimeoutTicks();
+    }
+
+    /**
+     * 获取每 tick 最多执行的传送数。
+     */
+    public static int getTeleportQueueMaxPerTick() {
+        return getConfig().getTeleportQueueMaxPerTick();
+    }
+
+    /**
+     * 获取每 tick 执行传送的时间预算（纳秒）。
+     */
+    public static long getTeleportQueueTickBudgetNanos() {
+        return getConfig().getTeleportQueueTickBudgetNanos();
+    }
+
+    /**
+     * 获取等待中的传送上限。
+     */
+    public static int getTeleportQueueCapacity() {
+        return getConfig().getTeleportQueueCapacity();
+    }
+
+    /**
+     * 获取保持区块加载的热门公开 Spot 数量。
+     */
+    public static int getHotSpotTicketCount() {
+        return getConfig().getHotSpotTicketCount();
+    }
+
+    /**
+     * 获取热门公开 Spot 最多保持加载的区块数。
+     */
+    public static int getHotSpotChunkBudget() {
+        return getConfig().getHotSpotChunkBudget();
+    }
+
+    /**
+     * 获取公开 Spot 热度的半衰期（纳秒）。
+     */
+    public static long getHotSpotHalfLifeNanos() {
+        return getConfig().getHotSpotHalfLifeNanos();
+    }
+
+    /**
+     * 是否在传送前检查并修正不安全的落点。
+     */
+    public static boolean isSafeLandingEnabled() {
+        return getConfig().isSafeLandingEnabled();
+    }
+
+    /**
+     * 获取寻找安全落点时的垂直搜索范围（格）。
+     */
+    public static int getSafeLandingVerticalRange() {
+        return getConfig().getSafeLandingVerticalRange();
+    }
+
+    /**
+     * 获取公开/取消公开请求允许的最大突发数。
+     */
+    public static int getPublicSpotRequestBurst() {
+        return getConfig().getPublicSpotRequestBurst();
+    }
+
+    /**
+     * 获取全局每秒最大公开 Spot 列表请求数。
+     */
+    public static int getMaxPublicListRequestsPerSecond() {
+        return getConfig().getMaxPublicListRequestsPerSecond();
+    }
+
+    /**
+     * 获取公开 Spot 列表请求允许的最大突发数。
+     */
+    public static int getPublicListRequestBurst() {
+        return getConfig().getPublicListRequestBurst();
+    }
+
+    /**
+     * 获取每个玩家每秒最大翻页/过滤列表请求数。
+     */
+    public static int getPlayerListRequestsPerSecond() {
+        return getConfig().getPlayerListRequestsPerSecond();
+    }
+
+    /**
+     * 获取每个玩家翻页/过滤列表请求允许的最大突发数。
+     */
+    public static int getPlayerListRequestBurst() {
+        return getConfig().getPlayerListRequestBurst();
+    }
+
+    /**
+     * 获取公开 Spot 列表每页最大条数。
+     */
+    public static int getPublicListPageSize() {
+        return getConfig().getPublicListPageSize();
+    }
+
+    /**
+     * 获取公开 Spot 变更日志容量。
+     */
+    public static int getPublicListChangelogSize() {
+        return getConfig().getPublicListChangelogSize();
+    }
+
+    /**
+     * 公开 Spot 列表坐标是否使用定点数编码。
+     */
+    public static boolean isPublicListFixedPointCoords() {
+        return getConfig().isPublicListFixedPointCoords();
+    }
+
+    /**
+     * 获取冷却记录清理间隔（tick）。
+     */
+    public static int getCooldownSweepIntervalTicks() {
+        return getConfig().getCooldownSweepIntervalTicks();
+    }
+
+    /**
+     * 获取 OP 判断结果缓存时间（秒）。
+     */
+    public static int getAdminCacheTtlSeconds() {
+        return getConfig().getAdminCacheTtlSeconds();
+    }
+
+    /**
+     * 获取 OP 判断结果缓存时间（纳秒）。
+     */
+    public static long getAdminCacheTtlNanos() {
+        return getConfig().getAdminCacheTtlNanos();
+    }
+
+    /**
+     * 检查是否监听配置和白名单文件的修改。
+     */
+    public static boolean isConfigWatchEnabled() {
+        return getConfig().isConfigWatchEnabled();
     }
 
     /**
@@ -156,7 +509,7 @@ public class ConfigManager {
      * @return true 如果允许所有玩家传送到公开 Spot
      */
     public static boolean isAllowAllPlayersPublicSpotTeleport() {
-        return getConfig().allowAllPlayersPublicSpotTeleport;
+        return getConfig().isAllowAllPlayersPublicSpotTeleport();
     }
 
     /**
@@ -170,13 +523,83 @@ public class ConfigManager {
      * 检查是否启用传送日志。
      */
     public static boolean isTeleportLogEnabled() {
-        return getConfig().teleportLogEnabled;
+        return getConfig().isTeleportLogEnabled();
     }
 
     /**
-     * 获取日志最大保留条数。
+     * 获取内存中缓存的最近日志条数。
      */
     public static int getTeleportLogMaxEntries() {
-        return getConfig().teleportLogMaxEntries;
+        return getConfig().getTeleportLogMaxEntries();
+    }
+
+    /**
+     * 获取单个日志分段的大小上限（字节）。
+     */
+    public static long getTeleportLogSegmentMaxBytes() {
+        return getConfig().getTeleportLogSegmentMaxBytes();
+    }
+
+    /**
+     * 获取日志分段保留天数，0 表示永久保留。
+     */
+    public static int getTeleportLogRetentionDays() {
+        return getConfig().getTeleportLogRetentionDays();
+    }
+
+    /**
+     * 检查是否压缩已滚动的日志分段。
+     */
+    public static boolean isTeleportLogCompressSegments() {
+        return getConfig().isTeleportLogCompressSegments();
+    }
+
+    /**
+     * 获取日志事件异步队列容量。
+     */
+    public static int getLogEventQueueCapacity() {
+        return getConfig().getLogEventQueueCapacity();
+    }
+
+    /**
+     * 获取日志事件队列溢出策略。
+     */
+    public static AsyncEventDispatcher.OverflowPolicy getLogEventOverflowPolicy() {
+        return getConfig().getLogEventOverflowPolicy();
+    }
+
+    /**
+     * 获取 sample 策略的抽样间隔。
+     */
+    public static int getLogEventSampleRate() {
+        return getConfig().getLogEventSampleRate();
+    }
+
+    /**
+     * 检查公开 Spot 是否使用追加日志持久化。
+     */
+    public static boolean isPublicSpotJournalEnabled() {
+        return getConfig().isPublicSpotJournalEnabled();
+    }
+
+    /**
+     * 获取公开 Spot 日志合并为快照的记录数阈值。
+     */
+    public static int getPublicSpotCheckpointRecords() {
+        return getConfig().getPublicSpotCheckpointRecords();
+    }
+
+    /**
+     * 获取公开 Spot 后台写入间隔（毫秒）。
+     */
+    public static long getPublicSpotFlushIntervalMs() {
+        return getConfig().getPublicSpotFlushIntervalMs();
+    }
+
+    /**
+     * 获取公开 Spot 提前写入的修改数阈值。
+     */
+    public static int getPublicSpotFlushThreshold() {
+        return getConfig().getPublicSpotFlushThreshold();
     }
 }
@@ -0,0 +1,333 @@
+package io.github.stone_brick.spotteddog.server.config;
+
+import io.github.stone_brick.spotteddog.event.AsyncEventDispatcher;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 不可变的配置快照。
+ * 由 {@link ConfigManager.Config} 校验后构建，所有字段为 final，通过 volatile 引用发布后
+ * 可被任意线程安全读取。下限修正和派生值（冷却毫秒数等）在构建时计算一次。
+ */
+public final class ConfigSnapshot {
+
+    // 公开 Spot 列表单页条数上限（避免超出自定义负载大小限制）
+    public static final int MAX_PUBLIC_LIST_PAGE_SIZE = 200;
+
+    private final int teleportCooldownSeconds;
+    private final long teleportCooldownMillis;
+    private final int maxTeleportsPerSecond;
+    private final int teleportBurst;
+    private final boolean teleportPrewarmEnabled;
+    private final int teleportPrewarmTimeoutTicks;
+    private final int teleportQueueMaxPerTick;
+    private final int teleportQueueTickBudgetMicros;
+    private final long teleportQueueTickBudgetNanos;
+    private final int teleportQueueCapacity;
+    private final int hotSpotTicketCount;
+    private final int hotSpotChunkBudget;
+    private final int hotSpotHalfLifeMinutes;
+    private final long hotSpotHalfLifeNanos;
+    private final boolean safeLandingEnabled;
+    private final int safeLandingVerticalRange;
+    private final boolean allowAllPlayersTeleport;
+    private final boolean allowAllPlayersPublicSpot;
+    private final boolean allowAllPlayersPublicSpotTeleport;
+    private final int publicSpotCooldownSeconds;
+    private final long publicSpotCooldownMillis;
+    private final int maxPublicSpotRequestsPerSecond;
+    private final int publicSpotRequestBurst;
+    private final int maxPublicListRequestsPerSecond;
+    private final int publicListRequestBurst;
+    private final int playerListRequestsPerSecond;
+    private final int playerListRequestBurst;
+    private final int publicListPageSize;
+    private final int publicListChangelogSize;
+    private final boolean publicListFixedPointCoords;
+    private final int cooldownSweepIntervalTicks;
+    private final int adminCacheTtlSeconds;
+    private final long adminCacheTtlNanos;
+    private final boolean configWatchEnabled;
+    private final boolean teleportLogEnabled;
+    private final int teleportLogMaxEntries;
+    private final long teleportLogSegmentMaxBytes;
+    private final int teleportLogRetentionDays;
+    private final boolean teleportLogCompressSegments;
+    private final int logEventQueueCapacity;
+    private final AsyncEventDispatcher.OverflowPolicy logEventOverflowPolicy;
+    private final int logEventSampleRate;
+    private final boolean publicSpotJournalEnabled;
+    private final int publicSpotCheckpointRecords;
+    private final long publicSpotFlushIntervalMs;
+    private final int publicSpotFlushThreshold;
+
+    private ConfigSnapshot(ConfigManager.Config config) {
+        teleportCooldownSeconds = config.teleportCooldownSeconds;
+        teleportCooldownMillis = TimeUnit.SECONDS.toMillis(teleportCooldownSeconds);
+        maxTeleportsPerSecond = config.maxTeleportsPerSecond;
+        teleportBurst = Math.max(1, config.teleportBurst);
+        teleportPrewarmEnabled = config.teleportPrewarmEnabled;
+        teleportPrewarmTimeoutTicks = Math.max(1, config.teleportPrewarmTimeoutTicks);
+        teleportQueueMaxPerTick = Math.max(1, config.teleportQueueMaxPerTick);
+        teleportQueueTickBudgetMicros = Math.max(100, config.teleportQueueTickBudgetMicros);
+        teleportQueueTickBudgetNanos = TimeUnit.MICROSECONDS.toNanos(teleportQueueTickBudgetMicros);
+        teleportQueueCapacity = Math.max(1, config.teleportQueueCapacity);
+        hotSpotTicketCount = Math.max(0, config.hotSpotTicketCount);
+        hotSpotChunkBudget = Math.max(0, config.hotSpotChunkBudget);
+        hotSpotHalfLifeMinutes = Math.max(1, config.hotSpotHalfLifeMinutes);
+        hotSpotHalfLifeNanos = TimeUnit.MINUTES.toNanos(hotSpotHalfLifeMinutes);
+        safeLandingEnabled = config.safeLandingEnabled;
+        safeLandingVerticalRange = Math.max(0, Math.min(64, config.safeLandingVerticalRange));
+        allowAllPlayersTeleport = config.allowAllPlayersTeleport;
+        allowAllPlayersPublicSpot = config.allowAllPlayersPublicSpot;
+        allowAllPlayersPublicSpotTeleport = config.allowAllPlayersPublicSpotTeleport;
+        publicSpotCooldownSeconds = config.publicSpotCooldownSeconds;
+        publicSpotCooldownMillis = TimeUnit.SECONDS.toMillis(publicSpotCooldownSeconds);
+        maxPublicSpotRequestsPerSecond = config.maxPublicSpotRequestsPerSecond;
+        publicSpotRequestBurst = Math.max(1, config.publicSpotRequestBurst);
+        maxPublicListRequestsPerSecond = Math.max(1, config.maxPublicListRequestsPerSecond);
+        publicListRequestBurst = Math.max(1, config.publicListRequestBurst);
+        playerListRequestsPerSecond = Math.max(1, config.playerListRequestsPerSecond);
+        playerListRequestBurst = Math.max(1, config.playerListRequestBurst);
+        publicListPageSize = Math.min(MAX_PUBLIC_LIST_PAGE_SIZE, Math.max(1, config.publicListPageSize));
+        publicListChangelogSize = Math.max(1, config.publicListChangelogSize);
+        publicListFixedPointCoords = config.publicListFixedPointCoords;
+        cooldownSweepIntervalTicks = Math.max(1, config.cooldownSweepIntervalTicks);
+        adminCacheTtlSeconds = Math.max(1, config.adminCacheTtlSeconds);
+        adminCacheTtlNanos = TimeUnit.SECONDS.toNanos(adminCacheTtlSeconds);
+        configWatchEnabled = config.configWatchEnabled;
+        teleportLogEnabled = config.teleportLogEnabled;
+        teleportLogMaxEntries = config.teleportLogMaxEntries;
+        teleportLogSegmentMaxBytes = Math.max(4096L, config.teleportLogSegmentMaxBytes);
+        teleportLogRetentionDays = Math.max(0, config.teleportLogRetentionDays);
+        teleportLogCompressSegments = config.teleportLogCompressSegments;
+        logEventQueueCapacity = Math.max(16, config.logEventQueueCapacity);
+        logEventOverflowPolicy = AsyncEventDispatcher.OverflowPolicy.fromString(config.logEventOverflowPolicy);
+        logEventSampleRate = Math.max(1, config.logEventSampleRate);
+        publicSpotJournalEnabled = config.publicSpotJournalEnabled;
+        publicSpotCheckpointRecords = Math.max(1, config.publicSpotCheckpointRecords);
+        publicSpotFlushIntervalMs = Math.max(50L, config.publicSpotFlushIntervalMs);
+        publicSpotFlushThreshold = Math.max(1, config.publicSpotFlushThreshold);
+    }
+
+    /**
+     * 校验配置并构建快照。
+     *
+     * @param config 从文件解析的配置
+     * @return 配置快照
+     * @throws IllegalArgumentException 配置值无效时（消息为出错的配置项）
+     */
+    public static ConfigSnapshot of(ConfigManager.Config config) {
+        if (config == null) {
+            throw new IllegalArgumentException("config");
+        }
+        require(config.teleportCooldownSeconds >= 0, "teleport_cooldown_seconds");
+        require(config.maxTeleportsPerSecond > 0, "max_teleports_per_second");
+        require(config.publicSpotCooldownSeconds >= 0, "public_spot_cooldown_seconds");
+        require(config.maxPublicSpotRequestsPerSecond > 0, "max_public_spot_requests_per_second");
+        require(config.teleportLogMaxEntries > 0, "teleport_log_max_entries");
+        require(config.logEventOverflowPolicy == null || isKnownPolicy(config.logEventOverflowPolicy),
+                "log_event_overflow_policy");
+        return new ConfigSnapshot(config);
+    }
+
+    private static void require(boolean condition, String key) {
+        if (!condition) {
+            throw new IllegalArgumentException(key);
+        }
+    }
+
+    private static boolean isKnownPolicy(String value) {
+        for (AsyncEventDispatcher.OverflowPolicy policy : AsyncEventDispatcher.OverflowPolicy.values()) {
+            if (policy.name().equals(value.trim().toUpperCase(Locale.ROOT))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getTeleportCooldownSeconds() {
+        return teleportCooldownSeconds;
+    }
+
+    public long getTeleportCooldownMillis() {
+        return teleportCooldownMillis;
+    }
+
+    public int getMaxTeleportsPerSecond() {
+        return maxTeleportsPerSecond;
+    }
+
+    public int getTeleportBurst() {
+        return teleportBurst;
+    }
+
+    public boolean isTeleportPrewarmEnabled() {
+        return teleportPrewarmEnabled;
+    }
+
+    public int getTeleportPrewarmTimeoutTicks() {
+        return teleportPrewarmTimeoutTicks;
+    }
+
+    public int getTeleportQueueMaxPerTick() {
+        return teleportQueueMaxPerTick;
+    }
+
+    public int getTeleportQueueTickBudgetMicros() {
+        return teleportQueueTickBudgetMicros;
+    }
+
+    public long getTeleportQueueTickBudgetNanos() {
+        return teleportQueueTickBudgetNanos;
+    }
+
+    public int getTeleportQueueCapacity() {
+        return teleportQueueCapacity;
+    }
+
+    public int getHotSpotTicketCount() {
+        return hotSpotTicketCount;
+    }
+
+    public int getHotSpotChunkBudget() {
+        return hotSpotChunkBudget;
+    }
+
+    public int getHotSpotHalfLifeMinutes() {
+        return hotSpotHalfLifeMinutes;
+    }
+
+    public long getHotSpotHalfLifeNanos() {
+        return hotSpotHalfLifeNanos;
+    }
+
+    public boolean isSafeLandingEnabled() {
+        return safeLandingEnabled;
+    }
+
+    public int getSafeLandingVerticalRange() {
+        return safeLandingVerticalRange;
+    }
+
+    public boolean isAllowAllPlayersTeleport() {
+        return allowAllPlayersTeleport;
+    }
+
+    public boolean isAllowAllPlayersPublicSpot() {
+        return allowAllPlayersPublicSpot;
+    }
+
+    public boolean isAllowAllPlayersPublicSpotTeleport() {
+        return allowAllPlayersPublicSpotTeleport;
+    }
+
+    public int getPublicSpotCooldownSeconds() {
+        return publicSpotCooldownSeconds;
+    }
+
+    public long getPublicSpotCooldownMillis() {
+        return publicSpotCooldownMillis;
+    }
+
+    public int getMaxPublicSpotRequestsPerSecond() {
+        return maxPublicSpotRequestsPerSecond;
+    }
+
+    public int getPublicSpotRequestBurst() {
+        return publicSpotRequestBurst;
+    }
+
+    public int getMaxPublicListRequestsPerSecond() {
+        return maxPublicListRequestsPerSecond;
+    }
+
+    public int getPublicListRequestBurst() {
+        return publicListRequestBurst;
+    }
+
+    public int getPlayerListRequestsPerSecond() {
+        return playerListRequestsPerSecond;
+    }
+
+    public int getPlayerListRequestBurst() {
+        return playerListRequestBurst;
+    }
+
+    public int getPublicListPageSize() {
+        return publicListPageSize;
+    }
+
+    public int getPublicListChangelogSize() {
+        return publicListChangelogSize;
+    }
+
+    public boolean isPublicListFixedPointCoords() {
+        return publicListFixedPointCoords;
+    }
+
+    public int getCooldownSweepIntervalTicks() {
+        return cooldownSweepIntervalTicks;
+    }
+
+    public int getAdminCacheTtlSeconds() {
+        return adminCacheTtlSeconds;
+    }
+
+    public long getAdminCacheTtlNanos() {
+        return adminCacheTtlNanos;
+    }
+
+    public boolean isConfigWatchEnabled() {
+        return configWatchEnabled;
+    }
+
+    public boolean isTeleportLogEnabled() {
+        return teleportLogEnabled;
+    }
+
+    public int getTeleportLogMaxEntries() {
+        return teleportLogMaxEntries;
+    }
+
+    public long getTeleportLogSegmentMaxBytes() {
+        return teleportLogSegmentMaxBytes;
+    }
+
+    public int getTeleportLogRetentionDays() {
+        return teleportLogRetentionDays;
+    }
+
+    public boolean isTeleportLogCompressSegments() {
+        return teleportLogCompressSegments;
+    }
+
+    public int getLogEventQueueCapacity() {
+        return logEventQueueCapacity;
+    }
+
+    public AsyncEventDispatcher.OverflowPolicy getLogEventOverflowPolicy() {
+        return logEventOverflowPolicy;
+    }
+
+    public int getLogEventSampleRate() {
+        return logEventSampleRate;
+    }
+
+    public boolean isPublicSpotJournalEnabled() {
+        return publicSpotJournalEnabled;
+    }
+
+    public int getPublicSpotCheckpointRecords() {
+        return publicSpotCheckpointRecords;
+    }
+
+    public long getPublicSpotFlushIntervalMs() {
+        return publicSpotFlushIntervalMs;
+    }
+
+    public int getPublicSpotFlushThreshold() {
+        return publicSpotFlushThreshold;
+    }
+}
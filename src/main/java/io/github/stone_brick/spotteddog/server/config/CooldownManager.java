@@ -1,15 +1,27 @@
 package io.github.stone_brick.spotteddog.server.config;
 
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.minecraft.server.network.ServerPlayerEntity;
 
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 玩家传送冷却时间管理器。
  * 跟踪每个玩家的最后传送时间，防止频繁传送。
  * 同时提供全局速率限制，防止服务端过载。
+ *
+ * <p>全局速率限制由三个独立的 {@link RateLimiter}（令牌桶）分别负责：
+ * 传送、公开/取消公开 Spot、公开 Spot 列表请求。此外每个玩家的翻页和过滤列表请求
+ * 另有独立的 {@link RateLimiter}，防止单个客户端耗尽全局列表令牌。</p>
+ *
+ * <p>冷却记录只在冷却期内有意义：每隔 {@code cooldown_sweep_interval_ticks} tick
+ * 清理一次已过期的记录，内存占用只与近期活跃玩家数有关。玩家断开连接时不移除记录，
+ * 避免通过重新连接跳过冷却。
+ * 时间使用单调时钟 {@link System#nanoTime()}。</p>
  */
 public class CooldownManager {
 
@@ -18,8 +30,79 @@ public class CooldownManager {
 
     private static final ConcurrentHashMap<UUID, Long> playerCooldowns = new ConcurrentHashMap<>();
     private static final ConcurrentHashMap<UUID, Long> publicListRequests = new ConcurrentHashMap<>();
-    private static final AtomicLong teleportsThisSecond = new AtomicLong(0);
-    private static long lastSecondBoundary = System.currentTimeMillis() / 1000;
+    private static final RateLimiter teleportLimiter = new RateLimiter(
+            ConfigManager::getMaxTeleportsPerSecond, ConfigManager::getTeleportBurst);
+    private static final RateLimiter publicListLimiter = new RateLimiter(
+            ConfigManager::getMaxPublicListRequestsPerSecond, ConfigManager::getPublicListRequestBurst);
+    // 每个玩家的翻页/过滤列表请求限制器（满桶后在清理时移除）
+    private static final ConcurrentHashMap<UUID, RateLimiter> playerListLimiters = new ConcurrentHashMap<>();
+
+    // 清理统计（用于监控）
+    private static int ticksSinceSweep;
+    private static final AtomicLong sweepCount = new AtomicLong();
+    private static final AtomicLong sweptEntryCount = new AtomicLong();
+    private static final AtomicLong totalSweepNanos = new AtomicLong();
+    private static volatile long lastSweepNanos;
+
+    /**
+     * 注册过期记录清理。
+     */
+    public static void register() {
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            if (++ticksSinceSweep >= ConfigManager.getCooldownSweepIntervalTicks()) {
+                ticksSinceSweep = 0;
+                sweepExpired();
+            }
+        });
+    }
+
+    /**
+     * 移除已过冷却期的记录。
+     *
+     * @return 移除的记录数
+     */
+    public static int sweepExpired() {
+        long start = System.nanoTime();
+        int removed = sweep(playerCooldowns, ConfigManager.getTeleportCooldownMillis(), start)
+                + sweep(publicListRequests, PUBLIC_LIST_COOLDOWN_MS, start)
+                + sweep(publicSpotCooldowns, ConfigManager.getPublicSpotCooldownMillis(), start)
+                + sweepLimiters(playerListLimiters);
+        long elapsed = System.nanoTime() - start;
+        lastSweepNanos = elapsed;
+        totalSweepNanos.addAndGet(elapsed);
+        sweepCount.incrementAndGet();
+        sweptEntryCount.addAndGet(removed);
+        return removed;
+    }
+
+    private static int sweep(Map<UUID, Long> map, long cooldownMs, long now) {
+        long cooldownNanos = TimeUnit.MILLISECONDS.toNanos(cooldownMs);
+        int before = map.size();
+        map.values().removeIf(last -> now - last >= cooldownNanos);
+        return Math.max(0, before - map.size());
+    }
+
+    private static int sweepLimiters(Map<UUID, RateLimiter> map) {
+        int before = map.size();
+        map.values().removeIf(RateLimiter::isFull);
+        return Math.max(0, before - map.size());
+    }
+
+    /**
+     * 计算剩余冷却时间（毫秒），没有记录或已过期时返回 0。
+     */
+    private static long getRemainingMillis(Map<UUID, Long> map, UUID uuid, long cooldownMs) {
+        Long last = map.get(uuid);
+        if (last == null) {
+            return 0;
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - last);
+        return Math.max(0, cooldownMs - elapsedMs);
+    }
+
+    private static int toSeconds(long remainingMs) {
+        return remainingMs > 0 ? (int) Math.ceil(remainingMs / 1000.0) : 0;
+    }
 
     /**
      * 检查玩家是否在冷却中。
@@ -28,14 +111,8 @@ public class CooldownManager {
      * @return true 如果在冷却中，false 可以传送
      */
     public static boolean isInCooldown(ServerPlayerEntity player) {
-        Long lastTeleport = playerCooldowns.get(player.getUuid());
-        if (lastTeleport == null) {
-            return false;
-        }
-
-        long now = System.currentTimeMillis();
-        long cooldownMs = ConfigManager.getTeleportCooldownSeconds() * 1000L;
-        return (now - lastTeleport) < cooldownMs;
+        return getRemainingMillis(playerCooldowns, player.getUuid(),
+                ConfigManager.getTeleportCooldownMillis()) > 0;
     }
 
     /**
@@ -45,16 +122,8 @@ public class CooldownManager {
      * @return 剩余冷却时间，0 表示没有冷却
      */
     public static int getRemainingCooldown(ServerPlayerEntity player) {
-        Long lastTeleport = playerCooldowns.get(player.getUuid());
-        if (lastTeleport == null) {
-            return 0;
-        }
-
-        long now = System.currentTimeMillis();
-        long cooldownMs = ConfigManager.getTeleportCooldownSeconds() * 1000L;
-        long remaining = cooldownMs - (now - lastTeleport);
-
-        return remaining > 0 ? (int) Math.ceil(remaining / 1000.0) : 0;
+        return toSeconds(getRemainingMillis(playerCooldowns, player.getUuid(),
+                ConfigManager.getTeleportCooldownMillis()));
     }
 
     /**
@@ -63,13 +132,7 @@ public class CooldownManager {
      * @return true 如果可以继续传送，false 如果超出限制
      */
     public static boolean checkGlobalRateLimit() {
-        long now = System.currentTimeMillis() / 1000;
-        if (now != lastSecondBoundary) {
-            // 新的一秒，重置计数器
-            teleportsThisSecond.set(0);
-            lastSecondBoundary = now;
-        }
-        return teleportsThisSecond.get() < ConfigManager.getConfig().maxTeleportsPerSecond;
+        return teleportLimiter.canAcquire();
     }
 
     /**
@@ -78,21 +141,7 @@ public class CooldownManager {
      * @return true 如果成功增加，false 如果超出限制
      */
     public static boolean tryIncrementGlobalCount() {
-        long now = System.currentTimeMillis() / 1000;
-        if (now != lastSecondBoundary) {
-            // 新的一秒，重置计数器
-            teleportsThisSecond.set(0);
-            lastSecondBoundary = now;
-        }
-        long current;
-        long max = ConfigManager.getConfig().maxTeleportsPerSecond;
-        do {
-            current = teleportsThisSecond.get();
-            if (current >= max) {
-                return false;
-            }
-        } while (!teleportsThisSecond.compareAndSet(current, current + 1));
-        return true;
+        return teleportLimiter.tryAcquire();
     }
 
     /**
@@ -101,7 +150,7 @@ public class CooldownManager {
      * @param player 玩家
      */
     public static void updateLastTeleport(ServerPlayerEntity player) {
-        playerCooldowns.put(player.getUuid(), System.currentTimeMillis());
+        playerCooldowns.put(player.getUuid(), System.nanoTime());
     }
 
     /**
@@ -119,7 +168,9 @@ public class CooldownManager {
     public static void clearAllCooldowns() {
         playerCooldowns.clear();
         publicListRequests.clear();
-        teleportsThisSecond.set(0);
+        playerListLimiters.clear();
+        teleportLimiter.reset();
+        publicListLimiter.reset();
     }
 
     /**
@@ -130,14 +181,10 @@ public class CooldownManager {
     }
 
     /**
-     * 获取当前秒的传送次数（用于监控）。
+     * 获取传送限制器当前可用的令牌数（用于监控）。
      */
-    public static int getCurrentSecondCount() {
-        long now = System.currentTimeMillis() / 1000;
-        if (now != lastSecondBoundary) {
-            return 0;
-        }
-        return (int) teleportsThisSecond.get();
+    public static int getAvailableTeleportTokens() {
+        return teleportLimiter.getAvailableTokens();
     }
 
     // ===== 公开 Spot 列表请求冷却管理 =====
@@ -149,12 +196,28 @@ public class CooldownManager {
      * @return true 如果可以请求，false 如果在冷却中
      */
     public static boolean canRequestPublicList(ServerPlayerEntity player) {
-        Long lastRequest = publicListRequests.get(player.getUuid());
-        if (lastRequest == null) {
-            return true;
-        }
-        long now = System.currentTimeMillis();
-        return (now - lastRequest) >= PUBLIC_LIST_COOLDOWN_MS;
+        return getRemainingMillis(publicListRequests, player.getUuid(), PUBLIC_LIST_COOLDOWN_MS) == 0;
+    }
+
+    /**
+     * 尝试获取公开 Spot 列表请求的全局令牌。
+     *
+     * @return true 如果成功获取，false 如果超出全局限制
+     */
+    public static boolean tryAcquirePublicListGlobal() {
+        return publicListLimiter.tryAcquire();
+    }
+
+    /**
+     * 尝试获取玩家的列表请求令牌（翻页、过滤查询和订阅者的同步请求，不受列表冷却限制的请求）。
+     *
+     * @param player 玩家
+     * @return true 如果成功获取，false 如果超出该玩家的限制
+     */
+    public static boolean tryAcquirePlayerPublicList(ServerPlayerEntity player) {
+        return playerListLimiters.computeIfAbsent(player.getUuid(), uuid -> new RateLimiter(
+                ConfigManager::getPlayerListRequestsPerSecond, ConfigManager::getPlayerListRequestBurst))
+                .tryAcquire();
     }
 
     /**
@@ -163,7 +226,7 @@ public class CooldownManager {
      * @param player 玩家
      */
     public static void recordPublicListRequest(ServerPlayerEntity player) {
-        publicListRequests.put(player.getUuid(), System.currentTimeMillis());
+        publicListRequests.put(player.getUuid(), System.nanoTime());
     }
 
     /**
@@ -173,20 +236,14 @@ public class CooldownManager {
      * @return 剩余冷却时间，0 表示没有冷却
      */
     public static int getPublicListRemainingCooldown(ServerPlayerEntity player) {
-        Long lastRequest = publicListRequests.get(player.getUuid());
-        if (lastRequest == null) {
-            return 0;
-        }
-        long now = System.currentTimeMillis();
-        long remaining = PUBLIC_LIST_COOLDOWN_MS - (now - lastRequest);
-        return remaining > 0 ? (int) Math.ceil(remaining / 1000.0) : 0;
+        return toSeconds(getRemainingMillis(publicListRequests, player.getUuid(), PUBLIC_LIST_COOLDOWN_MS));
     }
 
     // ===== 公开/取消公开 Spot 冷却管理 =====
 
     private static final ConcurrentHashMap<UUID, Long> publicSpotCooldowns = new ConcurrentHashMap<>();
-    private static final AtomicLong publicSpotRequestsThisSecond = new AtomicLong(0);
-    private static long publicSpotLastSecondBoundary = System.currentTimeMillis() / 1000;
+    private static final RateLimiter publicSpotLimiter = new RateLimiter(
+            ConfigManager::getMaxPublicSpotRequestsPerSecond, ConfigManager::getPublicSpotRequestBurst);
 
     /**
      * 检查玩家是否在公开 Spot 冷却中。
@@ -195,14 +252,8 @@ public class CooldownManager {
      * @return true 如果在冷却中，false 可以操作
      */
     public static boolean isInPublicSpotCooldown(ServerPlayerEntity player) {
-        Long lastRequest = publicSpotCooldowns.get(player.getUuid());
-        if (lastRequest == null) {
-            return false;
-        }
-
-        long now = System.currentTimeMillis();
-        long cooldownMs = ConfigManager.getPublicSpotCooldownSeconds() * 1000L;
-        return (now - lastRequest) < cooldownMs;
+        return getRemainingMillis(publicSpotCooldowns, player.getUuid(),
+                ConfigManager.getPublicSpotCooldownMillis()) > 0;
     }
 
     /**
@@ -212,16 +263,8 @@ public class CooldownManager {
      * @return 剩余冷却时间，0 表示没有冷却
      */
     public static int getPublicSpotRemainingCooldown(ServerPlayerEntity player) {
-        Long lastRequest = publicSpotCooldowns.get(player.getUuid());
-        if (lastRequest == null) {
-            return 0;
-        }
-
-        long now = System.currentTimeMillis();
-        long cooldownMs = ConfigManager.getPublicSpotCooldownSeconds() * 1000L;
-        long remaining = cooldownMs - (now - lastRequest);
-
-        return remaining > 0 ? (int) Math.ceil(remaining / 1000.0) : 0;
+        return toSeconds(getRemainingMillis(publicSpotCooldowns, player.getUuid(),
+                ConfigManager.getPublicSpotCooldownMillis()));
     }
 
     /**
@@ -230,12 +273,7 @@ public class CooldownManager {
      * @return true 如果可以继续，false 如果超出限制
      */
     public static boolean checkPublicSpotGlobalRateLimit() {
-        long now = System.currentTimeMillis() / 1000;
-        if (now != publicSpotLastSecondBoundary) {
-            publicSpotRequestsThisSecond.set(0);
-            publicSpotLastSecondBoundary = now;
-        }
-        return publicSpotRequestsThisSecond.get() < ConfigManager.getMaxPublicSpotRequestsPerSecond();
+        return publicSpotLimiter.canAcquire();
     }
 
     /**
@@ -244,20 +282,7 @@ public class CooldownManager {
      * @return true 如果成功增加，false 如果超出限制
      */
     public static boolean tryIncrementPublicSpotGlobalCount() {
-        long now = System.currentTimeMillis() / 1000;
-        if (now != publicSpotLastSecondBoundary) {
-            publicSpotRequestsThisSecond.set(0);
-            publicSpotLastSecondBoundary = now;
-        }
-        long current;
-        long max = ConfigManager.getMaxPublicSpotRequestsPerSecond();
-        do {
-            current = publicSpotRequestsThisSecond.get();
-            if (current >= max) {
-                return false;
-            }
-        } while (!publicSpotRequestsThisSecond.compareAndSet(current, current + 1));
-        return true;
+        return publicSpotLimiter.tryAcquire();
     }
 
     /**
@@ -266,7 +291,7 @@ public class CooldownManager {
      * @param player 玩家
      */
     public static void updateLastPublicSpotRequest(ServerPlayerEntity player) {
-        publicSpotCooldowns.put(player.getUuid(), System.currentTimeMillis());
+        publicSpotCooldowns.put(player.getUuid(), System.nanoTime());
     }
 
     /**
@@ -283,6 +308,44 @@ public class CooldownManager {
      */
     public static void clearAllPublicSpotCooldowns() {
         publicSpotCooldowns.clear();
-        publicSpotRequestsThisSecond.set(0);
+        publicSpotLimiter.reset();
+    }
+
+    // ===== 监控指标 =====
+
+    /**
+     * 获取所有冷却表中的记录总数（用于监控）。
+     */
+    public static int getLiveEntryCount() {
+        return playerCooldowns.size() + publicListRequests.size() + publicSpotCooldowns.size();
+    }
+
+    /**
+     * 获取已执行的清理次数（用于监控）。
+     */
+    public static long getSweepCount() {
+        return sweepCount.get();
+    }
+
+    /**
+     * 获取清理累计移除的记录数（用于监控）。
+     */
+    public static long getSweptEntryCount() {
+        return sweptEntryCount.get();
+    }
+
+    /**
+     * 获取最近一次清理耗时（微秒，用于监控）。
+     */
+    public static long getLastSweepMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(lastSweepNanos);
+    }
+
+    /**
+     * 获取平均清理耗时（微秒，用于监控）。
+     */
+    public static double getAverageSweepMicros() {
+        long count = sweepCount.get();
+        return count == 0 ? 0.0 : totalSweepNanos.get() / 1000.0 / count;
     }
 }
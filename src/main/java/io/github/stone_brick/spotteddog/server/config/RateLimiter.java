@@ -0,0 +1,93 @@
+package io.github.stone_brick.spotteddog.server.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * 无锁令牌桶速率限制器（GCRA 实现）。
+ * 只维护一个“理论到达时间”（TAT），通过 CAS 更新，多线程并发调用时既不加锁也不会丢失更新。
+ *
+ * <p>平均速率为每秒 {@code rate} 次，空闲后最多允许连续 {@code burst} 次突发请求。
+ * 使用单调时钟 {@link System#nanoTime()}，不受系统时间调整影响，也不存在整秒边界处的双倍突发。</p>
+ *
+ * <p>速率和突发量通过 Supplier 读取，配置修改后立即生效。</p>
+ */
+public class RateLimiter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final IntSupplier rateSupplier;
+    private final IntSupplier burstSupplier;
+    private final AtomicLong theoreticalArrivalTime = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param rateSupplier  每秒允许的平均请求数
+     * @param burstSupplier 允许的最大突发请求数
+     */
+    public RateLimiter(IntSupplier rateSupplier, IntSupplier burstSupplier) {
+        this.rateSupplier = rateSupplier;
+        this.burstSupplier = burstSupplier;
+    }
+
+    /**
+     * 尝试获取一个令牌。
+     *
+     * @return true 如果获取成功，false 如果超出限制
+     */
+    public boolean tryAcquire() {
+        long interval = getEmissionInterval();
+        long tolerance = interval * getBurst();
+        while (true) {
+            long now = System.nanoTime();
+            long tat = theoreticalArrivalTime.get();
+            long newTat = Math.max(tat, now) + interval;
+            if (newTat - now > tolerance) {
+                return false;
+            }
+            if (theoreticalArrivalTime.compareAndSet(tat, newTat)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 检查当前是否还有可用令牌（不消耗）。
+     */
+    public boolean canAcquire() {
+        long interval = getEmissionInterval();
+        long now = System.nanoTime();
+        return Math.max(theoreticalArrivalTime.get(), now) + interval - now <= interval * getBurst();
+    }
+
+    /**
+     * 获取当前可用的令牌数（用于监控）。
+     */
+    public int getAvailableTokens() {
+        long interval = getEmissionInterval();
+        long now = System.nanoTime();
+        long used = Math.max(0, theoreticalArrivalTime.get() - now);
+        return (int) Math.max(0, getBurst() - (used + interval - 1) / interval);
+    }
+
+    /**
+     * 是否处于满桶状态（空闲足够久，与新建的限制器等价）。
+     */
+    public boolean isFull() {
+        return theoreticalArrivalTime.get() - System.nanoTime() <= 0;
+    }
+
+    /**
+     * 重置为满桶状态。
+     */
+    public void reset() {
+        theoreticalArrivalTime.set(System.nanoTime());
+    }
+
+    private long getEmissionInterval() {
+        return NANOS_PER_SECOND / Math.max(1, rateSupplier.getAsInt());
+    }
+
+    private int getBurst() {
+        return Math.max(1, burstSupplier.getAsInt());
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.stone_brick.spotteddog.server.data;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * 异步批量持久化写入器。
+ * 调用方只需标记数据已修改，实际写入由独立的后台线程完成：
+ * 定时触发，或在累计修改数达到阈值时提前触发，多次修改合并为一次写入。
+ *
+ * <p>写入动作本身由调用方提供，需自行保证与数据修改之间的一致性。</p>
+ */
+public class AsyncPersistenceWriter {
+
+    private final String name;
+    private final Runnable flushAction;
+    private final IntSupplier thresholdSupplier;
+    private final AtomicInteger dirtyCount = new AtomicInteger();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final AtomicInteger flushCount = new AtomicInteger();
+    private ScheduledExecutorService executor;
+
+    /**
+     * @param name              后台线程名称
+     * @param flushAction       写入动作，在后台线程或 {@link #flush()} 调用方线程执行
+     * @param intervalMsSupplier 定时写入间隔（毫秒）
+     * @param thresholdSupplier 提前写入的修改数阈值
+     */
+    public AsyncPersistenceWriter(String name, Runnable flushAction,
+                                  LongSupplier intervalMsSupplier, IntSupplier thresholdSupplier) {
+        this.name = name;
+        this.flushAction = flushAction;
+        this.thresholdSupplier = thresholdSupplier;
+        start(Math.max(1L, intervalMsSupplier.getAsLong()));
+    }
+
+    private void start(long intervalMs) {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushIfDirty, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 标记一次修改。不会阻塞调用方。
+     */
+    public void markDirty() {
+        if (dirtyCount.incrementAndGet() >= thresholdSupplier.getAsInt()
+                && flushQueued.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                flushQueued.set(false);
+                flushIfDirty();
+            });
+        }
+    }
+
+    /**
+     * 如果有未写入的修改则执行写入。
+     */
+    private void flushIfDirty() {
+        if (dirtyCount.get() > 0) {
+            flush();
+        }
+    }
+
+    /**
+     * 立即在当前线程执行写入（用于服务端关闭时确保数据落盘）。
+     */
+    public void flush() {
+        dirtyCount.set(0);
+        try {
+            flushAction.run();
+            flushCount.incrementAndGet();
+        } catch (RuntimeException e) {
+            // 写入失败时保留脏标记，等待下次重试
+            dirtyCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * 获取尚未写入的修改数（用于监控）。
+     */
+    public int getPendingCount() {
+        return dirtyCount.get();
+    }
+
+    /**
+     * 获取已执行的写入次数（用于监控）。
+     */
+    public int getFlushCount() {
+        return flushCount.get();
+    }
+}
@@ -1,6 +1,9 @@
 package io.github.stone_brick.spotteddog.server.data;
 
 import com.google.gson.annotations.SerializedName;
+import io.github.stone_brick.spotteddog.server.teleport.DimensionResolver;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.world.World;
 
 /**
  * 公开的 Spot 数据模型。
@@ -41,6 +44,9 @@ public class PublicSpot {
     @SerializedName("created_at")
     private long createdAt;
 
+    // 解析后的维度（不序列化，维度变化时重新解析）
+    private transient RegistryKey<World> worldKey;
+
     public PublicSpot() {
     }
 
@@ -96,7 +102,10 @@ public class PublicSpot {
     public void setPitch(float pitch) { this.pitch = pitch; }
 
     public String getDimension() { return dimension; }
-    public void setDimension(String dimension) { this.dimension = dimension; }
+    public void setDimension(String dimension) {
+        this.dimension = dimension;
+        this.worldKey = null;
+    }
 
     public long getCreatedAt() { return createdAt; }
     public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
@@ -111,21 +120,19 @@ public class PublicSpot {
         this.yaw = yaw;
         this.pitch = pitch;
         this.dimension = dimension;
+        this.worldKey = null;
     }
 
     /**
      * 获取目标维度 RegistryKey。
-     * 用于事件系统中传递目标维度。
+     * 首次调用时通过 {@link DimensionResolver} 解析并保存。
      */
-    public net.minecraft.registry.RegistryKey<net.minecraft.world.World> getWorldKey() {
-        return switch (dimension) {
-            case "minecraft:overworld", "overworld" -> net.minecraft.world.World.OVERWORLD;
-            case "minecraft:the_nether", "nether" -> net.minecraft.world.World.NETHER;
-            case "minecraft:the_end", "the_end", "end" -> net.minecraft.world.World.END;
-            default -> {
-                net.minecraft.util.Identifier dimId = net.minecraft.util.Identifier.of(dimension);
-                yield net.minecraft.registry.RegistryKey.of(net.minecraft.registry.RegistryKeys.WORLD, dimId);
-            }
-        };
+    public RegistryKey<World> getWorldKey() {
+        RegistryKey<World> key = worldKey;
+        if (key == null) {
+            key = DimensionResolver.resolve(dimension);
+            worldKey = key;
+        }
+        return key;
     }
 }
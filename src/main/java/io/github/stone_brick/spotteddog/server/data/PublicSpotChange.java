@@ -0,0 +1,40 @@
+package io.github.stone_brick.spotteddog.server.data;
+
+/**
+ * 公开 Spot 变更记录（用于增量同步）。
+ * 记录修改后的完整可见字段，客户端按所有者 + 名称应用，重复应用结果相同。
+ *
+ * @param revision     变更后的版本号
+ * @param type         变更类型
+ * @param ownerName    所有者名称
+ * @param displayName  Spot 名称（重命名时为新名称）
+ * @param previousName 重命名前的名称，其他类型为 null
+ * @param x            坐标 X
+ * @param y            坐标 Y
+ * @param z            坐标 Z
+ * @param dimension    维度
+ */
+public record PublicSpotChange(
+        long revision,
+        Type type,
+        String ownerName,
+        String displayName,
+        String previousName,
+        double x,
+        double y,
+        double z,
+        String dimension
+) {
+
+    /**
+     * 变更类型。
+     */
+    public enum Type {
+        ADD, REMOVE, UPDATE, RENAME
+    }
+
+    static PublicSpotChange of(long revision, Type type, PublicSpot spot, String previousName) {
+        return new PublicSpotChange(revision, type, spot.getOwnerName(), spot.getDisplayName(), previousName,
+                spot.getX(), spot.getY(), spot.getZ(), spot.getDimension());
+    }
+}
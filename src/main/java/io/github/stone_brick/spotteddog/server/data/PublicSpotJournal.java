@@ -0,0 +1,143 @@
+package io.github.stone_brick.spotteddog.server.data;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.annotations.SerializedName;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 公开 Spot 预写日志（追加写入）。
+ * 每次修改以一行紧凑 JSON 追加到日志文件，检查点时由 {@link PublicSpotManager}
+ * 将完整快照写入 public_spots.json 并清空日志。
+ *
+ * <p>日志格式（每行一条记录）：</p>
+ * <ul>
+ *   <li>{@code {"op":"put","spot":{...}}} - 新增或覆盖 Spot（按 ID）</li>
+ *   <li>{@code {"op":"remove","id":"..."}} - 删除 Spot（按 ID）</li>
+ * </ul>
+ */
+public class PublicSpotJournal {
+
+    public static final String OP_PUT = "put";
+    public static final String OP_REMOVE = "remove";
+
+    private static final Gson GSON = new Gson();
+
+    private final Path file;
+    private int recordCount;
+
+    public PublicSpotJournal(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * 日志记录。
+     */
+    public static class Record {
+        @SerializedName("op")
+        public String op;
+
+        @SerializedName("id")
+        public String id;
+
+        @SerializedName("spot")
+        public PublicSpot spot;
+
+        public Record() {
+        }
+
+        public static Record put(PublicSpot spot) {
+            Record record = new Record();
+            record.op = OP_PUT;
+            record.spot = spot;
+            return record;
+        }
+
+        public static Record remove(String id) {
+            Record record = new Record();
+            record.op = OP_REMOVE;
+            record.id = id;
+            return record;
+        }
+    }
+
+    /**
+     * 将记录编码为一行紧凑 JSON（不含换行符）。
+     * 编码需在持有数据锁时完成，以免写入时读到后续修改。
+     */
+    public static String encode(Record record) {
+        return GSON.toJson(record);
+    }
+
+    /**
+     * 追加已编码的记录，I/O 成本只与本次修改的大小成正比。
+     */
+    public void append(List<String> encodedRecords) throws IOException {
+        if (encodedRecords.isEmpty()) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (String line : encodedRecords) {
+            sb.append(line).append('\n');
+        }
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, sb.toString(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+        recordCount += encodedRecords.size();
+    }
+
+    /**
+     * 读取日志中的全部记录。
+     * 崩溃可能导致最后一行写入不完整，遇到无法解析的行时停止回放。
+     */
+    public List<Record> readAll() throws IOException {
+        List<Record> records = new ArrayList<>();
+        if (!Files.exists(file)) {
+            recordCount = 0;
+            return records;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Record record;
+                try {
+                    record = GSON.fromJson(line, Record.class);
+                } catch (JsonParseException e) {
+                    break;
+                }
+                if (record == null || record.op == null) {
+                    break;
+                }
+                records.add(record);
+            }
+        }
+        recordCount = records.size();
+        return records;
+    }
+
+    /**
+     * 清空日志（检查点写入快照后调用）。
+     */
+    public void truncate() throws IOException {
+        Files.deleteIfExists(file);
+        recordCount = 0;
+    }
+
+    /**
+     * 获取自上次检查点以来追加的记录数。
+     */
+    public int getRecordCount() {
+        return recordCount;
+    }
+}
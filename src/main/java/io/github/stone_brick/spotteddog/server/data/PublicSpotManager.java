@@ -3,16 +3,30 @@ package io.github.stone_brick.spotteddog.server.data;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
+import io.github.stone_brick.spotteddog.Spotteddog;
+import io.github.stone_brick.spotteddog.server.config.ConfigManager;
+import io.github.stone_brick.spotteddog.storage.AtomicFileStorage;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.server.MinecraftServer;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Type;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
 
 import net.minecraft.util.WorldSavePath;
@@ -22,15 +36,63 @@ import net.minecraft.util.WorldSavePath;
  * 负责公开 Spot 的存储、查询和管理。
  *
  * 数据路径: data/multiplayer/<服务器地址>/public_spots.json
+ *
+ * <p>内存中以 Spot ID 为主键保存（保持插入顺序），并维护两个辅助索引：</p>
+ * <ul>
+ *   <li>复合键索引：小写所有者名称 + Spot 名称 -> Spot</li>
+ *   <li>所有者 UUID 索引：所有者 UUID -> 该玩家的 Spot</li>
+ *   <li>排序索引：按名称排序的 TreeMap，以及按小写所有者名称分组的排序索引，用于分页列表</li>
+ * </ul>
+ * <p>单个 Spot 的查询和修改均为 O(1)（排序索引为 O(log n)），索引与主存储始终在同一把锁下保持一致。
+ * 分页查询以排序键作为续传令牌，每页只遍历返回的条目，与 Spot 总数无关。</p>
+ *
+ * <p>启用日志模式（默认）时，每次修改只向 public_spots.journal 追加一条记录，
+ * 累计到阈值后再合并为完整快照；启动时先加载快照，再回放日志。
+ * 日志记录按 ID 覆盖/删除，是幂等的，因此快照写入后、日志清空前崩溃也能正确恢复。</p>
+ *
+ * <p>每次修改使版本号加一，并在有界变更日志（{@code public_list_changelog_size}）中记录一条
+ * {@link PublicSpotChange}，客户端据此增量同步。版本号以加载时的时间戳起始，
+ * 服务端重启后旧版本号不会被误认为仍然有效。</p>
+ *
+ * <p>每次传送到公开 Spot 时记录一次热度，热度按 {@code hot_spot_half_life_minutes} 指数衰减，
+ * 用于为最热门的 Spot 保持区块加载。</p>
+ *
+ * <p>磁盘写入由 {@link AsyncPersistenceWriter} 在后台线程批量完成，
+ * 网络处理线程只在内存中记录修改；服务端关闭时通过 {@link #flush()} 保证落盘。</p>
  */
 public class PublicSpotManager {
 
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
     private static final String PUBLIC_SPOTS_FILE = "public_spots.json";
+    private static final String PUBLIC_SPOTS_JOURNAL_FILE = "public_spots.journal";
 
     private static PublicSpotManager instance;
-    private List<PublicSpot> publicSpots = new ArrayList<>();
+    // 主存储：Spot ID -> Spot（保持发布顺序）
+    private final Map<String, PublicSpot> spotsById = new LinkedHashMap<>();
+    // 复合键索引：ownerName(小写) + '\0' + spotName -> Spot
+    private final Map<String, PublicSpot> spotsByOwnerAndName = new HashMap<>();
+    // 所有者 UUID 索引：ownerUuid -> (Spot ID -> Spot)
+    private final Map<String, Map<String, PublicSpot>> spotsByOwnerUuid = new HashMap<>();
+    // 排序索引：sortKey -> Spot
+    private final NavigableMap<String, PublicSpot> spotsBySortKey = new TreeMap<>();
+    // 所有者名称排序索引：ownerName(小写) -> (sortKey -> Spot)
+    private final Map<String, NavigableMap<String, PublicSpot>> sortedSpotsByOwnerName = new HashMap<>();
+    // 版本号与有界变更日志（按版本号递增）
+    private long revision = System.currentTimeMillis();
+    private final ArrayDeque<PublicSpotChange> changelog = new ArrayDeque<>();
+    // 传送热度：Spot ID -> 按半衰期指数衰减的传送次数（仅内存，不持久化）
+    private final Map<String, Popularity> popularity = new HashMap<>();
     private MinecraftServer server;
+    private PublicSpotJournal journal;
+    // 尚未写入日志的记录（在数据锁内编码，保证与修改时的状态一致）
+    private List<String> pendingRecords = new ArrayList<>();
+    // 是否需要写入完整快照
+    private boolean snapshotDirty;
+    // 上一次写入是否失败（只在 ioLock 内访问）
+    private boolean saveFailing;
+    // 串行化磁盘写入；需要同时持有时先取 ioLock 再取数据锁
+    private final Object ioLock = new Object();
+    private AsyncPersistenceWriter writer;
 
     private PublicSpotManager() {
     }
@@ -45,9 +107,24 @@ public class PublicSpotManager {
     /**
      * 初始化管理器，必须在服务端启动时调用。
      */
-    public synchronized void initialize(MinecraftServer server) {
-        this.server = server;
-        loadPublicSpots();
+    public void initialize(MinecraftServer server) {
+        synchronized (this) {
+            this.server = server;
+            this.journal = new PublicSpotJournal(getServerDataDirectory().resolve(PUBLIC_SPOTS_JOURNAL_FILE));
+            loadPublicSpots();
+            resetChangelog();
+            if (writer == null) {
+                writer = new AsyncPersistenceWriter("SpottedDog-PublicSpotWriter", this::flushToDisk,
+                        ConfigManager::getPublicSpotFlushIntervalMs, ConfigManager::getPublicSpotFlushThreshold);
+            }
+        }
+        // 回放过日志时立即合并为新快照（在数据锁外执行磁盘 I/O）
+        try {
+            flushToDisk();
+        } catch (UncheckedIOException e) {
+            // 合并失败时由后台写入器稍后重试
+            writer.markDirty();
+        }
     }
 
     /**
@@ -99,34 +176,255 @@ public class PublicSpotManager {
      * 加载公开 Spot 数据。
      */
     private synchronized void loadPublicSpots() {
-        try {
-            Path file = getPublicSpotsFile();
-            if (Files.exists(file)) {
-                String json = Files.readString(file);
-                Type listType = new TypeToken<List<PublicSpot>>() {}.getType();
-                publicSpots = GSON.fromJson(json, listType);
-                if (publicSpots == null) {
-                    publicSpots = new ArrayList<>();
+        clearIndexes();
+        // 快照损坏时自动回退到 .bak
+        Type listType = new TypeToken<List<PublicSpot>>() {}.getType();
+        List<PublicSpot> loaded = AtomicFileStorage.read(getPublicSpotsFile(), json -> GSON.fromJson(json, listType));
+        if (loaded != null) {
+            // 快照中出现过的全部名称，重复 Spot 的新名称不能与之后的 Spot 冲突
+            Set<String> loadedKeys = new HashSet<>();
+            for (PublicSpot spot : loaded) {
+                loadedKeys.add(indexKey(spot.getOwnerName(), spot.getDisplayName()));
+            }
+            for (PublicSpot spot : loaded) {
+                // 旧数据可能缺少 ID
+                if (spot.getId() == null || spotsById.containsKey(spot.getId())) {
+                    spot.setId(UUID.randomUUID().toString());
+                }
+                // 同一玩家的同名 Spot：第一个保留原名（与原先线性查找的命中结果一致），其余加后缀保留
+                if (spotsByOwnerAndName.containsKey(indexKey(spot.getOwnerName(), spot.getDisplayName()))) {
+                    String originalName = spot.getDisplayName();
+                    spot.setDisplayName(uniqueName(spot.getOwnerName(), originalName, loadedKeys));
+                    Spotteddog.LOGGER.warn("Duplicate public spot '{}' of {} renamed to '{}'",
+                            originalName, spot.getOwnerName(), spot.getDisplayName());
+                    snapshotDirty = true;
                 }
+                addToIndexes(spot);
             }
-        } catch (IOException e) {
-            publicSpots = new ArrayList<>();
         }
+        replayJournal();
     }
 
     /**
-     * 保存公开 Spot 数据。
+     * 为重复的 Spot 生成该玩家未使用的名称：原名称加 _2、_3 ……
      */
-    private synchronized void savePublicSpots() {
+    private static String uniqueName(String ownerName, String spotName, Set<String> usedKeys) {
+        for (int i = 2; ; i++) {
+            String candidate = spotName + "_" + i;
+            if (usedKeys.add(indexKey(ownerName, candidate))) {
+                return candidate;
+            }
+        }
+    }
+
+    /**
+     * 回放快照之后的日志记录，有记录时标记需要合并为新快照。
+     */
+    private synchronized void replayJournal() {
         try {
-            Files.createDirectories(getPublicSpotsFile().getParent());
-            String json = GSON.toJson(publicSpots);
-            Files.writeString(getPublicSpotsFile(), json);
+            List<PublicSpotJournal.Record> records = journal.readAll();
+            for (PublicSpotJournal.Record record : records) {
+                switch (record.op) {
+                    case PublicSpotJournal.OP_PUT -> {
+                        if (record.spot == null || record.spot.getId() == null) {
+                            continue;
+                        }
+                        PublicSpot existing = spotsById.get(record.spot.getId());
+                        if (existing != null && existing.getOwnerUuid().equals(record.spot.getOwnerUuid())) {
+                            // 原地替换，保持与修改前相同的顺序
+                            removeFromNameIndexes(existing);
+                            spotsById.put(record.spot.getId(), record.spot);
+                            spotsByOwnerUuid.get(record.spot.getOwnerUuid()).put(record.spot.getId(), record.spot);
+                            addToNameIndexes(record.spot);
+                            continue;
+                        }
+                        if (existing != null) {
+                            removeFromIndexes(existing);
+                        }
+                        addToIndexes(record.spot);
+                    }
+                    case PublicSpotJournal.OP_REMOVE -> {
+                        PublicSpot existing = record.id != null ? spotsById.get(record.id) : null;
+                        if (existing != null) {
+                            removeFromIndexes(existing);
+                        }
+                    }
+                    default -> {
+                        // 未知操作，忽略
+                    }
+                }
+            }
+            if (!records.isEmpty()) {
+                snapshotDirty = true;
+            }
         } catch (IOException e) {
-            // 忽略保存失败
+            // 忽略日志读取失败，保留快照数据
         }
     }
 
+    /**
+     * 原子地写入完整快照文件。
+     */
+    private void writeSnapshot(String json) throws IOException {
+        AtomicFileStorage.writeString(getPublicSpotsFile(), json);
+    }
+
+    /**
+     * 将待写入的修改落盘：追加日志记录，或在需要时合并为完整快照。
+     * 仅在写入线程或关闭流程中调用，数据锁只用于取出待写入内容，磁盘 I/O 在锁外进行。
+     */
+    private void flushToDisk() {
+        synchronized (ioLock) {
+            List<String> batch;
+            String snapshotJson = null;
+            synchronized (this) {
+                batch = pendingRecords;
+                pendingRecords = new ArrayList<>();
+                if (snapshotDirty
+                        || journal.getRecordCount() + batch.size() >= ConfigManager.getPublicSpotCheckpointRecords()) {
+                    snapshotJson = GSON.toJson(new ArrayList<>(spotsById.values()));
+                    snapshotDirty = false;
+                }
+            }
+
+            try {
+                if (snapshotJson != null) {
+                    writeSnapshot(snapshotJson);
+                    try {
+                        journal.truncate();
+                    } catch (IOException e) {
+                        // 日志记录是幂等的，清空失败时下次启动重复回放也不会出错
+                    }
+                } else {
+                    journal.append(batch);
+                }
+            } catch (IOException e) {
+                // 写入失败时退回到完整快照，由写入器稍后重试；连续失败只记录第一次
+                if (!saveFailing) {
+                    Spotteddog.LOGGER.warn("Failed to save public spots, will retry", e);
+                    saveFailing = true;
+                }
+                synchronized (this) {
+                    snapshotDirty = true;
+                }
+                throw new UncheckedIOException(e);
+            }
+            saveFailing = false;
+        }
+    }
+
+    /**
+     * 记录一次修改，实际写入由后台写入器批量完成，不阻塞调用方。
+     * 日志模式下只追加一条记录，否则标记需要重写完整快照。
+     */
+    private synchronized void persist(PublicSpotJournal.Record record) {
+        if (ConfigManager.isPublicSpotJournalEnabled()) {
+            pendingRecords.add(PublicSpotJournal.encode(record));
+        } else {
+            snapshotDirty = true;
+        }
+        if (writer != null) {
+            writer.markDirty();
+        }
+    }
+
+    /**
+     * 立即将所有未写入的修改落盘（服务端关闭时调用）。
+     */
+    public void flush() {
+        if (writer != null) {
+            writer.flush();
+        } else {
+            flushToDisk();
+        }
+    }
+
+    /**
+     * 生成复合键索引的键。所有者名称不区分大小写，Spot 名称区分大小写。
+     */
+    private static String indexKey(String ownerName, String spotName) {
+        return ownerName.toLowerCase(Locale.ROOT) + '\0' + spotName;
+    }
+
+    /**
+     * 生成排序索引的键：小写 Spot 名称 + 小写所有者名称 + ID，同时作为分页续传令牌。
+     */
+    private static String sortKey(PublicSpot spot) {
+        return spot.getDisplayName().toLowerCase(Locale.ROOT) + '\0'
+                + spot.getOwnerName().toLowerCase(Locale.ROOT) + '\0' + spot.getId();
+    }
+
+    /**
+     * 将 Spot 加入主存储及所有索引。
+     */
+    private void addToIndexes(PublicSpot spot) {
+        spotsById.put(spot.getId(), spot);
+        spotsByOwnerUuid.computeIfAbsent(spot.getOwnerUuid(), k -> new LinkedHashMap<>())
+                .put(spot.getId(), spot);
+        addToNameIndexes(spot);
+    }
+
+    /**
+     * 将 Spot 加入与名称有关的索引（复合键索引和排序索引）。
+     */
+    private void addToNameIndexes(PublicSpot spot) {
+        spotsByOwnerAndName.put(indexKey(spot.getOwnerName(), spot.getDisplayName()), spot);
+        String key = sortKey(spot);
+        spotsBySortKey.put(key, spot);
+        sortedSpotsByOwnerName.computeIfAbsent(spot.getOwnerName().toLowerCase(Locale.ROOT), k -> new TreeMap<>())
+                .put(key, spot);
+    }
+
+    /**
+     * 将 Spot 从主存储及所有索引中移除。
+     */
+    private void removeFromIndexes(PublicSpot spot) {
+        spotsById.remove(spot.getId());
+        Map<String, PublicSpot> ownerSpots = spotsByOwnerUuid.get(spot.getOwnerUuid());
+        if (ownerSpots != null) {
+            ownerSpots.remove(spot.getId());
+            if (ownerSpots.isEmpty()) {
+                spotsByOwnerUuid.remove(spot.getOwnerUuid());
+            }
+        }
+        removeFromNameIndexes(spot);
+    }
+
+    /**
+     * 将 Spot 从与名称有关的索引中移除。
+     */
+    private void removeFromNameIndexes(PublicSpot spot) {
+        spotsByOwnerAndName.remove(indexKey(spot.getOwnerName(), spot.getDisplayName()));
+        String key = sortKey(spot);
+        spotsBySortKey.remove(key);
+        String ownerKey = spot.getOwnerName().toLowerCase(Locale.ROOT);
+        NavigableMap<String, PublicSpot> ownerSorted = sortedSpotsByOwnerName.get(ownerKey);
+        if (ownerSorted != null) {
+            ownerSorted.remove(key);
+            if (ownerSorted.isEmpty()) {
+                sortedSpotsByOwnerName.remove(ownerKey);
+            }
+        }
+    }
+
+    /**
+     * 清空主存储及所有索引。
+     */
+    private void clearIndexes() {
+        spotsById.clear();
+        spotsByOwnerAndName.clear();
+        spotsByOwnerUuid.clear();
+        spotsBySortKey.clear();
+        sortedSpotsByOwnerName.clear();
+    }
+
+    /**
+     * 通过所有者名称和 Spot 名称查找 Spot。
+     */
+    private PublicSpot findSpot(String ownerName, String spotName) {
+        return spotsByOwnerAndName.get(indexKey(ownerName, spotName));
+    }
+
     /**
      * 公开一个 Spot。
      *
@@ -159,8 +457,9 @@ public class PublicSpotManager {
                 dimension
         );
 
-        publicSpots.add(spot);
-        savePublicSpots();
+        addToIndexes(spot);
+        persist(PublicSpotJournal.Record.put(spot));
+        recordChange(PublicSpotChange.Type.ADD, spot, null);
         return true;
     }
 
@@ -172,14 +471,16 @@ public class PublicSpotManager {
      * @return 取消成功返回 true，失败返回 false
      */
     public synchronized boolean unpublishSpot(String ownerName, String spotName) {
-        boolean removed = publicSpots.removeIf(s ->
-                s.getOwnerName().equalsIgnoreCase(ownerName) &&
-                        s.getDisplayName().equals(spotName));
-
-        if (removed) {
-            savePublicSpots();
+        PublicSpot spot = findSpot(ownerName, spotName);
+        if (spot == null) {
+            return false;
         }
-        return removed;
+
+        removeFromIndexes(spot);
+        popularity.remove(spot.getId());
+        persist(PublicSpotJournal.Record.remove(spot.getId()));
+        recordChange(PublicSpotChange.Type.REMOVE, spot, null);
+        return true;
     }
 
     /**
@@ -198,15 +499,15 @@ public class PublicSpotManager {
     public synchronized boolean updatePublicSpot(String ownerName, String spotName,
                                                   double x, double y, double z,
                                                   float yaw, float pitch, String dimension) {
-        for (PublicSpot spot : publicSpots) {
-            if (spot.getOwnerName().equalsIgnoreCase(ownerName) &&
-                    spot.getDisplayName().equals(spotName)) {
-                spot.setPositionAndRotation(x, y, z, yaw, pitch, dimension);
-                savePublicSpots();
-                return true;
-            }
+        PublicSpot spot = findSpot(ownerName, spotName);
+        if (spot == null) {
+            return false;
         }
-        return false;
+
+        spot.setPositionAndRotation(x, y, z, yaw, pitch, dimension);
+        persist(PublicSpotJournal.Record.put(spot));
+        recordChange(PublicSpotChange.Type.UPDATE, spot, null);
+        return true;
     }
 
     /**
@@ -223,40 +524,164 @@ public class PublicSpotManager {
             return false;
         }
 
-        for (PublicSpot spot : publicSpots) {
-            if (spot.getOwnerName().equalsIgnoreCase(ownerName) &&
-                    spot.getDisplayName().equals(oldName)) {
-                spot.setDisplayName(newName);
-                savePublicSpots();
-                return true;
-            }
+        PublicSpot spot = findSpot(ownerName, oldName);
+        if (spot == null) {
+            return false;
         }
-        return false;
+
+        // 名称是复合键和排序键的一部分，只需重建这两类索引；主存储和 UUID 索引保持原有顺序
+        removeFromNameIndexes(spot);
+        spot.setDisplayName(newName);
+        addToNameIndexes(spot);
+        persist(PublicSpotJournal.Record.put(spot));
+        recordChange(PublicSpotChange.Type.RENAME, spot, oldName);
+        return true;
     }
 
     /**
      * 检查指定玩家的 Spot 是否已公开。
      */
     public synchronized boolean hasPublicSpot(String ownerName, String spotName) {
-        return publicSpots.stream().anyMatch(s ->
-                s.getOwnerName().equalsIgnoreCase(ownerName) &&
-                        s.getDisplayName().equals(spotName));
+        return findSpot(ownerName, spotName) != null;
     }
 
     /**
      * 获取所有公开的 Spot。
      */
     public synchronized List<PublicSpot> getAllPublicSpots() {
-        return new ArrayList<>(publicSpots);
+        return new ArrayList<>(spotsById.values());
+    }
+
+    /**
+     * 分页查询公开 Spot（按名称排序）。
+     *
+     * @param cursor     上一页返回的续传令牌，空字符串表示第一页
+     * @param pageSize   每页条数
+     * @param owner      所有者名称（不区分大小写），空字符串表示不限
+     * @param dimension  维度，空字符串表示不限；不带命名空间时按 minecraft 命名空间匹配
+     * @param namePrefix Spot 名称前缀（不区分大小写），空字符串表示不限
+     * @return 当前页及下一页的续传令牌
+     */
+    public synchronized Page listPublicSpots(String cursor, int pageSize,
+                                             String owner, String dimension, String namePrefix) {
+        NavigableMap<String, PublicSpot> source = owner.isEmpty()
+                ? spotsBySortKey
+                : sortedSpotsByOwnerName.get(owner.toLowerCase(Locale.ROOT));
+        if (source == null) {
+            return new Page(List.of(), "", revision);
+        }
+
+        NavigableMap<String, PublicSpot> range = source;
+        if (!namePrefix.isEmpty()) {
+            String prefix = namePrefix.toLowerCase(Locale.ROOT);
+            range = range.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        }
+        if (!cursor.isEmpty()) {
+            range = range.tailMap(cursor, false);
+        }
+        String dimensionId = dimension.isEmpty() || dimension.indexOf(':') >= 0 ? dimension : "minecraft:" + dimension;
+
+        List<PublicSpot> spots = new ArrayList<>();
+        String lastKey = "";
+        for (Map.Entry<String, PublicSpot> entry : range.entrySet()) {
+            if (!dimensionId.isEmpty() && !dimensionId.equals(entry.getValue().getDimension())) {
+                continue;
+            }
+            if (spots.size() >= pageSize) {
+                // 还有更多匹配项
+                return new Page(spots, lastKey, revision);
+            }
+            spots.add(entry.getValue());
+            lastKey = entry.getKey();
+        }
+        return new Page(spots, "", revision);
+    }
+
+    /**
+     * 分页查询结果。
+     *
+     * @param spots      当前页的 Spot
+     * @param nextCursor 下一页的续传令牌，空字符串表示没有更多
+     * @param revision   查询时的版本号
+     */
+    public record Page(List<PublicSpot> spots, String nextCursor, long revision) {}
+
+    /**
+     * 增量查询结果。
+     *
+     * @param revision 当前版本号
+     * @param changes  指定版本之后的变更（按版本号递增）
+     */
+    public record Delta(long revision, List<PublicSpotChange> changes) {}
+
+    /**
+     * 记录一次变更：版本号加一并追加到变更日志，超出容量时丢弃最旧的记录。
+     */
+    private void recordChange(PublicSpotChange.Type type, PublicSpot spot, String previousName) {
+        revision++;
+        changelog.addLast(PublicSpotChange.of(revision, type, spot, previousName));
+        int capacity = ConfigManager.getPublicListChangelogSize();
+        while (changelog.size() > capacity) {
+            changelog.removeFirst();
+        }
+    }
+
+    /**
+     * 清空变更日志并推进版本号，所有客户端下次同步时都会完整重新加载。
+     */
+    private void resetChangelog() {
+        changelog.clear();
+        revision = Math.max(revision + 1, System.currentTimeMillis());
+    }
+
+    /**
+     * 获取当前版本号。
+     */
+    public synchronized long getRevision() {
+        return revision;
+    }
+
+    /**
+     * 获取指定版本之后的所有变更。
+     *
+     * @param sinceRevision 客户端已同步的版本号
+     * @return 增量结果；变更日志已不包含所需记录（或版本号未知）时返回 null，需要完整重新加载
+     */
+    public synchronized Delta getChangesSince(long sinceRevision) {
+        if (sinceRevision == revision) {
+            return new Delta(revision, List.of());
+        }
+        if (sinceRevision > revision || changelog.isEmpty()
+                || changelog.peekFirst().revision() > sinceRevision + 1) {
+            return null;
+        }
+        List<PublicSpotChange> changes = new ArrayList<>();
+        // 从最新的记录向前找到起点，近期同步的客户端只需遍历少量记录
+        Iterator<PublicSpotChange> it = changelog.descendingIterator();
+        while (it.hasNext()) {
+            PublicSpotChange change = it.next();
+            if (change.revision() <= sinceRevision) {
+                break;
+            }
+            changes.add(change);
+        }
+        Collections.reverse(changes);
+        return new Delta(revision, changes);
     }
 
     /**
      * 获取指定玩家的所有公开 Spot（通过 UUID）。
      */
     public synchronized List<PublicSpot> getPublicSpotsByOwnerUuid(String ownerUuid) {
-        return publicSpots.stream()
-                .filter(s -> s.getOwnerUuid().equals(ownerUuid))
-                .toList();
+        Map<String, PublicSpot> ownerSpots = spotsByOwnerUuid.get(ownerUuid);
+        return ownerSpots != null ? List.copyOf(ownerSpots.values()) : List.of();
+    }
+
+    /**
+     * 通过 Spot ID 获取公开 Spot。
+     */
+    public synchronized Optional<PublicSpot> getPublicSpotById(String id) {
+        return Optional.ofNullable(spotsById.get(id));
     }
 
     /**
@@ -265,23 +690,11 @@ public class PublicSpotManager {
      * 例如：-home-stone_brick
      */
     public synchronized Optional<PublicSpot> getPublicSpotByFullName(String fullName) {
-        if (!fullName.startsWith("-")) {
-            return Optional.empty();
-        }
-
-        String withoutPrefix = fullName.substring(1);
-        int lastDashIndex = withoutPrefix.lastIndexOf('-');
-        if (lastDashIndex == -1 || lastDashIndex == 0 || lastDashIndex == withoutPrefix.length() - 1) {
+        PublicSpotName name = parsePublicSpotName(fullName);
+        if (name == null) {
             return Optional.empty();
         }
-
-        String spotName = withoutPrefix.substring(0, lastDashIndex);
-        String ownerName = withoutPrefix.substring(lastDashIndex + 1);
-
-        return publicSpots.stream()
-                .filter(s -> s.getDisplayName().equals(spotName))
-                .filter(s -> s.getOwnerName().equalsIgnoreCase(ownerName))
-                .findFirst();
+        return Optional.ofNullable(findSpot(name.ownerName(), name.spotName()));
     }
 
     /**
@@ -310,18 +723,85 @@ public class PublicSpotManager {
      */
     public record PublicSpotName(String ownerName, String spotName) {}
 
+    // ===== 传送热度 =====
+
+    // 热度低于该值时移除记录
+    private static final double POPULARITY_PRUNE_SCORE = 0.01;
+
+    private static final class Popularity {
+        private double score;
+        private long updatedAt;
+    }
+
+    /**
+     * 热门 Spot。
+     *
+     * @param spot  公开 Spot
+     * @param score 当前热度（衰减后的传送次数）
+     */
+    public record HotSpot(PublicSpot spot, double score) {}
+
+    /**
+     * 记录一次传送到公开 Spot。
+     */
+    public synchronized void recordTeleport(PublicSpot spot) {
+        long now = System.nanoTime();
+        Popularity entry = popularity.computeIfAbsent(spot.getId(), id -> new Popularity());
+        entry.score = decayedScore(entry, now) + 1.0;
+        entry.updatedAt = now;
+    }
+
+    /**
+     * 获取热度最高的公开 Spot，同时清理已删除或热度过低的记录。
+     *
+     * @param limit    最多返回的数量
+     * @param minScore 最低热度
+     * @return 按热度降序排列的 Spot
+     */
+    public synchronized List<HotSpot> getHottestSpots(int limit, double minScore) {
+        long now = System.nanoTime();
+        List<HotSpot> hot = new ArrayList<>();
+        Iterator<Map.Entry<String, Popularity>> it = popularity.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Popularity> entry = it.next();
+            PublicSpot spot = spotsById.get(entry.getKey());
+            double score = decayedScore(entry.getValue(), now);
+            if (spot == null || score < POPULARITY_PRUNE_SCORE) {
+                it.remove();
+            } else if (score >= minScore) {
+                hot.add(new HotSpot(spot, score));
+            }
+        }
+        hot.sort((a, b) -> Double.compare(b.score(), a.score()));
+        return hot.size() > limit ? new ArrayList<>(hot.subList(0, limit)) : hot;
+    }
+
+    private static double decayedScore(Popularity entry, long now) {
+        if (entry.score == 0) {
+            return 0;
+        }
+        double halfLives = (double) (now - entry.updatedAt) / ConfigManager.getHotSpotHalfLifeNanos();
+        return entry.score * Math.pow(0.5, halfLives);
+    }
+
     /**
      * 获取公开 Spot 数量（用于监控）。
      */
     public synchronized int getPublicSpotCount() {
-        return publicSpots.size();
+        return spotsById.size();
     }
 
     /**
      * 清除所有公开 Spot（用于测试）。
      */
     public synchronized void clearAll() {
-        publicSpots.clear();
-        savePublicSpots();
+        clearIndexes();
+        popularity.clear();
+        resetChangelog();
+        pendingRecords.clear();
+        snapshotDirty = true;
+        if (writer != null) {
+            writer.markDirty();
+        }
     }
 }
@@ -0,0 +1,143 @@
+package io.github.stone_brick.spotteddog.server.data;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 固定容量的环形缓冲区。
+ * 追加和淘汰最旧元素均为 O(1)，并提供按新旧顺序的零拷贝只读视图。
+ *
+ * <p>非线程安全，由调用方负责同步；返回的视图只在持有同一把锁期间有效。</p>
+ *
+ * @param <E> 元素类型
+ */
+public class RingBuffer<E> {
+
+    private Object[] elements;
+    private int head; // 最旧元素的下标
+    private int size;
+
+    public RingBuffer(int capacity) {
+        this.elements = new Object[Math.max(1, capacity)];
+    }
+
+    /**
+     * 追加元素，缓冲区已满时淘汰最旧的元素。
+     *
+     * @return 被淘汰的元素，没有淘汰时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public E add(E element) {
+        int capacity = elements.length;
+        if (size < capacity) {
+            elements[(head + size) % capacity] = element;
+            size++;
+            return null;
+        }
+        E evicted = (E) elements[head];
+        elements[head] = element;
+        head = (head + 1) % capacity;
+        return evicted;
+    }
+
+    /**
+     * 获取第 index 新的元素（0 为最新）。
+     */
+    @SuppressWarnings("unchecked")
+    public E getNewest(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (E) elements[(head + size - 1 - index) % elements.length];
+    }
+
+    /**
+     * 获取第 index 旧的元素（0 为最旧）。
+     */
+    @SuppressWarnings("unchecked")
+    public E getOldest(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (E) elements[(head + index) % elements.length];
+    }
+
+    /**
+     * 最新的 count 个元素的只读视图（最新的在前），不复制数据。
+     */
+    public List<E> newestFirst(int count) {
+        int viewSize = Math.max(0, Math.min(count, size));
+        return new AbstractList<>() {
+            @Override
+            public E get(int index) {
+                if (index >= viewSize) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+                return getNewest(index);
+            }
+
+            @Override
+            public int size() {
+                return viewSize;
+            }
+        };
+    }
+
+    /**
+     * 全部元素的只读视图（最旧的在前），不复制数据。
+     */
+    public List<E> oldestFirst() {
+        int viewSize = size;
+        return new AbstractList<>() {
+            @Override
+            public E get(int index) {
+                if (index >= viewSize) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+                return getOldest(index);
+            }
+
+            @Override
+            public int size() {
+                return viewSize;
+            }
+        };
+    }
+
+    /**
+     * 调整容量，容量变小时保留最新的元素。
+     */
+    public void resize(int newCapacity) {
+        newCapacity = Math.max(1, newCapacity);
+        if (newCapacity == elements.length) {
+            return;
+        }
+        List<E> retained = new ArrayList<>(newestFirst(newCapacity));
+        elements = new Object[newCapacity];
+        head = 0;
+        size = 0;
+        for (int i = retained.size() - 1; i >= 0; i--) {
+            add(retained.get(i));
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(elements, null);
+        head = 0;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return elements.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -76,7 +76,7 @@ public class TeleportLog {
     }
 
     private TeleportLog(Builder builder) {
-        this.timestamp = Instant.now().toString();
+        this.timestamp = builder.timestamp != null ? builder.timestamp : Instant.now().toString();
         this.type = builder.type;
         this.playerName = builder.playerName;
         this.playerUuid = builder.playerUuid;
@@ -101,6 +101,7 @@ public class TeleportLog {
     }
 
     public static class Builder {
+        private String timestamp;
         private String type = "teleport";
         private String playerName;
         private String playerUuid;
@@ -119,6 +120,14 @@ public class TeleportLog {
         private String targetPlayer;
         private String whitelistType;
 
+        /**
+         * 设置事件发生时间，未设置时使用构建时间。
+         */
+        public Builder timestamp(String timestamp) {
+            this.timestamp = timestamp;
+            return this;
+        }
+
         public Builder type(String type) {
             this.type = type;
             return this;
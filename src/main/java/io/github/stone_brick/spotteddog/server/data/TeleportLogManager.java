@@ -3,6 +3,9 @@ package io.github.stone_brick.spotteddog.server.data;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
+import io.github.stone_brick.spotteddog.event.AsyncEventDispatcher;
+import io.github.stone_brick.spotteddog.server.config.ConfigManager;
+import io.github.stone_brick.spotteddog.storage.AtomicFileStorage;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.server.MinecraftServer;
 
@@ -10,9 +13,10 @@ import java.io.IOException;
 import java.lang.reflect.Type;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import net.minecraft.util.WorldSavePath;
 
@@ -20,17 +24,32 @@ import net.minecraft.util.WorldSavePath;
  * 服务端传送日志管理器。
  * 负责日志的存储、查询和管理，支持日志轮转。
  *
- * 数据路径: data/<mode>/<world>/teleport_logs.json
+ * 数据路径: data/<mode>/<world>/teleport_logs/teleport-<yyyy-MM-dd>-<序号>.jsonl[.gz]
+ *
+ * <p>日志以 JSON Lines 追加写入 {@link TeleportLogSegmentStore}，按大小或日期滚动分段，
+ * 过期分段整段删除。旧版 teleport_logs.json（当前世界目录或旧版本使用的 multiplayer/server 目录）
+ * 会在初始化时迁移到分段中，完成后重命名为 .migrated；迁移中断时按进度文件从断点继续。</p>
+ *
+ * <p>内存中使用容量为 {@code teleport_log_max_entries} 的 {@link RingBuffer}
+ * 缓存最近的日志，追加与淘汰均为 O(1)，查询最近 N 条只需 O(N)，与日志总量无关。</p>
  */
 public class TeleportLogManager {
 
-    private static final String LOG_FILE = "teleport_logs.json";
+    private static final String LEGACY_LOG_FILE = "teleport_logs.json";
+    private static final String MIGRATED_SUFFIX = ".migrated";
+    private static final String PROGRESS_SUFFIX = ".progress";
+    // 旧版本从未调用 initialize，日志始终写在 multiplayer/server 下
+    private static final String LEGACY_MODE = "multiplayer";
+    private static final String LEGACY_WORLD = "server";
+    // 迁移时每写入多少条记录保存一次进度
+    private static final int MIGRATION_BATCH_SIZE = 1000;
+    private static final String SEGMENT_DIRECTORY = "teleport_logs";
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
 
     private static TeleportLogManager instance;
-    private List<TeleportLog> logs = new ArrayList<>();
+    private final RingBuffer<TeleportLog> logs = new RingBuffer<>(getMaxLogCount());
     private MinecraftServer server;
-    private Integer maxLogCount;
+    private TeleportLogSegmentStore store;
 
     private TeleportLogManager() {
     }
@@ -46,10 +65,26 @@ public class TeleportLogManager {
      * 初始化管理器，必须在服务端启动时调用。
      */
     public synchronized void initialize(MinecraftServer server) {
+        close();
         this.server = server;
+        this.store = null;
+        migrateLegacyLogs();
         loadLogs();
     }
 
+    /**
+     * 关闭当前分段，服务端关闭时调用。
+     */
+    public synchronized void close() {
+        if (store != null) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                // 关闭失败时已写出的日志不受影响
+            }
+        }
+    }
+
     /**
      * 获取数据目录根路径。
      */
@@ -89,106 +124,157 @@ public class TeleportLogManager {
     }
 
     /**
-     * 获取日志文件路径。
+     * 获取分段存储，首次使用时按当前世界目录创建。
      */
-    private Path getLogFile() {
-        return getWorldDataDirectory().resolve(LOG_FILE);
+    private TeleportLogSegmentStore getStore() {
+        if (store == null) {
+            store = new TeleportLogSegmentStore(
+                    getWorldDataDirectory().resolve(SEGMENT_DIRECTORY),
+                    ConfigManager::getTeleportLogSegmentMaxBytes,
+                    ConfigManager::getTeleportLogRetentionDays,
+                    ConfigManager::isTeleportLogCompressSegments);
+        }
+        return store;
     }
 
     /**
-     * 加载日志数据。
+     * 将旧版 teleport_logs.json 迁移到分段存储。
+     * 依次检查当前世界目录和旧版本固定使用的 multiplayer/server 目录。
      */
-    private synchronized void loadLogs() {
+    private void migrateLegacyLogs() {
+        Path worldDirectory = getWorldDataDirectory();
+        migrateLegacyFile(worldDirectory.resolve(LEGACY_LOG_FILE));
+        Path legacyDirectory = getDataRootDirectory().resolve(LEGACY_MODE).resolve(LEGACY_WORLD);
+        if (!legacyDirectory.equals(worldDirectory)) {
+            migrateLegacyFile(legacyDirectory.resolve(LEGACY_LOG_FILE));
+        }
+    }
+
+    /**
+     * 迁移单个旧版日志文件，完成后重命名为 .migrated（以此作为迁移完成的标记）。
+     * 每写入一批记录保存一次进度，中断后从上次保存的进度继续，最多重复写入一批。
+     */
+    private void migrateLegacyFile(Path legacyFile) {
+        if (!AtomicFileStorage.exists(legacyFile)) {
+            return;
+        }
+        Path progressFile = legacyFile.resolveSibling(LEGACY_LOG_FILE + PROGRESS_SUFFIX);
         try {
-            Path file = getLogFile();
-            if (Files.exists(file)) {
-                String json = Files.readString(file);
-                Type listType = new TypeToken<List<TeleportLog>>() {}.getType();
-                logs = GSON.fromJson(json, listType);
-                if (logs == null) {
-                    logs = new ArrayList<>();
+            Type listType = new TypeToken<List<TeleportLog>>() {}.getType();
+            List<TeleportLog> legacy = AtomicFileStorage.read(legacyFile, json -> GSON.fromJson(json, listType));
+            if (legacy != null) {
+                Integer progress = AtomicFileStorage.read(progressFile, text -> Integer.valueOf(text.trim()));
+                int start = progress != null ? Math.max(0, progress) : 0;
+                TeleportLogSegmentStore segments = getStore();
+                for (int i = start; i < legacy.size(); i++) {
+                    segments.append(legacy.get(i));
+                    if ((i + 1) % MIGRATION_BATCH_SIZE == 0) {
+                        AtomicFileStorage.writeString(progressFile, Integer.toString(i + 1));
+                    }
                 }
+                segments.flush();
             }
+
+            Path migrated = legacyFile.resolveSibling(LEGACY_LOG_FILE + MIGRATED_SUFFIX);
+            Path source = Files.exists(legacyFile) ? legacyFile : AtomicFileStorage.getBackupPath(legacyFile);
+            Files.move(source, migrated, StandardCopyOption.REPLACE_EXISTING);
+            Files.deleteIfExists(AtomicFileStorage.getBackupPath(legacyFile));
+            Files.deleteIfExists(progressFile);
+            Files.deleteIfExists(AtomicFileStorage.getBackupPath(progressFile));
         } catch (IOException e) {
-            logs = new ArrayList<>();
+            // 迁移失败时保留旧文件和进度，下次启动继续
         }
     }
 
     /**
-     * 保存日志数据。
+     * 从最新的分段加载最近的日志到内存。
      */
-    private synchronized void saveLogs() {
+    private synchronized void loadLogs() {
+        logs.clear();
+        logs.resize(getMaxLogCount());
         try {
-            Files.createDirectories(getLogFile().getParent());
-            pruneLogsIfNeeded();
-            String json = GSON.toJson(logs);
-            Files.writeString(getLogFile(), json);
+            for (TeleportLog log : getStore().readRecent(logs.capacity())) {
+                logs.add(log);
+            }
         } catch (IOException e) {
-            // 忽略保存失败
+            // 读取失败时从空日志开始，不影响后续追加
         }
     }
 
     /**
-     * 删除多余的旧日志。
+     * 追加一条日志到内存缓存和当前分段。
      */
-    private synchronized void pruneLogsIfNeeded() {
-        int maxCount = getMaxLogCount();
-        while (logs.size() > maxCount) {
-            logs.remove(0);
+    private void append(TeleportLog entry) {
+        logs.add(entry);
+        try {
+            getStore().append(entry);
+        } catch (IOException e) {
+            // 写入失败时日志仍保留在内存中
         }
     }
 
     /**
      * 获取最大日志条数配置。
      */
-    private int getMaxLogCount() {
-        if (maxLogCount == null) {
-            maxLogCount = io.github.stone_brick.spotteddog.server.config.ConfigManager.getTeleportLogMaxEntries();
-        }
-        return maxLogCount;
+    private static int getMaxLogCount() {
+        return Math.max(1, ConfigManager.getTeleportLogMaxEntries());
     }
 
     /**
      * 记录一次传送。
      */
     public synchronized void logTeleport(TeleportLog entry) {
-        if (!io.github.stone_brick.spotteddog.server.config.ConfigManager.isTeleportLogEnabled()) {
+        if (!ConfigManager.isTeleportLogEnabled()) {
             return;
         }
-        logs.add(entry);
-        saveLogs();
+        append(entry);
     }
 
     /**
      * 记录一次管理操作。
      */
     public synchronized void logAdminOperation(TeleportLog entry) {
-        if (!io.github.stone_brick.spotteddog.server.config.ConfigManager.isTeleportLogEnabled()) {
+        if (!ConfigManager.isTeleportLogEnabled()) {
             return;
         }
-        logs.add(entry);
-        saveLogs();
+        append(entry);
     }
 
     /**
      * 获取最近的日志（倒序，最新的在前）。
      */
     public synchronized List<TeleportLog> getRecentLogs(int count) {
-        List<TeleportLog> result = new ArrayList<>(logs);
-        Collections.reverse(result);
-        if (result.size() > count) {
-            return result.subList(0, count);
+        // 只复制需要的 count 条，不复制、反转整个日志
+        return new ArrayList<>(logs.newestFirst(count));
+    }
+
+    /**
+     * 按玩家、类型、目标维度和时间范围分页查询全部历史日志（倒序，最新的在前）。
+     * 通过分段摘要跳过不可能匹配的分段，不会把全部历史加载到内存。
+     */
+    public synchronized TeleportLogSegmentStore.QueryResult queryLogs(TeleportLogQuery query) {
+        try {
+            return getStore().query(query);
+        } catch (IOException e) {
+            return new TeleportLogSegmentStore.QueryResult(List.of(), false, "", 0, 0);
         }
-        return result;
+    }
+
+    /**
+     * 在日志 I/O 线程（{@link AsyncEventDispatcher} 的消费线程，日志写入也在此线程执行）上查询，
+     * 读取分段不会阻塞服务端主线程。回调在日志 I/O 线程上执行，需要自行切回主线程。
+     *
+     * @return true 如果已提交，false 如果日志队列已满
+     */
+    public boolean queryLogsAsync(TeleportLogQuery query, Consumer<TeleportLogSegmentStore.QueryResult> callback) {
+        return AsyncEventDispatcher.getInstance().submit(() -> callback.accept(queryLogs(query)));
     }
 
     /**
      * 获取所有日志（倒序）。
      */
     public synchronized List<TeleportLog> getAllLogs() {
-        List<TeleportLog> result = new ArrayList<>(logs);
-        Collections.reverse(result);
-        return result;
+        return new ArrayList<>(logs.newestFirst(logs.size()));
     }
 
     /**
@@ -203,6 +289,10 @@ public class TeleportLogManager {
      */
     public synchronized void clearLogs() {
         logs.clear();
-        saveLogs();
+        try {
+            getStore().deleteAll();
+        } catch (IOException e) {
+            // 删除失败的分段保留在磁盘上
+        }
     }
 }
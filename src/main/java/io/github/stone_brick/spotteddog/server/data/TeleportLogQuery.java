@@ -0,0 +1,294 @@
+package io.github.stone_brick.spotteddog.server.data;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 传送日志查询条件。
+ * 所有条件均可为空（不限），非空条件之间为“与”关系。
+ *
+ * <p>过滤语法（用于 {@code /spot log find}）：</p>
+ * <ul>
+ *   <li>{@code player=<名称或UUID>} - 执行者（传送玩家或管理操作者）</li>
+ *   <li>{@code type=<类型>} - 传送类型（spot/spawn/death/respawn/public_spot 等）或管理操作类型</li>
+ *   <li>{@code dim=<维度>} - 目标维度，如 minecraft:the_nether 或 the_nether</li>
+ *   <li>{@code from=<时间>} / {@code to=<时间>} - yyyy-MM-dd（UTC）或 ISO-8601 时间</li>
+ *   <li>{@code cursor=<位置>} - 上一页末尾返回的续查位置，原样传回即可</li>
+ * </ul>
+ *
+ * <p>续查位置记录上一页最后一条日志所在的位置，下一页只扫描更早的日志，与已翻过的页数无关：</p>
+ * <ul>
+ *   <li>服务端：{@code <yyyy-MM-dd>-<序号>:<条目序号>}，即分段名和分段内的条目位置（分段只追加，位置不会变化）</li>
+ *   <li>单人模式本地日志：上一页最后一条日志的时间戳（毫秒）</li>
+ * </ul>
+ */
+public final class TeleportLogQuery {
+
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final Pattern SEGMENT_CURSOR = Pattern.compile("(\\d{4}-\\d{2}-\\d{2}-\\d+):(\\d+)");
+    private static final Pattern TIME_CURSOR = Pattern.compile("\\d+");
+
+    private final String player;
+    private final String teleportType;
+    private final String dimension;
+    private final long fromMillis; // 0 表示不限
+    private final long toMillis;   // 0 表示不限
+    private final String cursor;   // 空字符串表示从最新的日志开始
+    private final int pageSize;
+
+    public TeleportLogQuery(String player, String teleportType, String dimension,
+                            long fromMillis, long toMillis, String cursor, int pageSize) {
+        this.player = normalize(player);
+        this.teleportType = normalize(teleportType);
+        this.dimension = normalizeDimension(dimension);
+        this.fromMillis = Math.max(0, fromMillis);
+        this.toMillis = Math.max(0, toMillis);
+        this.cursor = cursor != null ? cursor.trim() : "";
+        this.pageSize = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * 解析 {@code key=value} 形式的过滤条件，以空格分隔。
+     *
+     * @throws IllegalArgumentException 条件格式错误时抛出，消息为出错的条件
+     */
+    public static TeleportLogQuery parse(String filters, int pageSize) {
+        String player = null;
+        String type = null;
+        String dimension = null;
+        long from = 0;
+        long to = 0;
+        String cursor = "";
+        if (filters != null) {
+            for (String token : filters.trim().split("\\s+")) {
+                if (token.isEmpty()) {
+                    continue;
+                }
+                int eq = token.indexOf('=');
+                if (eq <= 0 || eq == token.length() - 1) {
+                    throw new IllegalArgumentException(token);
+                }
+                String key = token.substring(0, eq).toLowerCase(Locale.ROOT);
+                String value = token.substring(eq + 1);
+                switch (key) {
+                    case "player" -> player = value;
+                    case "type" -> type = value;
+                    case "dim", "dimension" -> dimension = value;
+                    case "from" -> from = parseTime(value, false, token);
+                    case "to" -> to = parseTime(value, true, token);
+                    case "cursor" -> {
+                        if (!SEGMENT_CURSOR.matcher(value).matches() && !TIME_CURSOR.matcher(value).matches()) {
+                            throw new IllegalArgumentException(token);
+                        }
+                        cursor = value;
+                    }
+                    default -> throw new IllegalArgumentException(token);
+                }
+            }
+        }
+        return new TeleportLogQuery(player, type, dimension, from, to, cursor, pageSize);
+    }
+
+    /**
+     * 解析时间。只有日期时 from 取当天开始，to 取当天结束（UTC）。
+     */
+    private static long parseTime(String value, boolean endOfDay, String token) {
+        try {
+            if (value.length() == 10) {
+                LocalDate date = LocalDate.parse(value);
+                if (endOfDay) {
+                    date = date.plusDays(1);
+                }
+                long millis = date.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+                return endOfDay ? millis - 1 : millis;
+            }
+            return Instant.parse(value).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(token);
+        }
+    }
+
+    /**
+     * 将日志时间戳解析为毫秒，无法解析时返回 -1。
+     */
+    public static long parseTimestamp(String timestamp) {
+        if (timestamp == null) {
+            return -1;
+        }
+        try {
+            return Instant.parse(timestamp).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 检查单条日志是否满足条件。
+     */
+    public boolean matches(TeleportLog log) {
+        return matches(log.getPlayerUuid(), log.getPlayerName(), log.getOperatorUuid(), log.getOperatorName(),
+                log.getTeleportType(), log.getType(), log.getTargetDimension(), parseTimestamp(log.getTimestamp()));
+    }
+
+    /**
+     * 按字段检查是否满足条件（客户端本地日志也使用此方法）。
+     */
+    public boolean matches(String playerUuid, String playerName, String operatorUuid, String operatorName,
+                           String logTeleportType, String logType, String targetDimension, long timeMillis) {
+        if (player != null && !equalsIgnoreCase(player, playerUuid) && !equalsIgnoreCase(player, playerName)
+                && !equalsIgnoreCase(player, operatorUuid) && !equalsIgnoreCase(player, operatorName)) {
+            return false;
+        }
+        if (teleportType != null && !equalsIgnoreCase(teleportType, logTeleportType)
+                && !equalsIgnoreCase(teleportType, logType)) {
+            return false;
+        }
+        if (dimension != null && !dimension.equals(normalizeDimension(targetDimension))) {
+            return false;
+        }
+        return matchesTime(timeMillis);
+    }
+
+    private boolean matchesTime(long timeMillis) {
+        if (fromMillis == 0 && toMillis == 0) {
+            return true;
+        }
+        if (timeMillis < 0) {
+            return false;
+        }
+        return (fromMillis == 0 || timeMillis >= fromMillis) && (toMillis == 0 || timeMillis <= toMillis);
+    }
+
+    /**
+     * 根据分段摘要判断分段中是否可能存在匹配的日志，不可能时整段跳过。
+     */
+    public boolean mayMatch(TeleportLogSegmentSummary summary) {
+        if (summary.getCount() == 0) {
+            return false;
+        }
+        if (fromMillis != 0 && summary.getMaxTime() < fromMillis) {
+            return false;
+        }
+        if (toMillis != 0 && summary.getMinTime() > toMillis) {
+            return false;
+        }
+        if (player != null && !summary.containsPlayer(player)) {
+            return false;
+        }
+        if (teleportType != null && !summary.containsType(teleportType)) {
+            return false;
+        }
+        return dimension == null || summary.containsDimension(dimension);
+    }
+
+    /**
+     * 统一为小写，空字符串视为不限。
+     */
+    private static String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 维度统一为带命名空间的小写形式，如 the_nether -> minecraft:the_nether。
+     */
+    static String normalizeDimension(String dimension) {
+        String normalized = normalize(dimension);
+        if (normalized == null) {
+            return null;
+        }
+        return normalized.indexOf(':') < 0 ? "minecraft:" + normalized : normalized;
+    }
+
+    private static boolean equalsIgnoreCase(String normalized, String value) {
+        return value != null && normalized.equalsIgnoreCase(value);
+    }
+
+    public String getPlayer() { return player; }
+    public String getTeleportType() { return teleportType; }
+    public String getDimension() { return dimension; }
+    public long getFromMillis() { return fromMillis; }
+    public long getToMillis() { return toMillis; }
+    public String getCursor() { return cursor; }
+    public int getPageSize() { return pageSize; }
+
+    /**
+     * 是否从某个续查位置继续查询。
+     */
+    public boolean hasCursor() {
+        return !cursor.isEmpty();
+    }
+
+    /**
+     * 续查位置中的分段名（不含前缀和扩展名），不是分段位置时返回 null。
+     */
+    public String getCursorSegment() {
+        Matcher matcher = SEGMENT_CURSOR.matcher(cursor);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    /**
+     * 续查位置中的分段内条目位置，不是分段位置时返回 -1。
+     */
+    public int getCursorIndex() {
+        Matcher matcher = SEGMENT_CURSOR.matcher(cursor);
+        if (!matcher.matches()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(matcher.group(2));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 续查位置中的时间戳（本地日志），不是时间位置时返回 -1。
+     */
+    public long getCursorMillis() {
+        if (!TIME_CURSOR.matcher(cursor).matches()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 生成分段位置形式的续查位置。
+     */
+    public static String segmentCursor(String segment, int index) {
+        return segment + ":" + index;
+    }
+
+    /**
+     * 将条件还原为 {@code /spot log find} 的过滤语法（不含续查位置），用于提示下一页的命令。
+     */
+    public String toFilterString() {
+        StringBuilder filters = new StringBuilder();
+        appendFilter(filters, "player", player);
+        appendFilter(filters, "type", teleportType);
+        appendFilter(filters, "dim", dimension);
+        appendFilter(filters, "from", fromMillis != 0 ? Instant.ofEpochMilli(fromMillis).toString() : null);
+        appendFilter(filters, "to", toMillis != 0 ? Instant.ofEpochMilli(toMillis).toString() : null);
+        return filters.toString();
+    }
+
+    private static void appendFilter(StringBuilder filters, String key, String value) {
+        if (value != null) {
+            if (filters.length() > 0) {
+                filters.append(' ');
+            }
+            filters.append(key).append('=').append(value);
+        }
+    }
+}
@@ -0,0 +1,558 @@
+package io.github.stone_brick.spotteddog.server.data;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import io.github.stone_brick.spotteddog.storage.AtomicFileStorage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 传送日志分段存储（JSON Lines，仅追加）。
+ * 每条日志以一行紧凑 JSON 追加到当前分段，单次写入成本与历史日志总量无关。
+ *
+ * <p>分段文件名格式: {@code teleport-<yyyy-MM-dd>-<序号>.jsonl}（UTC 日期）。</p>
+ * <ul>
+ *   <li>当前分段超过大小上限或日期变化时滚动到新分段</li>
+ *   <li>已关闭的分段可选压缩为 {@code .jsonl.gz}</li>
+ *   <li>按保留天数整段删除过期分段，不改写任何文件</li>
+ * </ul>
+ *
+ * <p>每个分段维护一份 {@link TeleportLogSegmentSummary} 摘要，保存为 {@code <分段名>.idx.json}。
+ * 当前分段的摘要在打开时、每隔 {@link #SUMMARY_SAVE_INTERVAL_MILLIS} 毫秒以及关闭时写入；
+ * 摘要记录其覆盖的分段长度，崩溃后分段比摘要长时补扫多出的部分，不会因过期摘要而漏掉日志。
+ * 查询时先按摘要排除分段，再从新到旧扫描剩余分段；翻页使用“分段名 + 分段内条目位置”作为续查位置，
+ * 下一页直接从该位置向前扫描，不需要重新扫描已翻过的日志。</p>
+ *
+ * <p>非线程安全，由 {@link TeleportLogManager} 负责同步。</p>
+ */
+public class TeleportLogSegmentStore {
+
+    private static final String SEGMENT_PREFIX = "teleport-";
+    private static final String SEGMENT_SUFFIX = ".jsonl";
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final String SUMMARY_SUFFIX = ".idx.json";
+    private static final Gson GSON = new Gson();
+    // 当前分段摘要的写入间隔（毫秒）
+    private static final long SUMMARY_SAVE_INTERVAL_MILLIS = 30_000;
+
+    private final Path directory;
+    private final LongSupplier maxSegmentBytesSupplier;
+    private final IntSupplier retentionDaysSupplier;
+    private final BooleanSupplier compressSupplier;
+
+    private BufferedWriter writer;
+    private Path currentSegment;
+    private LocalDate currentDate;
+    private long currentSize;
+    private TeleportLogSegmentSummary currentSummary;
+    private long summarySavedAt;
+    private final Map<String, TeleportLogSegmentSummary> summaries = new HashMap<>();
+
+    /**
+     * @param directory               分段文件目录
+     * @param maxSegmentBytesSupplier 单个分段的大小上限（字节）
+     * @param retentionDaysSupplier   保留天数，0 表示永久保留
+     * @param compressSupplier        是否压缩已关闭的分段
+     */
+    public TeleportLogSegmentStore(Path directory, LongSupplier maxSegmentBytesSupplier,
+                                   IntSupplier retentionDaysSupplier, BooleanSupplier compressSupplier) {
+        this.directory = directory;
+        this.maxSegmentBytesSupplier = maxSegmentBytesSupplier;
+        this.retentionDaysSupplier = retentionDaysSupplier;
+        this.compressSupplier = compressSupplier;
+    }
+
+    /**
+     * 追加一条日志。
+     */
+    public void append(TeleportLog log) throws IOException {
+        String line = GSON.toJson(log) + '\n';
+        int bytes = line.getBytes(StandardCharsets.UTF_8).length;
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+        if (writer == null || !today.equals(currentDate)
+                || (currentSize > 0 && currentSize + bytes > maxSegmentBytesSupplier.getAsLong())) {
+            roll(today);
+        }
+
+        writer.write(line);
+        // 每条日志立即写出，缓冲区只用于合并单行内的多次小写入
+        writer.flush();
+        currentSize += bytes;
+        currentSummary.add(log);
+        currentSummary.setCoveredBytes(currentSize);
+        if (System.currentTimeMillis() - summarySavedAt >= SUMMARY_SAVE_INTERVAL_MILLIS) {
+            saveCurrentSummary();
+        }
+    }
+
+    /**
+     * 关闭当前分段并打开新分段，随后压缩旧分段并执行保留策略。
+     */
+    private void roll(LocalDate today) throws IOException {
+        Path previous = currentSegment;
+        closeWriter();
+
+        Files.createDirectories(directory);
+        currentDate = today;
+        currentSegment = directory.resolve(segmentFileName(today, nextSequence(today, previous)));
+        currentSize = Files.exists(currentSegment) ? Files.size(currentSegment) : 0;
+        // 继续使用已有分段时，摘要文件可能落后于分段（崩溃前未写入），补扫后立即覆盖
+        currentSummary = currentSize > 0 ? loadSummary(currentSegment) : new TeleportLogSegmentSummary();
+        currentSummary.setCoveredBytes(currentSize);
+        summaries.remove(baseName(currentSegment.getFileName().toString()));
+        writer = Files.newBufferedWriter(currentSegment, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+        saveCurrentSummary();
+
+        if (previous != null && compressSupplier.getAsBoolean()) {
+            compress(previous);
+        }
+        enforceRetention();
+    }
+
+    /**
+     * 获取指定日期的下一个分段序号。
+     * 启动后首次打开时，当天最后一个未压缩且未满的分段会被继续使用；刚滚动关闭的分段不会被复用。
+     */
+    private int nextSequence(LocalDate date, Path previous) throws IOException {
+        int last = -1;
+        boolean lastCompressed = false;
+        String datePrefix = SEGMENT_PREFIX + date + "-";
+        for (Path segment : listSegments()) {
+            String name = segment.getFileName().toString();
+            if (!name.startsWith(datePrefix)) {
+                continue;
+            }
+            int sequence = parseSequence(name);
+            if (sequence > last) {
+                last = sequence;
+                lastCompressed = name.endsWith(GZIP_SUFFIX);
+            }
+        }
+        if (last < 0) {
+            return 0;
+        }
+        Path lastSegment = directory.resolve(segmentFileName(date, last));
+        if (previous == null && !lastCompressed && Files.size(lastSegment) < maxSegmentBytesSupplier.getAsLong()) {
+            return last;
+        }
+        return last + 1;
+    }
+
+    /**
+     * 将分段压缩为 .gz 并删除原文件。压缩失败时保留原文件。
+     */
+    private void compress(Path segment) {
+        if (!Files.exists(segment)) {
+            return;
+        }
+        Path compressed = segment.resolveSibling(segment.getFileName().toString() + GZIP_SUFFIX);
+        try (InputStream in = Files.newInputStream(segment);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            // 压缩失败，保留未压缩的分段
+            try {
+                Files.deleteIfExists(compressed);
+            } catch (IOException ignored) {
+                // 忽略
+            }
+            return;
+        }
+        try {
+            Files.delete(segment);
+        } catch (IOException e) {
+            // 原文件删除失败时两份内容相同，读取时优先使用未压缩版本
+        }
+    }
+
+    /**
+     * 按保留天数整段删除过期分段。
+     */
+    public void enforceRetention() throws IOException {
+        int retentionDays = retentionDaysSupplier.getAsInt();
+        if (retentionDays <= 0) {
+            return;
+        }
+        LocalDate cutoff = LocalDate.now(ZoneOffset.UTC).minusDays(retentionDays);
+        for (Path segment : listSegments()) {
+            if (segment.equals(currentSegment)) {
+                continue;
+            }
+            LocalDate date = parseDate(segment.getFileName().toString());
+            if (date != null && date.isBefore(cutoff)) {
+                deleteSegment(segment);
+            }
+        }
+    }
+
+    /**
+     * 列出所有分段，按时间从旧到新排序。
+     * 同一分段同时存在压缩和未压缩版本时只返回未压缩版本。
+     */
+    public List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(SEGMENT_SUFFIX)) {
+                    segments.add(path);
+                } else if (name.endsWith(SEGMENT_SUFFIX + GZIP_SUFFIX)
+                        && !Files.exists(path.resolveSibling(baseName(name)))) {
+                    segments.add(path);
+                }
+            }
+        }
+        segments.sort(Comparator.comparing(path -> baseName(path.getFileName().toString())));
+        return segments;
+    }
+
+    /**
+     * 读取单个分段中的全部日志（从旧到新）。
+     * 崩溃可能导致最后一行不完整，无法解析的行会被跳过。
+     */
+    public List<TeleportLog> readSegment(Path segment) throws IOException {
+        return readSegment(segment, 0);
+    }
+
+    /**
+     * 从指定偏移（未压缩分段的字节位置，必须位于行首）开始读取分段中的日志。
+     */
+    private List<TeleportLog> readSegment(Path segment, long offset) throws IOException {
+        List<TeleportLog> logs = new ArrayList<>();
+        try (BufferedReader reader = openReader(segment, offset)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    TeleportLog log = GSON.fromJson(line, TeleportLog.class);
+                    if (log != null) {
+                        logs.add(log);
+                    }
+                } catch (JsonParseException e) {
+                    // 跳过损坏的行
+                }
+            }
+        }
+        return logs;
+    }
+
+    /**
+     * 从最新的分段开始读取，返回最近的至多 limit 条日志（从旧到新）。
+     */
+    public List<TeleportLog> readRecent(int limit) throws IOException {
+        flush();
+        List<Path> segments = listSegments();
+        List<List<TeleportLog>> chunks = new ArrayList<>();
+        int total = 0;
+        for (int i = segments.size() - 1; i >= 0 && total < limit; i--) {
+            List<TeleportLog> chunk = readSegment(segments.get(i));
+            chunks.add(chunk);
+            total += chunk.size();
+        }
+        Collections.reverse(chunks);
+        List<TeleportLog> result = new ArrayList<>(Math.min(total, limit));
+        int skip = Math.max(0, total - limit);
+        for (List<TeleportLog> chunk : chunks) {
+            for (TeleportLog log : chunk) {
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    result.add(log);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 是否还没有任何分段（用于迁移旧版日志）。
+     */
+    public boolean isEmpty() throws IOException {
+        return listSegments().isEmpty();
+    }
+
+    /**
+     * 删除所有分段。
+     */
+    public void deleteAll() throws IOException {
+        closeWriter();
+        for (Path segment : listSegments()) {
+            deleteSegment(segment);
+        }
+    }
+
+    /**
+     * 删除分段及其摘要文件。
+     */
+    private void deleteSegment(Path segment) throws IOException {
+        Files.deleteIfExists(segment);
+        Path summaryFile = getSummaryFile(segment);
+        Files.deleteIfExists(summaryFile);
+        Files.deleteIfExists(AtomicFileStorage.getBackupPath(summaryFile));
+        summaries.remove(baseName(segment.getFileName().toString()));
+    }
+
+    // ===== 分段摘要与查询 =====
+
+    /**
+     * 查询结果（从新到旧）。
+     *
+     * @param logs            本页日志
+     * @param hasMore         是否还有下一页
+     * @param nextCursor      下一页的续查位置，没有下一页时为空字符串
+     * @param scannedSegments 实际扫描的分段数
+     * @param totalSegments   分段总数
+     */
+    public record QueryResult(List<TeleportLog> logs, boolean hasMore, String nextCursor,
+                              int scannedSegments, int totalSegments) {
+    }
+
+    /**
+     * 按条件分页查询日志。
+     * 有续查位置时跳过更新的分段，并从该位置之前的条目开始；
+     * 根据摘要跳过不可能匹配的分段，找到本页所需条数后立即停止扫描。
+     *
+     * <p>条目位置是分段中可解析日志的序号。分段只追加，已写入的条目位置不会变化；
+     * 续查位置所在的分段被保留策略删除后，直接从更早的分段继续。</p>
+     */
+    public QueryResult query(TeleportLogQuery query) throws IOException {
+        flush();
+        List<Path> segments = listSegments();
+        List<TeleportLog> page = new ArrayList<>(query.getPageSize());
+        String cursorSegment = query.hasCursor() ? query.getCursorSegment() : null;
+        if (query.hasCursor() && cursorSegment == null) {
+            // 本地日志的续查位置，服务端无法使用
+            return new QueryResult(page, false, "", 0, segments.size());
+        }
+        String cursorKey = cursorSegment != null ? SEGMENT_PREFIX + cursorSegment + SEGMENT_SUFFIX : null;
+        int scanned = 0;
+        boolean hasMore = false;
+        String lastSegment = null;
+        int lastIndex = 0;
+
+        for (int i = segments.size() - 1; i >= 0 && !hasMore; i--) {
+            Path segment = segments.get(i);
+            String key = baseName(segment.getFileName().toString());
+            int compare = cursorKey != null ? key.compareTo(cursorKey) : -1;
+            if (compare > 0) {
+                // 比续查位置更新的分段已在之前的页中
+                continue;
+            }
+            if (!query.mayMatch(getSummary(segment))) {
+                continue;
+            }
+            scanned++;
+            List<TeleportLog> logs = readSegment(segment);
+            int start = compare == 0 ? Math.min(query.getCursorIndex(), logs.size()) : logs.size();
+            for (int j = start - 1; j >= 0; j--) {
+                TeleportLog log = logs.get(j);
+                if (!query.matches(log)) {
+                    continue;
+                }
+                if (page.size() < query.getPageSize()) {
+                    page.add(log);
+                    lastSegment = key;
+                    lastIndex = j;
+                } else {
+                    hasMore = true;
+                    break;
+                }
+            }
+        }
+        String nextCursor = hasMore ? TeleportLogQuery.segmentCursor(cursorName(lastSegment), lastIndex) : "";
+        return new QueryResult(page, hasMore, nextCursor, scanned, segments.size());
+    }
+
+    /**
+     * 分段文件名去掉前缀和扩展名，用作续查位置中的分段名。
+     */
+    private static String cursorName(String segmentFileName) {
+        return segmentFileName.substring(SEGMENT_PREFIX.length(),
+                segmentFileName.length() - SEGMENT_SUFFIX.length());
+    }
+
+    /**
+     * 获取分段摘要：当前分段使用内存中的摘要，其余优先读取摘要文件，缺失或过期时扫描分段重建。
+     */
+    private TeleportLogSegmentSummary getSummary(Path segment) throws IOException {
+        String key = baseName(segment.getFileName().toString());
+        if (currentSegment != null && key.equals(currentSegment.getFileName().toString())) {
+            return currentSummary;
+        }
+        TeleportLogSegmentSummary summary = summaries.get(key);
+        if (summary != null) {
+            return summary;
+        }
+        summary = loadSummary(segment);
+        summaries.put(key, summary);
+        return summary;
+    }
+
+    /**
+     * 读取摘要文件并确认其覆盖整个分段：分段比摘要长时补扫多出的部分，
+     * 摘要缺失或无法确认时重新扫描整个分段；内容有变化时写回摘要文件。
+     * 压缩分段只会在关闭（已写入完整摘要）后生成，其摘要文件直接使用。
+     */
+    private TeleportLogSegmentSummary loadSummary(Path segment) throws IOException {
+        TeleportLogSegmentSummary summary = AtomicFileStorage.read(getSummaryFile(segment),
+                json -> GSON.fromJson(json, TeleportLogSegmentSummary.class));
+        boolean compressed = segment.getFileName().toString().endsWith(GZIP_SUFFIX);
+        if (summary != null && compressed) {
+            return summary;
+        }
+        long size = compressed ? 0 : Files.size(segment);
+        if (summary != null && summary.getCoveredBytes() == size && size > 0) {
+            return summary;
+        }
+        if (summary != null && summary.getCoveredBytes() > 0 && summary.getCoveredBytes() < size) {
+            for (TeleportLog log : readSegment(segment, summary.getCoveredBytes())) {
+                summary.add(log);
+            }
+        } else {
+            summary = new TeleportLogSegmentSummary();
+            for (TeleportLog log : readSegment(segment)) {
+                summary.add(log);
+            }
+        }
+        summary.setCoveredBytes(size);
+        saveSummary(segment, summary);
+        return summary;
+    }
+
+    private void saveCurrentSummary() {
+        saveSummary(currentSegment, currentSummary);
+        summarySavedAt = System.currentTimeMillis();
+    }
+
+    private void saveSummary(Path segment, TeleportLogSegmentSummary summary) {
+        try {
+            AtomicFileStorage.writeString(getSummaryFile(segment), GSON.toJson(summary));
+        } catch (IOException e) {
+            // 摘要写入失败时下次查询重新扫描分段
+        }
+    }
+
+    private Path getSummaryFile(Path segment) {
+        return segment.resolveSibling(baseName(segment.getFileName().toString()) + SUMMARY_SUFFIX);
+    }
+
+    /**
+     * 将缓冲区内容写出到文件。
+     */
+    public void flush() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * 关闭当前分段（服务端关闭时调用）。
+     */
+    public void close() throws IOException {
+        closeWriter();
+    }
+
+    private void closeWriter() throws IOException {
+        if (writer != null) {
+            try {
+                writer.close();
+                saveSummary(currentSegment, currentSummary);
+                summaries.put(currentSegment.getFileName().toString(), currentSummary);
+            } finally {
+                writer = null;
+                currentSegment = null;
+                currentDate = null;
+                currentSize = 0;
+                currentSummary = null;
+            }
+        }
+    }
+
+    private BufferedReader openReader(Path segment, long offset) throws IOException {
+        InputStream in = Files.newInputStream(segment);
+        if (segment.getFileName().toString().endsWith(GZIP_SUFFIX)) {
+            in = new GZIPInputStream(in);
+        }
+        if (offset > 0) {
+            try {
+                in.skipNBytes(offset);
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    private static String segmentFileName(LocalDate date, int sequence) {
+        return SEGMENT_PREFIX + date + "-" + String.format("%03d", sequence) + SEGMENT_SUFFIX;
+    }
+
+    private static String baseName(String fileName) {
+        return fileName.endsWith(GZIP_SUFFIX)
+                ? fileName.substring(0, fileName.length() - GZIP_SUFFIX.length())
+                : fileName;
+    }
+
+    /**
+     * 从文件名解析分段日期，格式不符时返回 null。
+     */
+    static LocalDate parseDate(String fileName) {
+        String base = baseName(fileName);
+        int dateStart = SEGMENT_PREFIX.length();
+        int dateEnd = dateStart + 10; // yyyy-MM-dd
+        if (!base.startsWith(SEGMENT_PREFIX) || base.length() < dateEnd) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(base.substring(dateStart, dateEnd));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static int parseSequence(String fileName) {
+        String base = baseName(fileName);
+        int start = SEGMENT_PREFIX.length() + 11; // yyyy-MM-dd-
+        int end = base.length() - SEGMENT_SUFFIX.length();
+        if (start >= end) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(base.substring(start, end));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
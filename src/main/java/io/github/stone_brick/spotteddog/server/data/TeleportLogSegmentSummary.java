@@ -0,0 +1,89 @@
+package io.github.stone_brick.spotteddog.server.data;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 传送日志分段摘要（稀疏索引）。
+ * 记录分段内的时间范围以及出现过的玩家、类型和目标维度，
+ * 查询时先用摘要排除不可能匹配的分段，只扫描剩下的分段。
+ *
+ * <p>摘要保存在同目录的 {@code <分段名>.idx.json} 中，并记录其覆盖的分段长度；
+ * 分段在摘要写入后又被追加（例如崩溃前未来得及更新摘要）时，只需补扫之后的部分。</p>
+ */
+public class TeleportLogSegmentSummary {
+
+    @SerializedName("count")
+    private int count;
+
+    @SerializedName("min_time")
+    private long minTime = Long.MAX_VALUE;
+
+    @SerializedName("max_time")
+    private long maxTime = Long.MIN_VALUE;
+
+    @SerializedName("players")
+    private Set<String> players = new HashSet<>(); // UUID 和名称（小写）
+
+    @SerializedName("types")
+    private Set<String> types = new HashSet<>(); // teleport_type 和 type（小写）
+
+    @SerializedName("dimensions")
+    private Set<String> dimensions = new HashSet<>(); // 目标维度（小写，带命名空间）
+
+    @SerializedName("covered_bytes")
+    private long coveredBytes; // 摘要覆盖的分段长度（未压缩字节数），0 表示未知
+
+    /**
+     * 将一条日志计入摘要。
+     */
+    public void add(TeleportLog log) {
+        count++;
+        long time = TeleportLogQuery.parseTimestamp(log.getTimestamp());
+        if (time >= 0) {
+            minTime = Math.min(minTime, time);
+            maxTime = Math.max(maxTime, time);
+        } else {
+            // 时间戳无法解析时放宽时间范围，保证不会被误排除
+            minTime = 0;
+            maxTime = Long.MAX_VALUE;
+        }
+        addLower(players, log.getPlayerUuid());
+        addLower(players, log.getPlayerName());
+        addLower(players, log.getOperatorUuid());
+        addLower(players, log.getOperatorName());
+        addLower(types, log.getTeleportType());
+        addLower(types, log.getType());
+        String dimension = TeleportLogQuery.normalizeDimension(log.getTargetDimension());
+        if (dimension != null) {
+            dimensions.add(dimension);
+        }
+    }
+
+    private static void addLower(Set<String> set, String value) {
+        if (value != null && !value.isEmpty()) {
+            set.add(value.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    public boolean containsPlayer(String normalizedPlayer) {
+        return players != null && players.contains(normalizedPlayer);
+    }
+
+    public boolean containsType(String normalizedType) {
+        return types != null && types.contains(normalizedType);
+    }
+
+    public boolean containsDimension(String normalizedDimension) {
+        return dimensions != null && dimensions.contains(normalizedDimension);
+    }
+
+    public int getCount() { return count; }
+    public long getCoveredBytes() { return coveredBytes; }
+    public void setCoveredBytes(long coveredBytes) { this.coveredBytes = coveredBytes; }
+    public long getMinTime() { return minTime; }
+    public long getMaxTime() { return maxTime; }
+}
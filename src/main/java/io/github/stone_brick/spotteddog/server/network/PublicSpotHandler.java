@@ -5,35 +5,69 @@ import io.github.stone_brick.spotteddog.event.AdminLogEvents;
 import io.github.stone_brick.spotteddog.event.TeleportLogEvent;
 import io.github.stone_brick.spotteddog.event.TeleportLogEvents;
 import io.github.stone_brick.spotteddog.network.c2s.*;
+import io.github.stone_brick.spotteddog.network.s2c.PublicSpotDeltaS2CPayload;
 import io.github.stone_brick.spotteddog.network.s2c.PublicSpotListS2CPayload;
 import io.github.stone_brick.spotteddog.network.s2c.TeleportConfirmS2CPayload;
+import io.github.stone_brick.spotteddog.server.config.ConfigManager;
 import io.github.stone_brick.spotteddog.server.config.CooldownManager;
 import io.github.stone_brick.spotteddog.server.data.PublicSpot;
+import io.github.stone_brick.spotteddog.server.data.PublicSpotChange;
 import io.github.stone_brick.spotteddog.server.data.PublicSpotManager;
 import io.github.stone_brick.spotteddog.server.permission.PermissionManager;
+import io.github.stone_brick.spotteddog.server.teleport.DimensionResolver;
+import io.github.stone_brick.spotteddog.server.teleport.SafeLandingResolver;
+import io.github.stone_brick.spotteddog.server.teleport.TeleportScheduler;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.minecraft.network.packet.s2c.play.PositionFlag;
-import net.minecraft.registry.RegistryKey;
-import net.minecraft.registry.RegistryKeys;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
-import net.minecraft.util.Identifier;
-import net.minecraft.world.World;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.Vec3d;
 
 import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 服务端公开 Spot 处理器。
  * 处理公开/取消公开/列表查询/传送请求。
+ *
+ * <p>列表请求不立即响应：同一 tick 内收到的请求在 tick 结束时按查询条件分组，
+ * 每组只读取和编码一次列表页，再分发给组内所有玩家（single-flight）。</p>
  */
 public class PublicSpotHandler {
     private static final int MAX_NAME_LENGTH = 64; // Spot 名称最大长度
+    private static final int MAX_CURSOR_LENGTH = 256; // 续传令牌最大长度
+
+    // 等待本 tick 结束时统一响应的列表请求
+    private static final Queue<PendingListRequest> pendingListRequests = new ConcurrentLinkedQueue<>();
+
+    // 列表请求合并统计（用于监控）
+    private static final AtomicLong listRequestCount = new AtomicLong();
+    private static final AtomicLong listComputationCount = new AtomicLong();
+
+    /**
+     * 列表查询条件（相同条件的请求共用一次计算）。
+     */
+    private record ListQuery(String cursor, int pageSize, String owner, String dimension, String namePrefix) {
+        boolean isFiltered() {
+            return !owner.isEmpty() || !dimension.isEmpty() || !namePrefix.isEmpty();
+        }
+    }
+
+    private record PendingListRequest(ServerPlayerEntity player, ListQuery query) {}
 
     static {
         // 注册 C2S Payload 类型
@@ -50,8 +84,15 @@ public class PublicSpotHandler {
         // 初始化 PublicSpotManager
         PublicSpotManager.getInstance().initialize(null);
 
+        // 服务端关闭前将未写入的公开 Spot 修改落盘
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> PublicSpotManager.getInstance().flush());
+
         // 动态注册 S2C Payload 类型
         PayloadTypeRegistry.playS2C().register(PublicSpotListS2CPayload.ID, PublicSpotListS2CPayload.CODEC);
+        PayloadTypeRegistry.playS2C().register(PublicSpotDeltaS2CPayload.ID, PublicSpotDeltaS2CPayload.CODEC);
+
+        // 配置重新加载后坐标编码方式可能改变，丢弃预编码的列表页
+        ConfigManager.addReloadListener(PublicSpotListCache::invalidate);
 
         // 处理公开/取消公开请求
         ServerPlayNetworking.registerGlobalReceiver(PublicSpotActionC2SPayload.ID, (payload, context) -> {
@@ -136,39 +177,55 @@ public class PublicSpotHandler {
             }
         });
 
-        // 处理获取公开 Spot 列表请求
+        // 处理获取公开 Spot 列表请求（分页）
         ServerPlayNetworking.registerGlobalReceiver(PublicSpotListC2SPayload.ID, (payload, context) -> {
             ServerPlayerEntity player = context.player();
 
-            // 验证冷却时间
-            if (!CooldownManager.canRequestPublicList(player)) {
-                return; // 忽略请求，不返回错误
+            // 续传令牌和前缀长度有限，超长视为无效请求
+            if (payload.cursor().length() > MAX_CURSOR_LENGTH || payload.namePrefix().length() > MAX_NAME_LENGTH
+                    || payload.owner().length() > MAX_NAME_LENGTH) {
+                return;
+            }
+
+            // 不过滤的第一页计入玩家冷却；后续页、过滤查询（补全）和订阅者的同步请求受玩家速率限制
+            boolean freshListing = payload.cursor().isEmpty() && !payload.isFiltered();
+            // 订阅者收到推送后按版本号补齐，不受玩家冷却限制（否则会在下次变更前一直停留在旧数据）
+            boolean subscriberSync = freshListing && payload.sinceRevision() != 0
+                    && PublicSpotSyncHandler.isSubscribed(player);
+            if (freshListing && !subscriberSync) {
+                if (!CooldownManager.canRequestPublicList(player)) {
+                    return; // 忽略请求，不返回错误
+                }
+            } else if (!CooldownManager.tryAcquirePlayerPublicList(player)) {
+                return;
             }
-            CooldownManager.recordPublicListRequest(player);
-
-            // 获取所有公开 Spot（服务器范围）
-            List<PublicSpot> spots = PublicSpotManager.getInstance().getAllPublicSpots();
-
-            // 转换为网络传输格式
-            List<PublicSpotListS2CPayload.PublicSpotInfo> spotInfos = new ArrayList<>();
-            for (PublicSpot spot : spots) {
-                spotInfos.add(new PublicSpotListS2CPayload.PublicSpotInfo(
-                        spot.getOwnerName(),
-                        spot.getDisplayName(),
-                        spot.getX(), spot.getY(), spot.getZ(),
-                        spot.getDimension()
-                ));
+            // 全局列表请求速率限制
+            if (!CooldownManager.tryAcquirePublicListGlobal()) {
+                return;
+            }
+            if (freshListing) {
+                CooldownManager.recordPublicListRequest(player);
             }
 
-            // 获取玩家权限
-            boolean canTeleport = PermissionManager.canTeleport(player);
-            boolean canManagePublicSpots = PermissionManager.canManagePublicSpots(player);
+            int maxPageSize = ConfigManager.getPublicListPageSize();
+            int pageSize = payload.pageSize() > 0 ? Math.min(payload.pageSize(), maxPageSize) : maxPageSize;
+
+            // 客户端已有缓存：未变化或变更不多时只发送增量，否则回退到完整的第一页
+            if (freshListing && payload.sinceRevision() != 0) {
+                PublicSpotManager.Delta delta = PublicSpotManager.getInstance().getChangesSince(payload.sinceRevision());
+                if (delta != null && delta.changes().size() <= pageSize) {
+                    ServerPlayNetworking.send(player, toDeltaPayload(delta));
+                    return;
+                }
+            }
 
-            // 发送包含权限信息的响应
-            ServerPlayNetworking.send(player, PublicSpotListS2CPayload.create(
-                    spotInfos, canTeleport, canManagePublicSpots));
+            // 同一 tick 内的列表请求合并到 tick 结束时统一计算
+            pendingListRequests.add(new PendingListRequest(player, new ListQuery(payload.cursor(), pageSize,
+                    payload.owner(), payload.dimension(), payload.namePrefix())));
         });
 
+        ServerTickEvents.END_SERVER_TICK.register(server -> flushListRequests());
+
         // 处理传送到公开 Spot 请求
         ServerPlayNetworking.registerGlobalReceiver(PublicSpotTeleportC2SPayload.ID, (payload, context) -> {
             ServerPlayerEntity player = context.player();
@@ -189,8 +246,15 @@ public class PublicSpotHandler {
                 return;
             }
 
-            // 验证全局速率限制
-            if (!CooldownManager.tryIncrementGlobalCount()) {
+            // 同一玩家同时只能有一个等待区块加载的传送
+            if (TeleportScheduler.isPending(player)) {
+                ServerPlayNetworking.send(player, TeleportConfirmS2CPayload.failure(
+                        "public_tp", payload.fullName(), "spotteddog.teleport.already.pending"));
+                return;
+            }
+
+            // 传送队列已满时拒绝（全局速率限制在执行队列中平滑处理）
+            if (TeleportScheduler.isQueueFull()) {
                 ServerPlayNetworking.send(player, TeleportConfirmS2CPayload.failure(
                         "public_tp", payload.fullName(), "spotteddog.server.busy"));
                 return;
@@ -224,22 +288,41 @@ public class PublicSpotHandler {
             PublicSpot spot = spotOpt.get();
 
             // 执行传送
-            RegistryKey<World> worldKey = getWorldKey(spot.getDimension());
-            ServerWorld targetWorld = server.getWorld(worldKey);
+            ServerWorld targetWorld = DimensionResolver.getWorld(server, spot.getWorldKey());
             if (targetWorld == null) {
                 ServerPlayNetworking.send(player, TeleportConfirmS2CPayload.failure(
                         "public_tp", payload.fullName(), "spotteddog.world.unreachable"));
                 return;
             }
 
-            boolean success = teleportToPublicSpot(player, targetWorld, spot);
-            if (success) {
-                CooldownManager.updateLastTeleport(player);
-                ServerPlayNetworking.send(player, TeleportConfirmS2CPayload.success(
-                        "public_tp", payload.fullName()));
-            } else {
-                ServerPlayNetworking.send(player, TeleportConfirmS2CPayload.failure(
-                        "public_tp", payload.fullName(), "spotteddog.teleport.failed.generic"));
+            // 目标区块未加载时先异步加载，在之后的 tick 执行传送
+            // 执行前 Spot 可能已被取消公开或修改，只保留 ID，执行时重新查找
+            String spotId = spot.getId();
+            String dimension = spot.getDimension();
+            long chunk = ChunkPos.toLong(BlockPos.ofFloored(spot.getX(), spot.getY(), spot.getZ()));
+            boolean deferred = TeleportScheduler.schedule(player, targetWorld, spot.getX(), spot.getZ(), () -> {
+                PublicSpot current = resolveScheduledSpot(spotId, dimension, chunk);
+                ServerWorld world = current != null ? DimensionResolver.getWorld(server, current.getWorldKey()) : null;
+                if (world == null) {
+                    ServerPlayNetworking.send(player, TeleportConfirmS2CPayload.failure(
+                            "public_tp", payload.fullName(), "spotteddog.public.spot.not.found"));
+                    return;
+                }
+                boolean success = teleportToPublicSpot(player, world, current);
+                if (success) {
+                    CooldownManager.updateLastTeleport(player);
+                    // 计入热度，热门 Spot 会保持区块加载
+                    PublicSpotManager.getInstance().recordTeleport(current);
+                    ServerPlayNetworking.send(player, TeleportConfirmS2CPayload.success(
+                            "public_tp", payload.fullName()));
+                } else {
+                    ServerPlayNetworking.send(player, TeleportConfirmS2CPayload.failure(
+                            "public_tp", payload.fullName(), "spotteddog.teleport.failed.generic"));
+                }
+            }, () -> ServerPlayNetworking.send(player, TeleportConfirmS2CPayload.failure(
+                    "public_tp", payload.fullName(), "spotteddog.teleport.failed.generic")));
+            if (deferred) {
+                ServerPlayNetworking.send(player, TeleportConfirmS2CPayload.pending("public_tp", payload.fullName()));
             }
         });
 
@@ -293,6 +376,20 @@ public class PublicSpotHandler {
         }
     }
 
+    /**
+     * 执行已调度的传送前重新查找公开 Spot。
+     *
+     * @return 当前的公开 Spot；已被取消公开，或已移动到其他维度或区块（预加载的区块不再适用）时返回 null
+     */
+    private static PublicSpot resolveScheduledSpot(String spotId, String dimension, long chunk) {
+        PublicSpot spot = PublicSpotManager.getInstance().getPublicSpotById(spotId).orElse(null);
+        if (spot == null || !spot.getDimension().equals(dimension)
+                || ChunkPos.toLong(BlockPos.ofFloored(spot.getX(), spot.getY(), spot.getZ())) != chunk) {
+            return null;
+        }
+        return spot;
+    }
+
     /**
      * 传送到公开 Spot。
      * 公开 Spot 保存的是精确坐标，无需偏移。
@@ -305,7 +402,9 @@ public class PublicSpotHandler {
             double sourceY = player.getY();
             double sourceZ = player.getZ();
 
-            player.teleport(world, spot.getX(), spot.getY(), spot.getZ(),
+            // 目标位置不安全时在附近寻找安全落点（结果会被缓存，重复传送无需重新搜索）
+            Vec3d landing = SafeLandingResolver.resolve(world, spot.getX(), spot.getY(), spot.getZ());
+            player.teleport(world, landing.getX(), landing.getY(), landing.getZ(),
                     EnumSet.noneOf(PositionFlag.class), spot.getYaw(), spot.getPitch(), false);
 
             // 触发传送日志事件（通过事件系统记录日志）
@@ -327,22 +426,7 @@ public class PublicSpotHandler {
                 sourceDim, sourceX, sourceY, sourceZ,
                 spot.getWorldKey(), spot.getX(), spot.getY(), spot.getZ()
         );
-        TeleportLogEvents.TELEPORT.invoker().onTeleport(event);
-    }
-
-    /**
-     * 获取世界 Key。
-     */
-    private static RegistryKey<World> getWorldKey(String dimension) {
-        return switch (dimension) {
-            case "minecraft:overworld", "overworld" -> World.OVERWORLD;
-            case "minecraft:the_nether", "nether" -> World.NETHER;
-            case "minecraft:the_end", "the_end", "end" -> World.END;
-            default -> {
-                Identifier dimId = Identifier.of(dimension);
-                yield RegistryKey.of(RegistryKeys.WORLD, dimId);
-            }
-        };
+        TeleportLogEvents.post(event);
     }
 
     /**
@@ -358,6 +442,117 @@ public class PublicSpotHandler {
                 spotName,
                 whitelistType
         );
-        AdminLogEvents.ADMIN_OPERATION.invoker().onAdminOperation(event);
+        AdminLogEvents.post(event);
+    }
+
+    /**
+     * 响应本 tick 内收到的全部列表请求。
+     * 按查询条件分组，每组只读取和编码一次，再附加各玩家的权限标记分别发送。
+     */
+    private static void flushListRequests() {
+        if (pendingListRequests.isEmpty()) {
+            return;
+        }
+        Map<ListQuery, List<ServerPlayerEntity>> groups = new LinkedHashMap<>();
+        PendingListRequest request;
+        while ((request = pendingListRequests.poll()) != null) {
+            groups.computeIfAbsent(request.query(), q -> new ArrayList<>()).add(request.player());
+        }
+
+        for (Map.Entry<ListQuery, List<ServerPlayerEntity>> group : groups.entrySet()) {
+            ListQuery query = group.getKey();
+            PublicSpotListCache.CachedPage page = computeListPage(query);
+            listComputationCount.incrementAndGet();
+
+            for (ServerPlayerEntity player : group.getValue()) {
+                listRequestCount.incrementAndGet();
+                if (player.isDisconnected()) {
+                    continue;
+                }
+                // 获取玩家权限（一次读取位掩码快照）
+                int permissions = PermissionManager.getPermissionBits(player);
+                ServerPlayNetworking.send(player, page.toPayload(query.cursor(),
+                        (permissions & PermissionManager.TELEPORT) != 0,
+                        (permissions & PermissionManager.PUBLIC_SPOT) != 0));
+            }
+        }
+    }
+
+    /**
+     * 计算一页列表：不带过滤条件的页对所有玩家相同，复用预编码的缓存页；过滤查询只在本组内共用。
+     */
+    private static PublicSpotListCache.CachedPage computeListPage(ListQuery query) {
+        if (!query.isFiltered()) {
+            return PublicSpotListCache.getPage(query.cursor(), query.pageSize());
+        }
+        PublicSpotManager.Page page = PublicSpotManager.getInstance().listPublicSpots(
+                query.cursor(), query.pageSize(), query.owner(), query.dimension(), query.namePrefix());
+        return PublicSpotListCache.CachedPage.of(toSpotInfos(page.spots()), query.cursor(),
+                page.nextCursor(), true, page.revision());
+    }
+
+    /**
+     * 获取已响应的列表请求数（用于监控）。
+     */
+    public static long getListRequestCount() {
+        return listRequestCount.get();
+    }
+
+    /**
+     * 获取实际计算的列表页数（用于监控）。
+     */
+    public static long getListComputationCount() {
+        return listComputationCount.get();
+    }
+
+    /**
+     * 获取列表请求合并的扇出比（每次计算平均响应的请求数，用于监控）。
+     */
+    public static double getListFanOutRatio() {
+        long computations = listComputationCount.get();
+        return computations == 0 ? 0.0 : (double) listRequestCount.get() / computations;
+    }
+
+    /**
+     * 将公开 Spot 转换为网络传输格式。
+     */
+    static List<PublicSpotListS2CPayload.PublicSpotInfo> toSpotInfos(List<PublicSpot> spots) {
+        List<PublicSpotListS2CPayload.PublicSpotInfo> spotInfos = new ArrayList<>(spots.size());
+        for (PublicSpot spot : spots) {
+            spotInfos.add(new PublicSpotListS2CPayload.PublicSpotInfo(
+                    spot.getOwnerName(),
+                    spot.getDisplayName(),
+                    spot.getX(), spot.getY(), spot.getZ(),
+                    spot.getDimension()
+            ));
+        }
+        return spotInfos;
+    }
+
+    /**
+     * 将增量查询结果转换为网络传输格式。
+     */
+    private static PublicSpotDeltaS2CPayload toDeltaPayload(PublicSpotManager.Delta delta) {
+        return new PublicSpotDeltaS2CPayload(delta.revision(), toSpotChanges(delta.changes()));
+    }
+
+    /**
+     * 将变更记录转换为网络传输格式。
+     */
+    static List<PublicSpotDeltaS2CPayload.SpotChange> toSpotChanges(List<PublicSpotChange> source) {
+        List<PublicSpotDeltaS2CPayload.SpotChange> changes = new ArrayList<>(source.size());
+        for (PublicSpotChange change : source) {
+            byte type = switch (change.type()) {
+                case ADD -> PublicSpotDeltaS2CPayload.ADD;
+                case REMOVE -> PublicSpotDeltaS2CPayload.REMOVE;
+                case UPDATE -> PublicSpotDeltaS2CPayload.UPDATE;
+                case RENAME -> PublicSpotDeltaS2CPayload.RENAME;
+            };
+            changes.add(new PublicSpotDeltaS2CPayload.SpotChange(type,
+                    change.ownerName(), change.displayName(),
+                    change.previousName() != null ? change.previousName() : "",
+                    change.x(), change.y(), change.z(), change.dimension()));
+        }
+        return changes;
     }
 }
@@ -0,0 +1,127 @@
+package io.github.stone_brick.spotteddog.server.network;
+
+import io.github.stone_brick.spotteddog.network.s2c.PublicSpotListS2CPayload;
+import io.github.stone_brick.spotteddog.server.data.PublicSpotManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 公开 Spot 列表页缓存。
+ *
+ * <p>不带过滤条件的列表页对所有玩家都相同，按（续传令牌, 每页条数）缓存转换后的条目和
+ * 预编码的列表主体，同一版本号内的重复请求不再复制 Spot、构建条目或重新编码，
+ * 只在响应末尾附加玩家自己的权限标记。{@link PublicSpotManager} 版本号变化后整个缓存失效；
+ * 配置重新加载时（坐标编码方式可能改变）也会清空。</p>
+ */
+public final class PublicSpotListCache {
+
+    // 最多缓存的页数（超出后不再缓存新页，直到下一次失效）
+    private static final int MAX_ENTRIES = 64;
+
+    private static final Map<Key, CachedPage> pages = new ConcurrentHashMap<>();
+    private static volatile long cachedRevision = Long.MIN_VALUE;
+
+    // 监控指标
+    private static final AtomicLong hitCount = new AtomicLong();
+    private static final AtomicLong missCount = new AtomicLong();
+
+    private record Key(String cursor, int pageSize) {}
+
+    /**
+     * 缓存的列表页。
+     */
+    public record CachedPage(List<PublicSpotListS2CPayload.PublicSpotInfo> spots, String nextCursor,
+                             boolean filtered, long revision, byte[] encodedBody) {
+
+        /**
+         * 转换并预编码一页。
+         */
+        public static CachedPage of(List<PublicSpotListS2CPayload.PublicSpotInfo> spots, String cursor,
+                                    String nextCursor, boolean filtered, long revision) {
+            List<PublicSpotListS2CPayload.PublicSpotInfo> copy = List.copyOf(spots);
+            String next = nextCursor != null ? nextCursor : "";
+            return new CachedPage(copy, next, filtered, revision,
+                    PublicSpotListS2CPayload.encodeBody(copy, cursor, next, filtered, revision));
+        }
+
+        /**
+         * 创建附加了玩家权限标记的响应。
+         */
+        public PublicSpotListS2CPayload toPayload(String cursor, boolean canTeleport, boolean canManagePublicSpots) {
+            return PublicSpotListS2CPayload.encoded(spots, canTeleport, canManagePublicSpots,
+                    cursor, nextCursor, filtered, revision, encodedBody);
+        }
+    }
+
+    private PublicSpotListCache() {
+        // 工具类，禁止实例化
+    }
+
+    /**
+     * 获取不带过滤条件的列表页，未缓存时从 {@link PublicSpotManager} 读取并编码。
+     *
+     * @param cursor   续传令牌（空字符串表示第一页）
+     * @param pageSize 每页条数
+     * @return 列表页
+     */
+    public static CachedPage getPage(String cursor, int pageSize) {
+        PublicSpotManager manager = PublicSpotManager.getInstance();
+        long revision = manager.getRevision();
+        if (revision != cachedRevision) {
+            pages.clear();
+            cachedRevision = revision;
+        }
+
+        Key key = new Key(cursor, pageSize);
+        CachedPage cached = pages.get(key);
+        if (cached != null) {
+            hitCount.incrementAndGet();
+            return cached;
+        }
+        missCount.incrementAndGet();
+
+        PublicSpotManager.Page page = manager.listPublicSpots(cursor, pageSize, "", "", "");
+        CachedPage result = CachedPage.of(PublicSpotHandler.toSpotInfos(page.spots()), cursor,
+                page.nextCursor(), false, page.revision());
+
+        // 读取期间列表被修改时不缓存，避免旧页被当作新版本复用
+        if (page.revision() == cachedRevision && pages.size() < MAX_ENTRIES) {
+            pages.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * 清空缓存。
+     */
+    public static void invalidate() {
+        pages.clear();
+        cachedRevision = Long.MIN_VALUE;
+    }
+
+    // ===== 监控指标 =====
+
+    /**
+     * 获取当前缓存的页数（用于监控）。
+     */
+    public static int getCachedPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * 获取缓存命中次数（用于监控）。
+     */
+    public static long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * 获取缓存未命中次数（用于监控）。
+     */
+    public static long getMissCount() {
+        return missCount.get();
+    }
+}
@@ -0,0 +1,133 @@
+package io.github.stone_brick.spotteddog.server.network;
+
+import io.github.stone_brick.spotteddog.network.c2s.PublicSpotSubscribeC2SPayload;
+import io.github.stone_brick.spotteddog.network.s2c.PublicSpotDeltaS2CPayload;
+import io.github.stone_brick.spotteddog.network.s2c.PublicSpotSyncS2CPayload;
+import io.github.stone_brick.spotteddog.server.config.ConfigManager;
+import io.github.stone_brick.spotteddog.server.data.PublicSpotManager;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 公开 Spot 变更推送处理器。
+ *
+ * <p>客户端通过 {@link PublicSpotSubscribeC2SPayload} 订阅后，服务端在每个 tick 结束时检查
+ * {@link PublicSpotManager} 的版本号：有变化时把本 tick 内的全部变更合并为一个
+ * {@link PublicSpotSyncS2CPayload}，向每个订阅者发送一次。客户端因此不再需要定时轮询列表。</p>
+ */
+public class PublicSpotSyncHandler {
+
+    private static final Set<UUID> subscribers = ConcurrentHashMap.newKeySet();
+    // 上一次推送时的版本号
+    private static long lastBroadcastRevision;
+
+    // 监控指标
+    private static final AtomicLong broadcastCount = new AtomicLong();
+    private static final AtomicLong packetsSent = new AtomicLong();
+
+    static {
+        PayloadTypeRegistry.playC2S().register(PublicSpotSubscribeC2SPayload.ID, PublicSpotSubscribeC2SPayload.CODEC);
+    }
+
+    /**
+     * 注册处理器。
+     */
+    public static void register() {
+        PayloadTypeRegistry.playS2C().register(PublicSpotSyncS2CPayload.ID, PublicSpotSyncS2CPayload.CODEC);
+
+        ServerPlayNetworking.registerGlobalReceiver(PublicSpotSubscribeC2SPayload.ID, (payload, context) -> {
+            UUID uuid = context.player().getUuid();
+            if (payload.subscribe()) {
+                subscribers.add(uuid);
+            } else {
+                subscribers.remove(uuid);
+            }
+        });
+
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) ->
+                subscribers.remove(handler.getPlayer().getUuid()));
+
+        ServerLifecycleEvents.SERVER_STARTED.register(server ->
+                lastBroadcastRevision = PublicSpotManager.getInstance().getRevision());
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> subscribers.clear());
+
+        ServerTickEvents.END_SERVER_TICK.register(PublicSpotSyncHandler::broadcastChanges);
+    }
+
+    /**
+     * 把上次推送之后的变更合并推送给所有订阅者（每 tick 调用一次）。
+     */
+    private static void broadcastChanges(MinecraftServer server) {
+        PublicSpotManager manager = PublicSpotManager.getInstance();
+        long baseRevision = lastBroadcastRevision;
+        if (manager.getRevision() == baseRevision) {
+            return;
+        }
+
+        PublicSpotManager.Delta delta = manager.getChangesSince(baseRevision);
+        PublicSpotSyncS2CPayload payload;
+        if (delta == null) {
+            // 日志已截断（例如清空或重新加载），让客户端重新请求
+            payload = PublicSpotSyncS2CPayload.resync(baseRevision, manager.getRevision());
+        } else if (delta.changes().size() > ConfigManager.getPublicListPageSize()) {
+            payload = PublicSpotSyncS2CPayload.resync(baseRevision, delta.revision());
+        } else {
+            List<PublicSpotDeltaS2CPayload.SpotChange> changes = PublicSpotHandler.toSpotChanges(delta.changes());
+            payload = new PublicSpotSyncS2CPayload(baseRevision, delta.revision(), false, changes);
+        }
+        lastBroadcastRevision = payload.revision();
+
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        broadcastCount.incrementAndGet();
+        for (UUID uuid : subscribers) {
+            ServerPlayerEntity player = server.getPlayerManager().getPlayer(uuid);
+            if (player != null && ServerPlayNetworking.canSend(player, PublicSpotSyncS2CPayload.ID)) {
+                ServerPlayNetworking.send(player, payload);
+                packetsSent.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 玩家是否已订阅变更推送。
+     */
+    public static boolean isSubscribed(ServerPlayerEntity player) {
+        return subscribers.contains(player.getUuid());
+    }
+
+    // ===== 监控指标 =====
+
+    /**
+     * 获取当前订阅者数量（用于监控）。
+     */
+    public static int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * 获取推送批次数（用于监控）。
+     */
+    public static long getBroadcastCount() {
+        return broadcastCount.get();
+    }
+
+    /**
+     * 获取已发送的推送数据包数（用于监控）。
+     */
+    public static long getPacketsSent() {
+        return packetsSent.get();
+    }
+}
@@ -1,17 +1,27 @@
 package io.github.stone_brick.spotteddog.server.network;
 
+import io.github.stone_brick.spotteddog.event.AsyncEventDispatcher;
 import io.github.stone_brick.spotteddog.network.c2s.TeleportLogAdminC2SPayload;
 import io.github.stone_brick.spotteddog.server.data.TeleportLog;
 import io.github.stone_brick.spotteddog.server.data.TeleportLogManager;
+import io.github.stone_brick.spotteddog.server.data.TeleportLogQuery;
+import io.github.stone_brick.spotteddog.server.data.TeleportLogSegmentStore;
 import io.github.stone_brick.spotteddog.server.permission.PermissionManager;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.ClickEvent;
+import net.minecraft.text.HoverEvent;
 import net.minecraft.text.Text;
 
+import java.util.UUID;
+
 /**
  * 服务端传送日志管理处理器。
- * 处理日志查看请求。
+ * 处理日志查看和历史查询请求。
+ * 历史查询需要读取磁盘上的日志分段，在日志 I/O 线程上执行，结果再回到服务端主线程发送。
  *
  * <p>注意：清除日志功能已被禁止，日志只能查看无法清除。</p>
  */
@@ -24,6 +34,12 @@ public class TeleportLogHandler {
         // 注册 C2S Payload 类型
         PayloadTypeRegistry.playC2S().register(TeleportLogAdminC2SPayload.ID, TeleportLogAdminC2SPayload.CODEC);
 
+        // 服务端启动时按世界目录打开日志分段，关闭时关闭当前分段
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> TeleportLogManager.getInstance().initialize(server));
+        // 关闭前等待异步日志事件写完
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> AsyncEventDispatcher.getInstance().awaitDrained(5000));
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> TeleportLogManager.getInstance().close());
+
         ServerPlayNetworking.registerGlobalReceiver(TeleportLogAdminC2SPayload.ID, (payload, context) -> {
             ServerPlayerEntity player = context.player();
 
@@ -40,6 +56,12 @@ public class TeleportLogHandler {
                     int count = Math.min(payload.count(), 100);
                     listTeleportLogs(player, manager, count);
                 }
+                case "query" -> {
+                    TeleportLogQuery query = new TeleportLogQuery(payload.player(), payload.teleportType(),
+                            payload.dimension(), payload.fromTime(), payload.toTime(),
+                            payload.cursor(), payload.count());
+                    queryTeleportLogs(context.server(), player, manager, query);
+                }
                 // clear_logs 操作已被禁止，不允许任何人清除日志
             }
         });
@@ -69,4 +91,59 @@ public class TeleportLogHandler {
             player.sendMessage(Text.literal(message));
         }
     }
+
+    /**
+     * 按条件分页查询历史日志。查询在日志 I/O 线程上执行，完成后回到主线程发送给仍在线的玩家。
+     */
+    private static void queryTeleportLogs(MinecraftServer server, ServerPlayerEntity player,
+                                          TeleportLogManager manager, TeleportLogQuery query) {
+        UUID playerUuid = player.getUuid();
+        boolean submitted = manager.queryLogsAsync(query, result -> server.execute(() -> {
+            ServerPlayerEntity current = server.getPlayerManager().getPlayer(playerUuid);
+            if (current != null) {
+                sendQueryResult(current, query, result);
+            }
+        }));
+        if (!submitted) {
+            player.sendMessage(Text.translatable("spotteddog.log.query.busy"));
+        }
+    }
+
+    /**
+     * 发送查询结果。还有下一页时附带续查位置，点击即可填入下一页的查询命令。
+     */
+    private static void sendQueryResult(ServerPlayerEntity player, TeleportLogQuery query,
+                                        TeleportLogSegmentStore.QueryResult result) {
+        player.sendMessage(Text.translatable("spotteddog.log.query.header",
+                result.logs().size(), result.scannedSegments(), result.totalSegments()));
+
+        if (result.logs().isEmpty()) {
+            player.sendMessage(Text.translatable("spotteddog.log.query.empty"));
+            return;
+        }
+
+        for (TeleportLog log : result.logs()) {
+            String actor = log.getPlayerName() != null ? log.getPlayerName() : log.getOperatorName();
+            String spotInfo = log.getSpotName() != null ? log.getSpotName()
+                    : log.getTeleportType() != null ? log.getTeleportType() : log.getType();
+            String timestamp = log.getTimestamp();
+            String message = String.format("[%s] %s %s -> (%s, %.1f, %.1f, %.1f)",
+                    timestamp.length() >= 19 ? timestamp.substring(0, 19).replace('T', ' ') : timestamp,
+                    actor,
+                    spotInfo,
+                    log.getTargetDimension(),
+                    log.getTargetX(), log.getTargetY(), log.getTargetZ());
+            player.sendMessage(Text.literal(message));
+        }
+
+        if (result.hasMore()) {
+            String filters = query.toFilterString();
+            String command = "/spot log find " + (filters.isEmpty() ? "" : filters + " ")
+                    + "cursor=" + result.nextCursor();
+            player.sendMessage(Text.translatable("spotteddog.log.query.more", result.nextCursor())
+                    .styled(style -> style
+                            .withHoverEvent(new HoverEvent.ShowText(Text.literal(command)))
+                            .withClickEvent(new ClickEvent.SuggestCommand(command))));
+        }
+    }
 }
@@ -7,25 +7,28 @@ import io.github.stone_brick.spotteddog.network.s2c.TeleportConfirmS2CPayload;
 import io.github.stone_brick.spotteddog.server.config.ConfigManager;
 import io.github.stone_brick.spotteddog.server.config.CooldownManager;
 import io.github.stone_brick.spotteddog.server.permission.PermissionManager;
+import io.github.stone_brick.spotteddog.server.teleport.DimensionResolver;
+import io.github.stone_brick.spotteddog.server.teleport.SafeLandingResolver;
+import io.github.stone_brick.spotteddog.server.teleport.TeleportScheduler;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.minecraft.network.packet.s2c.play.PositionFlag;
 import net.minecraft.registry.RegistryKey;
-import net.minecraft.registry.RegistryKeys;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
-import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.GlobalPos;
+import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 
 import java.util.EnumSet;
 
 /**
  * 服务端传送请求处理器。
- * 客户端发送请求类型（death/respawn/spawn/spot），服务端自行获取位置信息并执行传送。
+ * 客户端发送请求类型（death/respawn/spawn/spot），服务端自行获取位置信息，
+ * 通过 {@link TeleportScheduler} 在目标区块加载完成后执行传送。
  */
 public class TeleportRequestHandler {
     private static final int MAX_NAME_LENGTH = 64; // Spot 名称最大长度
@@ -50,11 +53,6 @@ public class TeleportRequestHandler {
 
             String type = payload.type();
             String targetName = payload.targetName();
-            // 记录源位置
-            String sourceDimension = player.getEntityWorld().getRegistryKey().getValue().toString();
-            double sourceX = player.getX();
-            double sourceY = player.getY();
-            double sourceZ = player.getZ();
 
             // 验证冷却时间
             if (CooldownManager.isInCooldown(player)) {
@@ -64,8 +62,15 @@ public class TeleportRequestHandler {
                 return;
             }
 
-            // 验证全局速率限制
-            if (!CooldownManager.tryIncrementGlobalCount()) {
+            // 同一玩家同时只能有一个等待区块加载的传送
+            if (TeleportScheduler.isPending(player)) {
+                ServerPlayNetworking.send(player, TeleportConfirmS2CPayload.failure(
+                        type, targetName, "spotteddog.teleport.already.pending"));
+                return;
+            }
+
+            // 传送队列已满时拒绝（全局速率限制在执行队列中平滑处理）
+            if (TeleportScheduler.isQueueFull()) {
                 ServerPlayNetworking.send(player, TeleportConfirmS2CPayload.failure(
                         type, targetName, "spotteddog.server.busy"));
                 return;
@@ -85,42 +90,76 @@ public class TeleportRequestHandler {
                 return;
             }
 
-            // 根据类型获取位置并执行传送
-            TeleportResult result = executeTeleport(player, payload);
-
-            if (result.success()) {
-                // 传送成功，更新冷却时间
-                CooldownManager.updateLastTeleport(player);
-                // 触发传送事件
-                fireTeleportEvent(player, payload.type(), result.spotName(), sourceDimension, sourceX, sourceY, sourceZ,
-                        result.targetDimension(), result.targetX(), result.targetY(), result.targetZ());
-                ServerPlayNetworking.send(player, TeleportConfirmS2CPayload.success(payload.type(), payload.targetName()));
-            } else {
-                ServerPlayNetworking.send(player, TeleportConfirmS2CPayload.failure(type, targetName, result.message()));
+            // 根据类型获取目标位置
+            TeleportResult target = resolveTarget(player, payload);
+            if (!target.success()) {
+                ServerPlayNetworking.send(player, TeleportConfirmS2CPayload.failure(type, targetName, target.message()));
+                return;
+            }
+            ServerWorld targetWorld = DimensionResolver.getWorld(player.getEntityWorld().getServer(), target.targetDimension());
+            if (targetWorld == null) {
+                ServerPlayNetworking.send(player, TeleportConfirmS2CPayload.failure(
+                        type, targetName, "spotteddog.teleport.failed.generic"));
+                return;
+            }
+
+            // 目标区块未加载时先异步加载，在之后的 tick 执行传送
+            boolean deferred = TeleportScheduler.schedule(player, targetWorld, target.targetX(), target.targetZ(),
+                    () -> completeTeleport(player, payload, target, targetWorld),
+                    () -> ServerPlayNetworking.send(player, TeleportConfirmS2CPayload.failure(
+                            type, targetName, "spotteddog.teleport.failed.generic")));
+            if (deferred) {
+                ServerPlayNetworking.send(player, TeleportConfirmS2CPayload.pending(type, targetName));
             }
         });
     }
 
     /**
-     * 传送结果。
+     * 执行传送并发送最终结果（目标区块已加载或预加载超时后调用）。
      */
-    private record TeleportResult(boolean success, String message, RegistryKey<World> targetDimension,
-                                  double targetX, double targetY, double targetZ, String spotName) {
-        static TeleportResult ok(RegistryKey<World> dim, double x, double y, double z, String spotName) {
-            return new TeleportResult(true, "", dim, x, y, z, spotName);
+    private static void completeTeleport(ServerPlayerEntity player, TeleportRequestC2SPayload payload,
+                                         TeleportResult target, ServerWorld targetWorld) {
+        // 记录源位置
+        String sourceDimension = player.getEntityWorld().getRegistryKey().getValue().toString();
+        double sourceX = player.getX();
+        double sourceY = player.getY();
+        double sourceZ = player.getZ();
+
+        // 目标位置不安全（窒息、岩浆、虚空等）时在附近寻找安全落点
+        Vec3d landing = SafeLandingResolver.resolve(targetWorld, target.targetX(), target.targetY(), target.targetZ());
+        if (teleportTo(player, targetWorld, landing.getX(), landing.getY(), landing.getZ(),
+                target.yaw(), target.pitch())) {
+            // 传送成功，更新冷却时间
+            CooldownManager.updateLastTeleport(player);
+            // 触发传送事件
+            fireTeleportEvent(player, payload.type(), target.spotName(), sourceDimension, sourceX, sourceY, sourceZ,
+                    target.targetDimension(), landing.getX(), landing.getY(), landing.getZ());
+            ServerPlayNetworking.send(player, TeleportConfirmS2CPayload.success(payload.type(), payload.targetName()));
+        } else {
+            ServerPlayNetworking.send(player, TeleportConfirmS2CPayload.failure(
+                    payload.type(), payload.targetName(), "spotteddog.teleport.failed.generic"));
         }
-        static TeleportResult okWithSpot(String dim, double x, double y, double z, String spotName) {
-            return new TeleportResult(true, "", getWorldKey(dim), x, y, z, spotName);
+    }
+
+    /**
+     * 传送目标解析结果。
+     */
+    private record TeleportResult(boolean success, String message, RegistryKey<World> targetDimension,
+                                  double targetX, double targetY, double targetZ, float yaw, float pitch,
+                                  String spotName) {
+        static TeleportResult ok(RegistryKey<World> dim, double x, double y, double z, float yaw, float pitch,
+                                 String spotName) {
+            return new TeleportResult(true, "", dim, x, y, z, yaw, pitch, spotName);
         }
         static TeleportResult fail(String message) {
-            return new TeleportResult(false, message, null, 0, 0, 0, null);
+            return new TeleportResult(false, message, null, 0, 0, 0, 0, 0, null);
         }
     }
 
     /**
-     * 根据类型获取位置并执行传送。
+     * 根据类型获取目标位置（不执行传送）。
      */
-    private static TeleportResult executeTeleport(ServerPlayerEntity player, TeleportRequestC2SPayload payload) {
+    private static TeleportResult resolveTarget(ServerPlayerEntity player, TeleportRequestC2SPayload payload) {
         String type = payload.type();
         MinecraftServer server = player.getEntityWorld().getServer();
         // 对于 spawn/respawn/death，使用玩家当前朝向；spot 使用保存的朝向
@@ -138,10 +177,7 @@ public class TeleportRequestHandler {
                 double targetX = spawnPos.getX() + 0.5;
                 double targetY = spawnPos.getY();
                 double targetZ = spawnPos.getZ() + 0.5;
-
-                boolean success = teleportTo(player, World.OVERWORLD, targetX, targetY, targetZ, yaw, pitch);
-                yield success ? TeleportResult.ok(World.OVERWORLD, targetX, targetY, targetZ, null)
-                              : TeleportResult.fail("spotteddog.teleport.failed.generic");
+                yield TeleportResult.ok(World.OVERWORLD, targetX, targetY, targetZ, yaw, pitch, null);
             }
             case "respawn" -> {
                 // 获取重生点（BlockPos 需要添加 0.5 偏移，保持玩家当前朝向）
@@ -153,9 +189,7 @@ public class TeleportRequestHandler {
                 double tx = pos.getX() + 0.5;
                 double ty = pos.getY();
                 double tz = pos.getZ() + 0.5;
-                boolean success = teleportTo(player, World.OVERWORLD, tx, ty, tz, yaw, pitch);
-                yield success ? TeleportResult.ok(World.OVERWORLD, tx, ty, tz, null)
-                              : TeleportResult.fail("spotteddog.teleport.failed.generic");
+                yield TeleportResult.ok(World.OVERWORLD, tx, ty, tz, yaw, pitch, null);
             }
             case "death" -> {
                 // 获取死亡点（BlockPos 需要添加 0.5 偏移，保持玩家当前朝向）
@@ -169,9 +203,7 @@ public class TeleportRequestHandler {
                 double tx = pos.getX() + 0.5;
                 double ty = pos.getY();
                 double tz = pos.getZ() + 0.5;
-                boolean success = teleportTo(player, deathPos.dimension(), tx, ty, tz, yaw, pitch);
-                yield success ? TeleportResult.ok(deathPos.dimension(), tx, ty, tz, null)
-                              : TeleportResult.fail("spotteddog.teleport.failed.generic");
+                yield TeleportResult.ok(deathPos.dimension(), tx, ty, tz, yaw, pitch, null);
             }
             case "spot" -> {
                 // spot 类型使用客户端发送的坐标（玩家坐标，无需偏移）
@@ -180,23 +212,14 @@ public class TeleportRequestHandler {
                 double z = payload.z();
                 String dimension = payload.dimension();
                 String spotName = payload.targetName();
-                RegistryKey<World> worldKey = getWorldKey(dimension);
-                boolean success = teleportTo(player, worldKey, x, y, z, yaw, pitch);
-                yield success ? TeleportResult.okWithSpot(dimension, x, y, z, spotName)
-                              : TeleportResult.fail("spotteddog.teleport.failed.generic");
+                yield TeleportResult.ok(DimensionResolver.resolve(dimension), x, y, z, yaw, pitch, spotName);
             }
             default -> TeleportResult.fail("spotteddog.teleport.unknown.type");
         };
     }
 
-    @SuppressWarnings("ConstantConditions")
-    private static boolean teleportTo(ServerPlayerEntity player, RegistryKey<World> dimension, double x, double y, double z, float yaw, float pitch) {
+    private static boolean teleportTo(ServerPlayerEntity player, ServerWorld targetWorld, double x, double y, double z, float yaw, float pitch) {
         try {
-            MinecraftServer server = player.getEntityWorld().getServer();
-            ServerWorld targetWorld = server.getWorld(dimension);
-            if (targetWorld == null) {
-                return false;
-            }
             player.teleport(targetWorld, x, y, z,
                     EnumSet.noneOf(PositionFlag.class), yaw, pitch, false);
             return true;
@@ -205,19 +228,6 @@ public class TeleportRequestHandler {
         }
     }
 
-    private static RegistryKey<World> getWorldKey(String dimension) {
-        return switch (dimension) {
-            case "minecraft:overworld", "overworld" -> World.OVERWORLD;
-            case "minecraft:the_nether", "nether" -> World.NETHER;
-            case "minecraft:the_end", "the_end", "end" -> World.END;
-            default -> {
-                // 使用 RegistryKeys.WORLD 作为 registry，维度 ID 作为值
-                Identifier dimId = Identifier.of(dimension);
-                yield RegistryKey.of(RegistryKeys.WORLD, dimId);
-            }
-        };
-    }
-
     /**
      * 触发传送日志事件。
      */
@@ -229,6 +239,6 @@ public class TeleportRequestHandler {
                 sourceDim, sourceX, sourceY, sourceZ,
                 targetDim, targetX, targetY, targetZ
         );
-        TeleportLogEvents.TELEPORT.invoker().onTeleport(event);
+        TeleportLogEvents.post(event);
     }
 }
@@ -105,7 +105,7 @@ public class WhitelistAdminHandler {
                 spotName,
                 whitelistType
         );
-        AdminLogEvents.ADMIN_OPERATION.invoker().onAdminOperation(event);
+        AdminLogEvents.post(event);
     }
 
     /**
@@ -1,15 +1,29 @@
 package io.github.stone_brick.spotteddog.server.permission;
 
+import io.github.stone_brick.spotteddog.network.s2c.PermissionSyncS2CPayload;
 import io.github.stone_brick.spotteddog.server.config.ConfigManager;
-import io.github.stone_brick.spotteddog.server.permission.WhitelistManager;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
 
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * 权限管理器。
  * 基于 Minecraft OP 级别管理玩家权限。
+ *
+ * <p>OP 判断结果按玩家 UUID 缓存，命中时只需一次哈希查找且不分配对象。
+ * 缓存在 OP 列表变化（{@code PlayerManagerMixin}）、玩家加入或超过
+ * {@code admin_cache_ttl_seconds} 后失效。</p>
+ *
+ * <p>每个在线玩家的全部权限预先计算为一个位掩码（{@link #TELEPORT} 等），
+ * 在玩家加入时计算，只在白名单修改、OP 列表变化或配置重新加载时重新计算，
+ * 处理数据包时只需读取一个 int。权限变化时同一位掩码会主动推送给客户端。</p>
  */
 public final class PermissionManager {
 
@@ -28,17 +42,180 @@ public final class PermissionManager {
     public static final String PERMISSION_PUBLIC_SPOT_TELEPORT = "spotteddog.public.teleport";
     public static final String PERMISSION_ADMIN = "spotteddog.admin";
 
+    // 权限位掩码
+    public static final int TELEPORT = 1;
+    public static final int PUBLIC_SPOT = 1 << 1;
+    public static final int PUBLIC_SPOT_TELEPORT = 1 << 2;
+    public static final int ADMIN = 1 << 3;
+    public static final int ALL = TELEPORT | PUBLIC_SPOT | PUBLIC_SPOT_TELEPORT | ADMIN;
+
+    /**
+     * OP 判断缓存条目。
+     *
+     * @param admin          是否为 OP
+     * @param expiresAtNanos 过期时间（System.nanoTime）
+     */
+    private record AdminCacheEntry(boolean admin, long expiresAtNanos) {
+    }
+
+    private static final ConcurrentHashMap<UUID, AdminCacheEntry> adminCache = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<UUID, Integer> permissionBits = new ConcurrentHashMap<>();
+    private static volatile MinecraftServer currentServer;
+
     private PermissionManager() {
         // 工具类，禁止实例化
     }
 
     /**
-     * 检查玩家是否具有指定权限。
+     * 注册缓存失效事件和权限同步数据包。
+     */
+    public static void register() {
+        PayloadTypeRegistry.playS2C().register(PermissionSyncS2CPayload.ID, PermissionSyncS2CPayload.CODEC);
+
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> currentServer = server);
+        // allow_all_players_* 可能已变化
+        ConfigManager.addReloadListener(PermissionManager::refreshAllPermissions);
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            currentServer = null;
+            adminCache.clear();
+            permissionBits.clear();
+        });
+
+        // 玩家加入时重新判断（OP 列表可能在离线期间被修改）并推送权限
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
+            invalidateAdminCache(handler.getPlayer().getUuid());
+            refreshPermissions(handler.getPlayer(), true);
+        });
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
+            invalidateAdminCache(handler.getPlayer().getUuid());
+            permissionBits.remove(handler.getPlayer().getUuid());
+        });
+    }
+
+    /**
+     * OP 列表变化时调用：清空 OP 判断缓存并重新计算所有在线玩家的权限。
+     */
+    public static void onOperatorsChanged() {
+        invalidateAdminCache();
+        refreshAllPermissions();
+    }
+
+    /**
+     * 重新计算所有在线玩家的权限位掩码（配置或白名单重新加载时调用），变化时推送给客户端。
+     * 可在任意线程调用，实际计算在服务端主线程执行。
+     */
+    public static void refreshAllPermissions() {
+        runOnServerThread(server -> {
+            for (ServerPlayerEntity player : server.getPlayerManager().getPlayerList()) {
+                refreshPermissions(player, false);
+            }
+        });
+    }
+
+    /**
+     * 重新计算指定玩家的权限位掩码（白名单修改时调用），玩家不在线时忽略。
+     */
+    public static void refreshPermissions(UUID playerUuid) {
+        runOnServerThread(server -> {
+            ServerPlayerEntity player = server.getPlayerManager().getPlayer(playerUuid);
+            if (player != null) {
+                refreshPermissions(player, false);
+            }
+        });
+    }
+
+    private static void runOnServerThread(Consumer<MinecraftServer> task) {
+        MinecraftServer server = currentServer;
+        if (server == null) {
+            return;
+        }
+        if (server.isOnThread()) {
+            task.accept(server);
+        } else {
+            server.execute(() -> task.accept(server));
+        }
+    }
+
+    /**
+     * 重新计算玩家的权限位掩码。
+     *
+     * @param force true 时无论是否变化都推送给客户端
+     */
+    private static void refreshPermissions(ServerPlayerEntity player, boolean force) {
+        int bits = computePermissionBits(player);
+        Integer previous = permissionBits.put(player.getUuid(), bits);
+        if ((force || previous == null || previous != bits)
+                && ServerPlayNetworking.canSend(player, PermissionSyncS2CPayload.ID)) {
+            ServerPlayNetworking.send(player, new PermissionSyncS2CPayload(bits));
+        }
+    }
+
+    /**
+     * 获取玩家的权限位掩码快照，尚未计算时立即计算。
+     *
+     * @param player 玩家
+     * @return 权限位掩码，player 为 null 时返回 0
+     */
+    public static int getPermissionBits(ServerPlayerEntity player) {
+        if (player == null) {
+            return 0;
+        }
+        Integer bits = permissionBits.get(player.getUuid());
+        if (bits == null) {
+            bits = computePermissionBits(player);
+            permissionBits.put(player.getUuid(), bits);
+        }
+        return bits;
+    }
+
+    /**
+     * 计算玩家的权限位掩码。
      * <p>
      * 权限规则：
      * - OP 玩家拥有所有权限
      * - 白名单玩家优先于全局配置
      * - 普通玩家：根据配置文件决定（allowAllPlayers）
+     */
+    private static int computePermissionBits(ServerPlayerEntity player) {
+        // 管理员 (OP) 拥有所有权限
+        if (hasAdminPermission(player)) {
+            return ALL;
+        }
+
+        UUID uuid = player.getUuid();
+        int bits = 0;
+        if (WhitelistManager.isPlayerInWhitelist(uuid, WhitelistManager.WhitelistType.TELEPORT)
+                || ConfigManager.isAllowAllPlayersTeleport()) {
+            bits |= TELEPORT;
+        }
+        if (WhitelistManager.isPlayerInWhitelist(uuid, WhitelistManager.WhitelistType.PUBLIC_SPOT)
+                || ConfigManager.isAllowAllPlayersPublicSpot()) {
+            bits |= PUBLIC_SPOT;
+        }
+        if (WhitelistManager.isPlayerInWhitelist(uuid, WhitelistManager.WhitelistType.PUBLIC_SPOT_TELEPORT)
+                || ConfigManager.isAllowAllPlayersPublicSpotTeleport()) {
+            bits |= PUBLIC_SPOT_TELEPORT;
+        }
+        // 管理员权限仅限 OP
+        return bits;
+    }
+
+    /**
+     * 清空所有玩家的 OP 判断缓存（OP 列表变化时调用）。
+     */
+    public static void invalidateAdminCache() {
+        adminCache.clear();
+    }
+
+    /**
+     * 清除指定玩家的 OP 判断缓存。
+     */
+    public static void invalidateAdminCache(UUID uuid) {
+        adminCache.remove(uuid);
+    }
+
+    /**
+     * 检查玩家是否具有指定权限（读取权限位掩码快照）。
      *
      * @param player     玩家
      * @param permission 权限标识符
@@ -49,25 +226,14 @@ public final class PermissionManager {
             return false;
         }
 
-        // 管理员 (OP) 拥有所有权限
-        if (hasAdminPermission(player)) {
-            return true;
-        }
-
-        // 根据权限类型进行细粒度检查（白名单优先于全局配置）
-        return switch (permission) {
-            case PERMISSION_TELEPORT ->
-                WhitelistManager.isPlayerInWhitelist(player.getUuid(), WhitelistManager.WhitelistType.TELEPORT)
-                || ConfigManager.isAllowAllPlayersTeleport();
-            case PERMISSION_PUBLIC_SPOT ->
-                WhitelistManager.isPlayerInWhitelist(player.getUuid(), WhitelistManager.WhitelistType.PUBLIC_SPOT)
-                || ConfigManager.isAllowAllPlayersPublicSpot();
-            case PERMISSION_PUBLIC_SPOT_TELEPORT ->
-                WhitelistManager.isPlayerInWhitelist(player.getUuid(), WhitelistManager.WhitelistType.PUBLIC_SPOT_TELEPORT)
-                || ConfigManager.isAllowAllPlayersPublicSpotTeleport();
-            case PERMISSION_ADMIN -> false; // 管理员权限仅限 OP
-            default -> false;
+        int bit = switch (permission) {
+            case PERMISSION_TELEPORT -> TELEPORT;
+            case PERMISSION_PUBLIC_SPOT -> PUBLIC_SPOT;
+            case PERMISSION_PUBLIC_SPOT_TELEPORT -> PUBLIC_SPOT_TELEPORT;
+            case PERMISSION_ADMIN -> ADMIN;
+            default -> 0;
         };
+        return (getPermissionBits(player) & bit) != 0;
     }
 
     /**
@@ -102,20 +268,29 @@ public final class PermissionManager {
         if (player == null) {
             return false;
         }
+        UUID playerUuid = player.getUuid();
+        long now = System.nanoTime();
+        AdminCacheEntry cached = adminCache.get(playerUuid);
+        if (cached != null && now - cached.expiresAtNanos() < 0) {
+            return cached.admin();
+        }
+
         MinecraftServer server = player.getEntityWorld().getServer();
         if (server == null) {
             return false;
         }
-        // 检查玩家的 UUID 是否在 OP 列表中
-        String[] opNames = server.getPlayerManager().getOpList().getNames();
-        UUID playerUuid = player.getUuid();
-        for (String opName : opNames) {
-            // OP 列表存储的是玩家名称，需要比较
-            if (opName.equalsIgnoreCase(player.getName().getString())) {
-                return true;
-            }
-        }
-        return false;
+        boolean admin = lookupOpList(server, player);
+        adminCache.put(playerUuid, new AdminCacheEntry(admin,
+                now + ConfigManager.getAdminCacheTtlNanos()));
+        return admin;
+    }
+
+    /**
+     * 查询 OP 列表（缓存未命中时调用）。
+     * OP 列表以玩家 UUID 为键，查询为一次哈希查找，无需遍历名称。
+     */
+    private static boolean lookupOpList(MinecraftServer server, ServerPlayerEntity player) {
+        return server.getPlayerManager().isOperator(player.getPlayerConfigEntry());
     }
 
     /**
@@ -137,7 +312,7 @@ public final class PermissionManager {
      * @return true 如果可以传送
      */
     public static boolean canTeleport(ServerPlayerEntity player) {
-        return hasPermission(player, PERMISSION_TELEPORT);
+        return (getPermissionBits(player) & TELEPORT) != 0;
     }
 
     /**
@@ -147,7 +322,7 @@ public final class PermissionManager {
      * @return true 如果可以管理公开 Spot
      */
     public static boolean canManagePublicSpots(ServerPlayerEntity player) {
-        return hasPermission(player, PERMISSION_PUBLIC_SPOT);
+        return (getPermissionBits(player) & PUBLIC_SPOT) != 0;
     }
 
     /**
@@ -157,7 +332,7 @@ public final class PermissionManager {
      * @return true 如果可以传送到公开 Spot
      */
     public static boolean canTeleportToPublicSpot(ServerPlayerEntity player) {
-        return hasPermission(player, PERMISSION_PUBLIC_SPOT_TELEPORT);
+        return (getPermissionBits(player) & PUBLIC_SPOT_TELEPORT) != 0;
     }
 
     /**
@@ -167,6 +342,6 @@ public final class PermissionManager {
      * @return true 如果可以使用管理员功能
      */
     public static boolean canUseAdminFeatures(ServerPlayerEntity player) {
-        return hasPermission(player, PERMISSION_ADMIN);
+        return (getPermissionBits(player) & ADMIN) != 0;
     }
 }
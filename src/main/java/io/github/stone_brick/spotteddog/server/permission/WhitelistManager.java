@@ -2,9 +2,12 @@ package io.github.stone_brick.spotteddog.server.permission;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import com.google.gson.annotations.SerializedName;
+import io.github.stone_brick.spotteddog.Spotteddog;
 import io.github.stone_brick.spotteddog.event.AdminLogEvent;
 import io.github.stone_brick.spotteddog.event.AdminLogEvents;
+import io.github.stone_brick.spotteddog.storage.AtomicFileStorage;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
@@ -13,12 +16,24 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
  * 白名单管理器。
  * 管理三种功能的白名单：teleport、public_spot、public_spot_teleport
+ *
+ * <p>磁盘格式仍为 JSON 列表；内存中每种类型另外维护一份不可变的 UUID 哈希集合，
+ * 通过 volatile 引用发布。成员检查无锁、O(1)，与白名单大小无关；
+ * 修改时在锁内重建集合并整体替换。</p>
+ *
+ * <p>白名单文件被外部修改后由 {@code ConfigFileWatcher} 调用 {@link #reloadWhitelist(WhitelistType)}，
+ * 解析成功才替换，成员检查始终只读内存中的集合，不会在热路径上读取文件。</p>
  */
 public final class WhitelistManager {
 
@@ -76,6 +91,12 @@ public final class WhitelistManager {
     private static WhitelistData publicSpotWhitelist;
     private static WhitelistData publicSpotTeleportWhitelist;
 
+    // 各类型白名单的 UUID 集合快照（不可变，整体替换）
+    private static volatile Map<WhitelistType, Set<UUID>> memberSets = Map.of();
+
+    // 各类型白名单最近一次加载或保存的文件内容（用于忽略未变化的文件事件）
+    private static final Map<WhitelistType, String> loadedJson = new EnumMap<>(WhitelistType.class);
+
     private WhitelistManager() {
         // 工具类，禁止实例化
     }
@@ -97,30 +118,47 @@ public final class WhitelistManager {
                 case PUBLIC_SPOT -> publicSpotWhitelist = data;
                 case PUBLIC_SPOT_TELEPORT -> publicSpotTeleportWhitelist = data;
             }
+            publishMemberSet(type, data);
         }
         return data;
     }
 
+    /**
+     * 根据白名单数据重建 UUID 集合并发布新快照。调用方需持有类锁。
+     */
+    private static void publishMemberSet(WhitelistType type, WhitelistData data) {
+        Set<UUID> members = new HashSet<>();
+        if (data.players != null) {
+            for (WhitelistEntry entry : data.players) {
+                if (entry.uuid == null) {
+                    continue;
+                }
+                try {
+                    members.add(UUID.fromString(entry.uuid));
+                } catch (IllegalArgumentException e) {
+                    // 跳过格式错误的 UUID
+                }
+            }
+        }
+        Map<WhitelistType, Set<UUID>> next = new EnumMap<>(WhitelistType.class);
+        next.putAll(memberSets);
+        next.put(type, Set.copyOf(members));
+        memberSets = Collections.unmodifiableMap(next);
+    }
+
     /**
      * 加载白名单数据。
      */
     private static WhitelistData loadWhitelist(WhitelistType type) {
         Path file = CONFIG_DIR.resolve(type.getFileName());
 
-        try {
-            if (!Files.exists(CONFIG_DIR)) {
-                Files.createDirectories(CONFIG_DIR);
-            }
-
-            if (Files.exists(file)) {
-                String json = Files.readString(file);
-                WhitelistData data = GSON.fromJson(json, WhitelistData.class);
-                if (data != null) {
-                    return data;
-                }
-            }
-        } catch (IOException e) {
-            // 忽略加载失败
+        // 白名单文件损坏时自动回退到 .bak
+        WhitelistData data = AtomicFileStorage.read(file, json -> {
+            loadedJson.put(type, json);
+            return GSON.fromJson(json, WhitelistData.class);
+        });
+        if (data != null) {
+            return data;
         }
 
         // 返回默认空配置
@@ -134,11 +172,9 @@ public final class WhitelistManager {
         Path file = CONFIG_DIR.resolve(type.getFileName());
 
         try {
-            if (!Files.exists(CONFIG_DIR)) {
-                Files.createDirectories(CONFIG_DIR);
-            }
             String json = GSON.toJson(data);
-            Files.writeString(file, json);
+            AtomicFileStorage.writeString(file, json);
+            loadedJson.put(type, json);
 
             // 更新缓存
             switch (type) {
@@ -147,8 +183,61 @@ public final class WhitelistManager {
                 case PUBLIC_SPOT_TELEPORT -> publicSpotTeleportWhitelist = data;
             }
         } catch (IOException e) {
-            // 忽略保存失败
+            Spotteddog.LOGGER.warn("Failed to save {} whitelist to {}", type, file, e);
         }
+        // 内存中的列表已修改，集合快照与其保持一致
+        publishMemberSet(type, data);
+    }
+
+    /**
+     * 重新读取白名单文件（文件变化时调用）。
+     * 只读取主文件且不回退到 .bak；解析失败时保留当前白名单。
+     *
+     * @return true 如果白名单已替换
+     */
+    public static boolean reloadWhitelist(WhitelistType type) {
+        synchronized (WhitelistManager.class) {
+            String json;
+            try {
+                json = Files.readString(getWhitelistPath(type));
+            } catch (IOException e) {
+                // 文件正在替换或已删除，保留当前白名单
+                return false;
+            }
+            if (json.equals(loadedJson.get(type))) {
+                // 内容未变化（例如自身写入触发的事件）
+                return false;
+            }
+
+            WhitelistData data;
+            try {
+                data = GSON.fromJson(json, WhitelistData.class);
+            } catch (JsonParseException e) {
+                // 编辑中途的不完整内容，等待下一次修改
+                return false;
+            }
+            if (data == null) {
+                return false;
+            }
+
+            loadedJson.put(type, json);
+            switch (type) {
+                case TELEPORT -> teleportWhitelist = data;
+                case PUBLIC_SPOT -> publicSpotWhitelist = data;
+                case PUBLIC_SPOT_TELEPORT -> publicSpotTeleportWhitelist = data;
+            }
+            publishMemberSet(type, data);
+        }
+        // 在锁外重新计算在线玩家权限
+        PermissionManager.refreshAllPermissions();
+        return true;
+    }
+
+    /**
+     * 获取白名单文件路径。
+     */
+    public static Path getWhitelistPath(WhitelistType type) {
+        return CONFIG_DIR.resolve(type.getFileName());
     }
 
     /**
@@ -159,18 +248,13 @@ public final class WhitelistManager {
      * @return true 如果在白名单中
      */
     public static boolean isPlayerInWhitelist(UUID playerUuid, WhitelistType type) {
-        WhitelistData data = getWhitelist(type);
-        if (data.players == null) {
-            return false;
+        Set<UUID> members = memberSets.get(type);
+        if (members == null) {
+            // 首次访问时加载，加载后发布集合快照
+            getWhitelist(type);
+            members = memberSets.get(type);
         }
-
-        String uuidString = playerUuid.toString().toLowerCase();
-        for (WhitelistEntry entry : data.players) {
-            if (entry.uuid != null && entry.uuid.equalsIgnoreCase(uuidString)) {
-                return true;
-            }
-        }
-        return false;
+        return members != null && members.contains(playerUuid);
     }
 
     /**
@@ -192,18 +276,21 @@ public final class WhitelistManager {
         String uuidString = playerUuid.toString().toLowerCase();
 
         // 检查是否已存在
-        for (WhitelistEntry entry : data.players) {
-            if (entry.uuid != null && entry.uuid.equalsIgnoreCase(uuidString)) {
-                // 更新玩家名称
-                entry.name = playerName;
-                saveWhitelist(type, data);
-                return false;
+        if (isPlayerInWhitelist(playerUuid, type)) {
+            for (WhitelistEntry entry : data.players) {
+                if (entry.uuid != null && entry.uuid.equalsIgnoreCase(uuidString)) {
+                    // 更新玩家名称
+                    entry.name = playerName;
+                    saveWhitelist(type, data);
+                    return false;
+                }
             }
         }
 
         // 添加新条目
         data.players.add(new WhitelistEntry(uuidString, playerName));
         saveWhitelist(type, data);
+        PermissionManager.refreshPermissions(playerUuid);
 
         // 触发事件
         if (operator != null) {
@@ -224,7 +311,7 @@ public final class WhitelistManager {
      */
     public static synchronized boolean removePlayerFromWhitelist(ServerPlayerEntity operator, UUID playerUuid, String playerName, WhitelistType type) {
         WhitelistData data = getWhitelist(type);
-        if (data.players == null) {
+        if (data.players == null || !isPlayerInWhitelist(playerUuid, type)) {
             return false;
         }
 
@@ -234,6 +321,7 @@ public final class WhitelistManager {
 
         if (removed) {
             saveWhitelist(type, data);
+            PermissionManager.refreshPermissions(playerUuid);
 
             // 触发事件
             if (operator != null) {
@@ -286,6 +374,6 @@ public final class WhitelistManager {
                 spotName,
                 whitelistType
         );
-        AdminLogEvents.ADMIN_OPERATION.invoker().onAdminOperation(event);
+        AdminLogEvents.post(event);
     }
 }
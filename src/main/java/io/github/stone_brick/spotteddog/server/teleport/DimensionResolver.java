@@ -0,0 +1,100 @@
+package io.github.stone_brick.spotteddog.server.teleport;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.world.World;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 维度解析器。
+ * 缓存维度字符串到 {@link RegistryKey} 的解析结果，以及 {@link RegistryKey} 到 {@link ServerWorld} 的查找结果，
+ * 传送时不再重复解析标识符和查找世界。
+ *
+ * <p>世界缓存在世界加载/卸载（{@link ServerWorldEvents}）和服务端停止时更新。
+ * 维度字符串可能来自客户端，解析缓存的条目数有上限，超出后只解析不缓存。</p>
+ */
+public final class DimensionResolver {
+
+    // 解析缓存的最大条目数
+    private static final int MAX_CACHED_KEYS = 256;
+
+    private static final Map<String, RegistryKey<World>> keys = new ConcurrentHashMap<>();
+    private static final Map<RegistryKey<World>, ServerWorld> worlds = new ConcurrentHashMap<>();
+
+    private DimensionResolver() {
+        // 工具类，禁止实例化
+    }
+
+    /**
+     * 注册世界加载/卸载监听。
+     */
+    public static void register() {
+        ServerWorldEvents.LOAD.register((server, world) -> worlds.put(world.getRegistryKey(), world));
+        ServerWorldEvents.UNLOAD.register((server, world) -> worlds.remove(world.getRegistryKey(), world));
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> worlds.clear());
+    }
+
+    /**
+     * 将维度字符串解析为 RegistryKey。
+     * 支持完整标识符和 overworld/nether/end 等简写。
+     *
+     * @param dimension 维度字符串
+     * @return 维度 RegistryKey
+     */
+    public static RegistryKey<World> resolve(String dimension) {
+        RegistryKey<World> key = keys.get(dimension);
+        if (key != null) {
+            return key;
+        }
+        key = parse(dimension);
+        if (keys.size() < MAX_CACHED_KEYS) {
+            keys.put(dimension, key);
+        }
+        return key;
+    }
+
+    private static RegistryKey<World> parse(String dimension) {
+        return switch (dimension) {
+            case "minecraft:overworld", "overworld" -> World.OVERWORLD;
+            case "minecraft:the_nether", "nether" -> World.NETHER;
+            case "minecraft:the_end", "the_end", "end" -> World.END;
+            // 使用 RegistryKeys.WORLD 作为 registry，维度 ID 作为值
+            default -> RegistryKey.of(RegistryKeys.WORLD, Identifier.of(dimension));
+        };
+    }
+
+    /**
+     * 获取维度对应的世界。
+     *
+     * @param server   服务端
+     * @param worldKey 维度 RegistryKey
+     * @return 世界，不存在时返回 null
+     */
+    public static ServerWorld getWorld(MinecraftServer server, RegistryKey<World> worldKey) {
+        ServerWorld world = worlds.get(worldKey);
+        if (world != null && world.getServer() == server) {
+            return world;
+        }
+        world = server.getWorld(worldKey);
+        if (world == null) {
+            // 如果世界还未被访问过，从 server.getWorlds() 中查找
+            for (ServerWorld candidate : server.getWorlds()) {
+                if (candidate.getRegistryKey().equals(worldKey)) {
+                    world = candidate;
+                    break;
+                }
+            }
+        }
+        if (world != null) {
+            worlds.put(worldKey, world);
+        }
+        return world;
+    }
+}
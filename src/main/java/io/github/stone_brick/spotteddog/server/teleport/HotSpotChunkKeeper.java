@@ -0,0 +1,129 @@
+package io.github.stone_brick.spotteddog.server.teleport;
+
+import io.github.stone_brick.spotteddog.server.config.ConfigManager;
+import io.github.stone_brick.spotteddog.server.data.PublicSpot;
+import io.github.stone_brick.spotteddog.server.data.PublicSpotManager;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ChunkTicketType;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 为热门公开 Spot 保持区块加载。
+ *
+ * <p>每隔 {@link #REFRESH_INTERVAL_TICKS} tick 从 {@link PublicSpotManager} 取出热度最高的
+ * {@code hot_spot_ticket_count} 个 Spot，在 {@code hot_spot_chunk_budget} 个区块的预算内
+ * 为其目标区块（及周围一圈）续期 {@link ChunkTicketType#PORTAL} 票据，传送到这些 Spot 时无需重新加载区块。</p>
+ *
+ * <p>票据在刷新间隔内不会过期；Spot 热度衰减后不再续期，票据随之自然过期，区块被正常卸载。
+ * 不使用 {@code FORCED} 票据，避免与 {@code /forceload} 冲突，也不会在服务端重启后残留。</p>
+ */
+public final class HotSpotChunkKeeper {
+
+    // 刷新间隔（tick），必须小于 PORTAL 票据的过期时间（300 tick）
+    private static final int REFRESH_INTERVAL_TICKS = 100;
+    // 票据半径（区块），与传送前预加载的范围一致
+    private static final int TICKET_RADIUS = 1;
+    // 至少有这么多（衰减后的）传送次数才视为热门
+    private static final double MIN_HOT_SCORE = 2.0;
+
+    private record ChunkKey(RegistryKey<World> world, long chunk) {}
+
+    private static int ticksSinceRefresh;
+    // 当前保持加载的 Spot 和区块（用于监控）
+    private static volatile List<String> keptSpotIds = List.of();
+    private static volatile int keptChunkCount;
+
+    private HotSpotChunkKeeper() {
+        // 工具类，禁止实例化
+    }
+
+    /**
+     * 注册定时刷新。
+     */
+    public static void register() {
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            if (++ticksSinceRefresh >= REFRESH_INTERVAL_TICKS) {
+                ticksSinceRefresh = 0;
+                refresh(server);
+            }
+        });
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            ticksSinceRefresh = 0;
+            keptSpotIds = List.of();
+            keptChunkCount = 0;
+        });
+    }
+
+    /**
+     * 按当前热度为热门 Spot 续期票据。
+     */
+    private static void refresh(MinecraftServer server) {
+        int limit = ConfigManager.getHotSpotTicketCount();
+        int budget = ConfigManager.getHotSpotChunkBudget();
+        if (limit <= 0 || budget <= 0) {
+            keptSpotIds = List.of();
+            keptChunkCount = 0;
+            return;
+        }
+
+        List<PublicSpotManager.HotSpot> hot = PublicSpotManager.getInstance().getHottestSpots(limit, MIN_HOT_SCORE);
+        Set<ChunkKey> chunks = new HashSet<>();
+        List<String> kept = new ArrayList<>();
+
+        for (PublicSpotManager.HotSpot hotSpot : hot) {
+            PublicSpot spot = hotSpot.spot();
+            ServerWorld world = DimensionResolver.getWorld(server, spot.getWorldKey());
+            if (world == null) {
+                continue;
+            }
+            ChunkPos center = new ChunkPos((int) Math.floor(spot.getX()) >> 4, (int) Math.floor(spot.getZ()) >> 4);
+
+            // 相邻的 Spot 共用区块，只按新增的区块计入预算
+            List<ChunkKey> added = new ArrayList<>();
+            for (int dx = -TICKET_RADIUS; dx <= TICKET_RADIUS; dx++) {
+                for (int dz = -TICKET_RADIUS; dz <= TICKET_RADIUS; dz++) {
+                    ChunkKey key = new ChunkKey(world.getRegistryKey(), ChunkPos.toLong(center.x + dx, center.z + dz));
+                    if (!chunks.contains(key)) {
+                        added.add(key);
+                    }
+                }
+            }
+            if (chunks.size() + added.size() > budget) {
+                continue;
+            }
+            chunks.addAll(added);
+            kept.add(spot.getId());
+            // 已存在的相同票据会被续期
+            world.getChunkManager().addTicket(ChunkTicketType.PORTAL, center, TICKET_RADIUS);
+        }
+
+        keptSpotIds = List.copyOf(kept);
+        keptChunkCount = chunks.size();
+    }
+
+    // ===== 监控指标 =====
+
+    /**
+     * 获取当前保持区块加载的 Spot ID（用于监控）。
+     */
+    public static List<String> getKeptSpotIds() {
+        return keptSpotIds;
+    }
+
+    /**
+     * 获取当前保持加载的区块数（用于监控）。
+     */
+    public static int getKeptChunkCount() {
+        return keptChunkCount;
+    }
+}
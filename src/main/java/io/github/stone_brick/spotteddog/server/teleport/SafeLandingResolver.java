@@ -0,0 +1,277 @@
+package io.github.stone_brick.spotteddog.server.teleport;
+
+import io.github.stone_brick.spotteddog.server.config.ConfigManager;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.tag.BlockTags;
+import net.minecraft.registry.tag.FluidTags;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 安全落点查找。
+ *
+ * <p>传送前检查目标位置：脚部和头部不会窒息、没有岩浆和火、脚下有可站立的方块（不会落入虚空）。
+ * 不安全时以目标方块为中心，在周围一圈和上下 {@code safe_landing_vertical_range} 格内按距离由近到远
+ * 寻找可站立的位置；找不到时保持原坐标。只读取已加载的区块，目标区块未加载时不做修正，
+ * 查找过程不会触发区块加载或生成。</p>
+ *
+ * <p>查找结果按（维度, 目标方块）缓存，重复传送到同一位置（如公开 Spot）时无需重新搜索。
+ * 命中缓存时重新检查：原坐标安全的条目检查原坐标；修正过的条目先检查原坐标是否已经变得安全
+ * （例如挖开了窒息的方块），是则改为使用原坐标，否则检查缓存的落点（三个方块），
+ * 不再安全时重新搜索。区块卸载时清除该区块内的缓存。所有方法只在服务端线程调用。</p>
+ */
+public final class SafeLandingResolver {
+
+    // 水平搜索半径（方块），与传送前预加载的区块范围相比足够小
+    private static final int HORIZONTAL_RADIUS = 1;
+    // 最多缓存的落点数（超出后不再缓存，直到区块卸载释放空间）
+    private static final int MAX_ENTRIES = 4096;
+
+    private record ChunkKey(RegistryKey<World> world, long chunk) {}
+
+    /**
+     * 缓存的落点。
+     *
+     * @param feet     落点脚部方块
+     * @param original 原坐标是否安全（为 true 时直接使用原坐标）
+     */
+    private record Landing(BlockPos feet, boolean original) {}
+
+    private static final Map<ChunkKey, Map<Long, Landing>> memo = new HashMap<>();
+    private static int memoSize;
+
+    // 监控指标
+    private static final AtomicLong hitCount = new AtomicLong();
+    private static final AtomicLong missCount = new AtomicLong();
+    private static final AtomicLong adjustedCount = new AtomicLong();
+    private static final AtomicLong notFoundCount = new AtomicLong();
+
+    private SafeLandingResolver() {
+        // 工具类，禁止实例化
+    }
+
+    /**
+     * 注册区块卸载时的缓存清理。
+     */
+    public static void register() {
+        ServerChunkEvents.CHUNK_UNLOAD.register((world, chunk) -> {
+            Map<Long, Landing> removed = memo.remove(new ChunkKey(world.getRegistryKey(), chunk.getPos().toLong()));
+            if (removed != null) {
+                memoSize -= removed.size();
+            }
+        });
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            memo.clear();
+            memoSize = 0;
+        });
+    }
+
+    /**
+     * 获取安全的落点坐标。
+     *
+     * @param world 目标世界
+     * @param x     目标 X 坐标
+     * @param y     目标 Y 坐标
+     * @param z     目标 Z 坐标
+     * @return 安全的落点；原坐标安全、区块未加载或附近没有安全位置时返回原坐标
+     */
+    public static Vec3d resolve(ServerWorld world, double x, double y, double z) {
+        Vec3d requested = new Vec3d(x, y, z);
+        if (!ConfigManager.isSafeLandingEnabled()) {
+            return requested;
+        }
+        BlockPos origin = BlockPos.ofFloored(x, y, z);
+        if (getLoadedState(world, origin) == null) {
+            return requested;
+        }
+
+        ChunkKey chunkKey = new ChunkKey(world.getRegistryKey(), ChunkPos.toLong(origin));
+        Map<Long, Landing> chunkMemo = memo.get(chunkKey);
+        Landing cached = chunkMemo != null ? chunkMemo.get(origin.asLong()) : null;
+        Boolean originSafe = null; // 命中缓存时已检查过的原坐标结果
+        if (cached != null) {
+            // 原坐标优先：方块被修改使原坐标变得安全时不再使用修正后的落点
+            originSafe = isSafeAsIs(world, origin);
+            if (cached.original() ? originSafe : !originSafe && isSafeStanding(world, cached.feet())) {
+                hitCount.incrementAndGet();
+                return toPosition(cached, origin, requested);
+            }
+            // 方块已被修改，重新检查或搜索
+            chunkMemo.remove(origin.asLong());
+            memoSize--;
+        }
+        missCount.incrementAndGet();
+
+        Landing landing;
+        if (originSafe != null ? originSafe : isSafeAsIs(world, origin)) {
+            landing = new Landing(origin, true);
+        } else {
+            BlockPos feet = search(world, origin);
+            if (feet == null) {
+                notFoundCount.incrementAndGet();
+                return requested;
+            }
+            adjustedCount.incrementAndGet();
+            landing = new Landing(feet, false);
+        }
+
+        if (memoSize < MAX_ENTRIES) {
+            memo.computeIfAbsent(chunkKey, key -> new HashMap<>()).put(origin.asLong(), landing);
+            memoSize++;
+        }
+        return toPosition(landing, origin, requested);
+    }
+
+    private static Vec3d toPosition(Landing landing, BlockPos origin, Vec3d requested) {
+        if (landing.original()) {
+            return requested;
+        }
+        BlockPos feet = landing.feet();
+        if (feet.getX() == origin.getX() && feet.getZ() == origin.getZ()) {
+            // 同一列只调整高度，保留原水平坐标
+            return new Vec3d(requested.getX(), feet.getY(), requested.getZ());
+        }
+        return new Vec3d(feet.getX() + 0.5, feet.getY(), feet.getZ() + 0.5);
+    }
+
+    /**
+     * 按高度差由小到大、同一高度先中心后四周的顺序查找可站立的位置。
+     */
+    private static BlockPos search(ServerWorld world, BlockPos origin) {
+        int range = ConfigManager.getSafeLandingVerticalRange();
+        int minY = world.getBottomY() + 1;
+        int maxY = world.getTopYInclusive() - 1;
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+
+        for (int i = 0; i <= range * 2; i++) {
+            // 0, +1, -1, +2, -2, ...
+            int dy = (i + 1) / 2 * (i % 2 == 1 ? 1 : -1);
+            int y = origin.getY() + dy;
+            if (y < minY || y > maxY) {
+                continue;
+            }
+            if (isSafeStanding(world, pos.set(origin.getX(), y, origin.getZ()))) {
+                return pos.toImmutable();
+            }
+            for (int dx = -HORIZONTAL_RADIUS; dx <= HORIZONTAL_RADIUS; dx++) {
+                for (int dz = -HORIZONTAL_RADIUS; dz <= HORIZONTAL_RADIUS; dz++) {
+                    if ((dx != 0 || dz != 0)
+                            && isSafeStanding(world, pos.set(origin.getX() + dx, y, origin.getZ() + dz))) {
+                        return pos.toImmutable();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 原坐标是否可以直接使用。
+     * 比 {@link #isSafeStanding} 宽松：脚部可以是台阶、雪层等不会窒息的方块（玩家站在其上）。
+     */
+    private static boolean isSafeAsIs(ServerWorld world, BlockPos feet) {
+        if (feet.getY() <= world.getBottomY()) {
+            return false;
+        }
+        BlockState feetState = getLoadedState(world, feet);
+        BlockState headState = getLoadedState(world, feet.up());
+        BlockState groundState = getLoadedState(world, feet.down());
+        if (feetState == null || headState == null || groundState == null) {
+            return false;
+        }
+        if (feetState.shouldSuffocate(world, feet) || headState.shouldSuffocate(world, feet.up())
+                || isHazard(feetState) || isHazard(headState) || isHazardousGround(groundState)) {
+            return false;
+        }
+        return !feetState.getCollisionShape(world, feet).isEmpty()
+                || !groundState.getCollisionShape(world, feet.down()).isEmpty();
+    }
+
+    /**
+     * 该位置是否可以站立：脚部和头部没有碰撞箱和危险方块，脚下是完整的顶面。
+     */
+    private static boolean isSafeStanding(ServerWorld world, BlockPos feet) {
+        if (feet.getY() <= world.getBottomY()) {
+            return false;
+        }
+        BlockState feetState = getLoadedState(world, feet);
+        BlockState headState = getLoadedState(world, feet.up());
+        BlockState groundState = getLoadedState(world, feet.down());
+        if (feetState == null || headState == null || groundState == null) {
+            return false;
+        }
+        return feetState.getCollisionShape(world, feet).isEmpty() && !isHazard(feetState)
+                && headState.getCollisionShape(world, feet.up()).isEmpty() && !isHazard(headState)
+                && groundState.isSideSolidFullSquare(world, feet.down(), Direction.UP)
+                && !isHazardousGround(groundState);
+    }
+
+    private static boolean isHazard(BlockState state) {
+        return state.getFluidState().isIn(FluidTags.LAVA) || state.isIn(BlockTags.FIRE);
+    }
+
+    private static boolean isHazardousGround(BlockState state) {
+        return isHazard(state) || state.isOf(Blocks.MAGMA_BLOCK) || state.isIn(BlockTags.CAMPFIRES);
+    }
+
+    /**
+     * 读取已加载区块中的方块，区块未加载时返回 null（不会触发加载）。
+     */
+    private static BlockState getLoadedState(ServerWorld world, BlockPos pos) {
+        if (world.isOutOfHeightLimit(pos)) {
+            return Blocks.AIR.getDefaultState();
+        }
+        WorldChunk chunk = world.getChunkManager().getWorldChunk(pos.getX() >> 4, pos.getZ() >> 4);
+        return chunk != null ? chunk.getBlockState(pos) : null;
+    }
+
+    // ===== 监控指标 =====
+
+    /**
+     * 获取当前缓存的落点数（用于监控）。
+     */
+    public static int getCachedCount() {
+        return memoSize;
+    }
+
+    /**
+     * 获取缓存命中次数（用于监控）。
+     */
+    public static long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * 获取缓存未命中（需要检查或搜索）的次数（用于监控）。
+     */
+    public static long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * 获取落点被修正的次数（用于监控）。
+     */
+    public static long getAdjustedCount() {
+        return adjustedCount.get();
+    }
+
+    /**
+     * 获取附近没有安全位置、保持原坐标的次数（用于监控）。
+     */
+    public static long getNotFoundCount() {
+        return notFoundCount.get();
+    }
+}
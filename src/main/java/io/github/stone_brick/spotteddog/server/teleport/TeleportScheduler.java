@@ -0,0 +1,337 @@
+package io.github.stone_brick.spotteddog.server.teleport;
+
+import io.github.stone_brick.spotteddog.server.config.ConfigManager;
+import io.github.stone_brick.spotteddog.server.config.CooldownManager;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ChunkTicketType;
+import net.minecraft.server.world.ServerChunkManager;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 传送调度器：传送前预加载目标区块，并在每个 tick 结束时按预算执行传送。
+ *
+ * <p>目标区块及其周围一圈区块未加载时，为目标区块添加 {@link ChunkTicketType#PORTAL}
+ * 票据，由区块系统异步加载，之后每个 tick 检查一次，全部加载完成后才进入执行队列，
+ * 服务端线程不会因同步加载或生成区块而阻塞。等待超过 {@code teleport_prewarm_timeout_ticks}
+ * 仍未加载完成时直接进入执行队列（回退为原来的同步加载）。</p>
+ *
+ * <p>执行队列按进入顺序（FIFO）在 {@code END_SERVER_TICK} 中处理，每个 tick 最多执行
+ * {@code teleport_queue_max_per_tick} 次、耗时不超过 {@code teleport_queue_tick_budget_micros}，
+ * 并受全局传送速率限制；超出预算的传送留到下一个 tick，突发请求被平滑而不是拒绝。
+ * 每个玩家同时只能有一个等待中的传送，因此队列对玩家是公平的；玩家断开连接时取消。
+ * 传送回调抛出异常时调用失败回调，保证玩家总能收到结果。
+ * 所有方法只在服务端线程调用。</p>
+ */
+public final class TeleportScheduler {
+
+    // 预加载半径（区块），目标区块周围一圈
+    private static final int PREWARM_RADIUS = 1;
+
+    // 所有等待中的传送（加载中和已就绪）
+    private static final Map<UUID, PendingTeleport> pending = new HashMap<>();
+    // 等待区块加载的传送
+    private static final Map<UUID, PendingTeleport> loading = new HashMap<>();
+    // 已就绪、等待执行的传送（FIFO）
+    private static final ArrayDeque<PendingTeleport> readyQueue = new ArrayDeque<>();
+
+    // 监控指标
+    private static final AtomicLong immediateCount = new AtomicLong();
+    private static final AtomicLong deferredCount = new AtomicLong();
+    private static final AtomicLong timeoutCount = new AtomicLong();
+    private static final AtomicLong cancelledCount = new AtomicLong();
+    private static final AtomicLong executedCount = new AtomicLong();
+    private static final AtomicLong failedCount = new AtomicLong();
+    private static final AtomicLong budgetExhaustedTicks = new AtomicLong();
+    private static final AtomicLong totalWaitNanos = new AtomicLong();
+    private static volatile long maxWaitNanos;
+
+    private static final class PendingTeleport {
+        private final ServerPlayerEntity player;
+        private final ServerWorld world;
+        private final ChunkPos chunkPos;
+        private final Runnable action;
+        private final Runnable onFailure;
+        private final long requestedAt = System.nanoTime();
+        private int waitedTicks;
+        private boolean cancelled;
+
+        private PendingTeleport(ServerPlayerEntity player, ServerWorld world, ChunkPos chunkPos,
+                                Runnable action, Runnable onFailure) {
+            this.player = player;
+            this.world = world;
+            this.chunkPos = chunkPos;
+            this.action = action;
+            this.onFailure = onFailure;
+        }
+    }
+
+    private TeleportScheduler() {
+        // 工具类，禁止实例化
+    }
+
+    /**
+     * 注册 tick 处理和断开连接清理。
+     */
+    public static void register() {
+        ServerTickEvents.END_SERVER_TICK.register(server -> tick());
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> cancel(handler.getPlayer().getUuid()));
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            pending.clear();
+            loading.clear();
+            readyQueue.clear();
+        });
+    }
+
+    /**
+     * 玩家是否有等待中的传送。
+     */
+    public static boolean isPending(ServerPlayerEntity player) {
+        return pending.containsKey(player.getUuid());
+    }
+
+    /**
+     * 等待中的传送是否已达到队列容量。
+     */
+    public static boolean isQueueFull() {
+        return pending.size() >= ConfigManager.getTeleportQueueCapacity();
+    }
+
+    /**
+     * 调度传送：目标区域已加载时直接进入执行队列，否则先加载区块。
+     * 传送在之后的 {@code END_SERVER_TICK} 中执行（通常就是当前 tick）。
+     *
+     * @param player 玩家
+     * @param world  目标世界
+     * @param x      目标 X 坐标
+     * @param z      目标 Z 坐标
+     * @param action    执行传送的回调（在服务端线程调用）
+     * @param onFailure 传送回调抛出异常时调用，用于通知玩家传送失败
+     * @return true 如果需要等待区块加载，false 如果已直接进入执行队列
+     */
+    public static boolean schedule(ServerPlayerEntity player, ServerWorld world, double x, double z,
+                                   Runnable action, Runnable onFailure) {
+        ChunkPos chunkPos = new ChunkPos((int) Math.floor(x) >> 4, (int) Math.floor(z) >> 4);
+        PendingTeleport teleport = new PendingTeleport(player, world, chunkPos, action, onFailure);
+        pending.put(player.getUuid(), teleport);
+
+        if (!ConfigManager.isTeleportPrewarmEnabled() || isAreaLoaded(world, chunkPos)) {
+            immediateCount.incrementAndGet();
+            readyQueue.add(teleport);
+            return false;
+        }
+
+        // 票据会在一段时间后自动过期，无需手动移除
+        world.getChunkManager().addTicket(ChunkTicketType.PORTAL, chunkPos, PREWARM_RADIUS);
+        loading.put(player.getUuid(), teleport);
+        deferredCount.incrementAndGet();
+        return true;
+    }
+
+    private static void cancel(UUID uuid) {
+        PendingTeleport teleport = pending.remove(uuid);
+        if (teleport != null) {
+            // 执行队列中的条目在出队时跳过
+            teleport.cancelled = true;
+            loading.remove(uuid);
+            cancelledCount.incrementAndGet();
+        }
+    }
+
+    private static void tick() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        advanceLoading();
+        drainReadyQueue();
+    }
+
+    /**
+     * 把区块已加载（或等待超时）的传送移入执行队列。
+     */
+    private static void advanceLoading() {
+        if (loading.isEmpty()) {
+            return;
+        }
+        int timeoutTicks = ConfigManager.getTeleportPrewarmTimeoutTicks();
+        Iterator<PendingTeleport> iterator = loading.values().iterator();
+        while (iterator.hasNext()) {
+            PendingTeleport teleport = iterator.next();
+            teleport.waitedTicks++;
+            boolean loaded = isAreaLoaded(teleport.world, teleport.chunkPos);
+            if (loaded || teleport.waitedTicks >= timeoutTicks) {
+                if (!loaded) {
+                    timeoutCount.incrementAndGet();
+                }
+                iterator.remove();
+                readyQueue.add(teleport);
+            }
+        }
+    }
+
+    /**
+     * 在本 tick 的次数和时间预算内按顺序执行传送。
+     */
+    private static void drainReadyQueue() {
+        int maxPerTick = ConfigManager.getTeleportQueueMaxPerTick();
+        long budgetNanos = ConfigManager.getTeleportQueueTickBudgetNanos();
+        long start = System.nanoTime();
+        int executed = 0;
+
+        PendingTeleport teleport;
+        while ((teleport = readyQueue.peek()) != null) {
+            if (teleport.cancelled || teleport.player.isDisconnected()) {
+                readyQueue.poll();
+                if (!teleport.cancelled) {
+                    cancel(teleport.player.getUuid());
+                }
+                continue;
+            }
+            if (executed >= maxPerTick || System.nanoTime() - start >= budgetNanos
+                    || !CooldownManager.tryIncrementGlobalCount()) {
+                budgetExhaustedTicks.incrementAndGet();
+                return;
+            }
+            readyQueue.poll();
+            pending.remove(teleport.player.getUuid());
+            recordWait(System.nanoTime() - teleport.requestedAt);
+            executed++;
+            try {
+                teleport.action.run();
+            } catch (RuntimeException e) {
+                // 单个传送失败不影响其他玩家，但需要通知该玩家（已移出等待列表，不会再有其他结果）
+                failedCount.incrementAndGet();
+                notifyFailure(teleport);
+            }
+        }
+    }
+
+    private static void notifyFailure(PendingTeleport teleport) {
+        try {
+            teleport.onFailure.run();
+        } catch (RuntimeException e) {
+            // 玩家可能已断开连接，忽略
+        }
+    }
+
+    private static void recordWait(long waitNanos) {
+        executedCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        if (waitNanos > maxWaitNanos) {
+            maxWaitNanos = waitNanos;
+        }
+    }
+
+    /**
+     * 目标区块及周围区块是否都已完整加载。
+     */
+    private static boolean isAreaLoaded(ServerWorld world, ChunkPos center) {
+        ServerChunkManager chunkManager = world.getChunkManager();
+        for (int dx = -PREWARM_RADIUS; dx <= PREWARM_RADIUS; dx++) {
+            for (int dz = -PREWARM_RADIUS; dz <= PREWARM_RADIUS; dz++) {
+                if (!chunkManager.isChunkLoaded(center.x + dx, center.z + dz)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // ===== 监控指标 =====
+
+    /**
+     * 获取当前等待中的传送总数（用于监控）。
+     */
+    public static int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 获取执行队列深度（已就绪、等待预算的传送数，用于监控）。
+     */
+    public static int getQueueDepth() {
+        return readyQueue.size();
+    }
+
+    /**
+     * 获取等待区块加载的传送数（用于监控）。
+     */
+    public static int getLoadingCount() {
+        return loading.size();
+    }
+
+    /**
+     * 获取目标区域已加载、直接进入执行队列的传送数（用于监控）。
+     */
+    public static long getImmediateCount() {
+        return immediateCount.get();
+    }
+
+    /**
+     * 获取需要预加载区块的传送数（用于监控）。
+     */
+    public static long getDeferredCount() {
+        return deferredCount.get();
+    }
+
+    /**
+     * 获取预加载超时后回退执行的传送数（用于监控）。
+     */
+    public static long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    /**
+     * 获取因玩家断开连接取消的传送数（用于监控）。
+     */
+    public static long getCancelledCount() {
+        return cancelledCount.get();
+    }
+
+    /**
+     * 获取已执行的传送数（用于监控）。
+     */
+    public static long getExecutedCount() {
+        return executedCount.get();
+    }
+
+    /**
+     * 获取执行时抛出异常而失败的传送数（用于监控）。
+     */
+    public static long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * 获取因预算用尽而把传送留到下一 tick 的次数（用于监控）。
+     */
+    public static long getBudgetExhaustedTicks() {
+        return budgetExhaustedTicks.get();
+    }
+
+    /**
+     * 获取从请求到执行的平均等待时间（毫秒，用于监控）。
+     */
+    public static double getAverageWaitMillis() {
+        long count = executedCount.get();
+        return count == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / count;
+    }
+
+    /**
+     * 获取从请求到执行的最长等待时间（毫秒，用于监控）。
+     */
+    public static long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos);
+    }
+}
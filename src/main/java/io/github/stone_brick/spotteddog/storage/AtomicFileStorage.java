@@ -0,0 +1,199 @@
+package io.github.stone_brick.spotteddog.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 崩溃安全的文件存储工具。
+ * 所有 JSON 数据文件（公开 Spot、传送日志、白名单、配置、玩家 Spot）统一通过此类读写。
+ *
+ * <p>写入流程：</p>
+ * <ol>
+ *   <li>写入同目录下的临时文件 {@code <name>.tmp} 并 fsync</li>
+ *   <li>将现有文件原子重命名为 {@code <name>.bak}（保留上一版本）</li>
+ *   <li>将临时文件原子重命名为目标文件，并 fsync 所在目录</li>
+ * </ol>
+ *
+ * <p>任何时刻崩溃，目标文件或 .bak 文件中至少有一个是完整的。
+ * 读取时若目标文件缺失或无法解析，自动回退到 .bak 文件。</p>
+ */
+public final class AtomicFileStorage {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String BACKUP_SUFFIX = ".bak";
+
+    // 监控指标
+    private static final AtomicLong writeCount = new AtomicLong();
+    private static final AtomicLong writeFailureCount = new AtomicLong();
+    private static final AtomicLong fsyncCount = new AtomicLong();
+    private static final AtomicLong totalWriteNanos = new AtomicLong();
+    private static final AtomicLong maxWriteNanos = new AtomicLong();
+    private static final AtomicLong backupRecoveryCount = new AtomicLong();
+
+    private AtomicFileStorage() {
+        // 工具类，禁止实例化
+    }
+
+    /**
+     * 原子地写入文本文件。
+     *
+     * @param target  目标文件
+     * @param content 文件内容（UTF-8）
+     * @throws IOException 写入失败时抛出，此时目标文件保持原样
+     */
+    public static void writeString(Path target, String content) throws IOException {
+        long start = System.nanoTime();
+        try {
+            Path dir = target.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path temp = siblingWithSuffix(target, TEMP_SUFFIX);
+            Path backup = getBackupPath(target);
+
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+                fsyncCount.incrementAndGet();
+            }
+
+            if (Files.exists(target)) {
+                move(target, backup);
+            }
+            move(temp, target);
+            fsyncDirectory(dir);
+            writeCount.incrementAndGet();
+        } catch (IOException e) {
+            writeFailureCount.incrementAndGet();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            totalWriteNanos.addAndGet(elapsed);
+            maxWriteNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    /**
+     * 读取并解析文件，失败时回退到 .bak 文件。
+     *
+     * @param target 目标文件
+     * @param parser 解析函数，返回 null 或抛出运行时异常均视为文件损坏
+     * @return 解析结果；目标文件和备份文件都不可用时返回 null
+     */
+    public static <T> T read(Path target, Function<String, T> parser) {
+        T result = tryRead(target, parser);
+        if (result != null) {
+            return result;
+        }
+        result = tryRead(getBackupPath(target), parser);
+        if (result != null) {
+            backupRecoveryCount.incrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * 检查目标文件或其备份是否存在。
+     */
+    public static boolean exists(Path target) {
+        return Files.exists(target) || Files.exists(getBackupPath(target));
+    }
+
+    /**
+     * 获取目标文件的备份文件路径。
+     */
+    public static Path getBackupPath(Path target) {
+        return siblingWithSuffix(target, BACKUP_SUFFIX);
+    }
+
+    private static <T> T tryRead(Path file, Function<String, T> parser) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            return parser.apply(Files.readString(file, StandardCharsets.UTF_8));
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Path siblingWithSuffix(Path target, String suffix) {
+        return target.resolveSibling(target.getFileName().toString() + suffix);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * fsync 目录以持久化重命名操作。部分平台（如 Windows）不支持，忽略失败。
+     */
+    private static void fsyncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+            fsyncCount.incrementAndGet();
+        } catch (IOException e) {
+            // 平台不支持目录 fsync
+        }
+    }
+
+    // ===== 监控指标 =====
+
+    /**
+     * 获取成功写入次数（用于监控）。
+     */
+    public static long getWriteCount() {
+        return writeCount.get();
+    }
+
+    /**
+     * 获取写入失败次数（用于监控）。
+     */
+    public static long getWriteFailureCount() {
+        return writeFailureCount.get();
+    }
+
+    /**
+     * 获取 fsync 调用次数（用于监控）。
+     */
+    public static long getFsyncCount() {
+        return fsyncCount.get();
+    }
+
+    /**
+     * 获取平均写入耗时（毫秒，用于监控）。
+     */
+    public static double getAverageWriteMillis() {
+        long count = writeCount.get() + writeFailureCount.get();
+        return count == 0 ? 0.0 : totalWriteNanos.get() / 1_000_000.0 / count;
+    }
+
+    /**
+     * 获取最大写入耗时（毫秒，用于监控）。
+     */
+    public static double getMaxWriteMillis() {
+        return maxWriteNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * 获取从 .bak 文件恢复数据的次数（用于监控）。
+     */
+    public static long getBackupRecoveryCount() {
+        return backupRecoveryCount.get();
+    }
+}
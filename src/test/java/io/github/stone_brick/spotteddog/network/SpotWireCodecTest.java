@@ -0,0 +1,172 @@
+package io.github.stone_brick.spotteddog.network;
+
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.DecoderException;
+import net.minecraft.network.PacketByteBuf;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link SpotWireCodec} 编码/解码往返测试。
+ */
+class SpotWireCodecTest {
+
+    private static PacketByteBuf newBuf() {
+        return new PacketByteBuf(Unpooled.buffer());
+    }
+
+    @Test
+    void headerRoundTripAndVersionCheck() {
+        PacketByteBuf buf = newBuf();
+        SpotWireCodec.writeHeader(buf, SpotWireCodec.FLAG_FIXED_POINT);
+        // 版本号和标记各占一个字节
+        assertEquals(2, buf.readableBytes());
+        assertEquals(SpotWireCodec.FLAG_FIXED_POINT, SpotWireCodec.readHeader(buf));
+
+        PacketByteBuf future = newBuf();
+        future.writeVarInt(SpotWireCodec.FORMAT_VERSION + 1);
+        future.writeByte(0);
+        assertThrows(DecoderException.class, () -> SpotWireCodec.readHeader(future));
+
+        PacketByteBuf zero = newBuf();
+        zero.writeVarInt(0);
+        zero.writeByte(0);
+        assertThrows(DecoderException.class, () -> SpotWireCodec.readHeader(zero));
+    }
+
+    @Test
+    void fixedPointCoordinatesRoundTripExactlyOnGrid() {
+        double[] values = {0, 1, -1, 0.0625, -0.0625, 64.5, -64, 319.9375, 1000.5, -2048.25,
+                29_999_984, -29_999_984};
+        for (double value : values) {
+            PacketByteBuf buf = newBuf();
+            SpotWireCodec.writeCoordinate(buf, value, SpotWireCodec.FLAG_FIXED_POINT);
+            assertEquals(value, SpotWireCodec.readCoordinate(buf, SpotWireCodec.FLAG_FIXED_POINT), 0.0);
+            assertEquals(0, buf.readableBytes());
+        }
+    }
+
+    @Test
+    void fixedPointCoordinatesRoundToSixteenthBlock() {
+        double[] values = {123.456, -0.01, -987.654321, 12_345.678};
+        double tolerance = 0.5 / SpotWireCodec.FIXED_POINT_SCALE;
+        for (double value : values) {
+            PacketByteBuf buf = newBuf();
+            SpotWireCodec.writeCoordinate(buf, value, SpotWireCodec.FLAG_FIXED_POINT);
+            assertEquals(value, SpotWireCodec.readCoordinate(buf, SpotWireCodec.FLAG_FIXED_POINT), tolerance);
+        }
+    }
+
+    @Test
+    void fixedPointUsesZigZagVarLong() {
+        // ZigZag 使小的负数同样只占很少的字节
+        assertEquals(1, encodedCoordinateSize(0));
+        assertEquals(1, encodedCoordinateSize(-1));
+        assertEquals(1, encodedCoordinateSize(3.9375));
+        assertEquals(1, encodedCoordinateSize(-4));
+        assertEquals(2, encodedCoordinateSize(64));
+        assertEquals(2, encodedCoordinateSize(-320));
+        assertEquals(3, encodedCoordinateSize(5000.5));
+        assertEquals(3, encodedCoordinateSize(-5000.5));
+        assertEquals(5, encodedCoordinateSize(29_999_984));
+    }
+
+    private static int encodedCoordinateSize(double value) {
+        PacketByteBuf buf = newBuf();
+        SpotWireCodec.writeCoordinate(buf, value, SpotWireCodec.FLAG_FIXED_POINT);
+        return buf.readableBytes();
+    }
+
+    @Test
+    void doubleCoordinatesAreExact() {
+        double[] values = {0, -0.0, 123.456789012345, -29_999_999.999, Double.MIN_VALUE};
+        for (double value : values) {
+            PacketByteBuf buf = newBuf();
+            SpotWireCodec.writeCoordinate(buf, value, 0);
+            assertEquals(8, buf.readableBytes());
+            assertEquals(Double.doubleToLongBits(value), Double.doubleToLongBits(SpotWireCodec.readCoordinate(buf, 0)));
+        }
+    }
+
+    @Test
+    void knownDimensionsTakeOneByte() {
+        for (String dimension : List.of("minecraft:overworld", "minecraft:the_nether", "minecraft:the_end")) {
+            PacketByteBuf buf = newBuf();
+            SpotWireCodec.writeDimension(buf, dimension);
+            assertEquals(1, buf.readableBytes());
+            assertEquals(dimension, SpotWireCodec.readDimension(buf));
+        }
+
+        PacketByteBuf modded = newBuf();
+        SpotWireCodec.writeDimension(modded, "examplemod:sky_islands");
+        assertEquals("examplemod:sky_islands", SpotWireCodec.readDimension(modded));
+        assertEquals(0, modded.readableBytes());
+
+        PacketByteBuf invalid = newBuf();
+        invalid.writeVarInt(4);
+        assertThrows(DecoderException.class, () -> SpotWireCodec.readDimension(invalid));
+    }
+
+    @Test
+    void teleportTypeRoundTripsAsOrdinal() {
+        for (TeleportType type : TeleportType.values()) {
+            PacketByteBuf buf = newBuf();
+            SpotWireCodec.writeTeleportType(buf, type.asString());
+            assertEquals(1, buf.readableBytes());
+            assertEquals(type.asString(), SpotWireCodec.readTeleportType(buf));
+        }
+
+        PacketByteBuf invalid = newBuf();
+        invalid.writeVarInt(TeleportType.values().length);
+        assertThrows(DecoderException.class, () -> SpotWireCodec.readTeleportType(invalid));
+    }
+
+    @Test
+    void dictionaryDeduplicatesAndResolvesReferences() {
+        SpotWireCodec.Dictionary dictionary = new SpotWireCodec.Dictionary();
+        for (String value : List.of("Steve", "minecraft:overworld", "Alex", "Steve", "minecraft:overworld")) {
+            dictionary.add(value);
+        }
+
+        PacketByteBuf buf = newBuf();
+        dictionary.write(buf);
+        dictionary.writeRef(buf, "Alex");
+        dictionary.writeRef(buf, "Steve");
+        dictionary.writeRef(buf, "minecraft:overworld");
+
+        List<String> values = SpotWireCodec.Dictionary.read(buf);
+        assertEquals(List.of("Steve", "minecraft:overworld", "Alex"), values);
+        assertEquals("Alex", SpotWireCodec.Dictionary.readRef(buf, values));
+        assertEquals("Steve", SpotWireCodec.Dictionary.readRef(buf, values));
+        assertEquals("minecraft:overworld", SpotWireCodec.Dictionary.readRef(buf, values));
+        assertEquals(0, buf.readableBytes());
+
+        assertThrows(IllegalStateException.class, () -> dictionary.writeRef(newBuf(), "Notch"));
+
+        PacketByteBuf invalid = newBuf();
+        invalid.writeVarInt(3);
+        assertThrows(DecoderException.class, () -> SpotWireCodec.Dictionary.readRef(invalid, values));
+    }
+
+    @Test
+    void countsAreVarIntsAndValidated() {
+        PacketByteBuf buf = newBuf();
+        buf.writeVarInt(100);
+        // 100 个条目至少需要 100 字节
+        assertThrows(DecoderException.class, () -> SpotWireCodec.readCount(buf));
+
+        PacketByteBuf valid = newBuf();
+        valid.writeVarInt(2);
+        valid.writeByte(0);
+        valid.writeByte(0);
+        assertEquals(2, SpotWireCodec.readCount(valid));
+
+        PacketByteBuf oversizedDictionary = newBuf();
+        oversizedDictionary.writeVarInt(Integer.MAX_VALUE);
+        assertThrows(DecoderException.class, () -> SpotWireCodec.Dictionary.read(oversizedDictionary));
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.stone_brick.spotteddog.network.c2s;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketByteBuf;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 传送请求数据包的往返测试，以及与原先编码的字节数对比。
+ */
+class TeleportRequestC2SPayloadTest {
+
+    private static PacketByteBuf encode(TeleportRequestC2SPayload payload) {
+        PacketByteBuf buf = new PacketByteBuf(Unpooled.buffer());
+        TeleportRequestC2SPayload.CODEC.encode(buf, payload);
+        return buf;
+    }
+
+    /**
+     * 原先的编码：类型和维度为完整字符串，所有类型都发送坐标。
+     */
+    private static int legacySize(TeleportRequestC2SPayload payload) {
+        PacketByteBuf buf = new PacketByteBuf(Unpooled.buffer());
+        buf.writeString(payload.type());
+        buf.writeString(payload.targetName());
+        buf.writeDouble(payload.x());
+        buf.writeDouble(payload.y());
+        buf.writeDouble(payload.z());
+        buf.writeFloat(payload.yaw());
+        buf.writeFloat(payload.pitch());
+        buf.writeString(payload.dimension());
+        return buf.readableBytes();
+    }
+
+    @Test
+    void spotRequestRoundTrip() {
+        TeleportRequestC2SPayload payload = new TeleportRequestC2SPayload("spot", "home",
+                1234.56789, 64.0, -987.654321, 90.5f, -12.25f, "minecraft:the_nether");
+        PacketByteBuf buf = encode(payload);
+        assertEquals(payload, TeleportRequestC2SPayload.CODEC.decode(buf));
+        assertEquals(0, buf.readableBytes());
+
+        TeleportRequestC2SPayload modded = new TeleportRequestC2SPayload("spot", "sky",
+                0.5, 200, 0.5, 0, 0, "examplemod:sky_islands");
+        assertEquals(modded, TeleportRequestC2SPayload.CODEC.decode(encode(modded)));
+    }
+
+    @Test
+    void nonSpotRequestOmitsCoordinates() {
+        TeleportRequestC2SPayload payload = new TeleportRequestC2SPayload("death", "",
+                10, 20, 30, 45f, 0f, "minecraft:overworld");
+        PacketByteBuf buf = encode(payload);
+        TeleportRequestC2SPayload decoded = TeleportRequestC2SPayload.CODEC.decode(buf);
+        assertEquals(0, buf.readableBytes());
+
+        // 服务端对非 spot 类型自行确定位置，坐标和维度不再发送
+        assertEquals(new TeleportRequestC2SPayload("death", "", 0, 0, 0, 45f, 0f, ""), decoded);
+    }
+
+    @Test
+    void compactEncodingSizes() {
+        TeleportRequestC2SPayload spot = new TeleportRequestC2SPayload("spot", "home",
+                1234.56789, 64.0, -987.654321, 90.5f, -12.25f, "minecraft:overworld");
+        TeleportRequestC2SPayload death = new TeleportRequestC2SPayload("death", "",
+                1234.56789, 64.0, -987.654321, 90.5f, -12.25f, "minecraft:overworld");
+
+        // 类型和维度各占一个字节；非 spot 类型不发送坐标和维度
+        assertEquals(62, legacySize(spot));
+        assertEquals(41, encode(spot).readableBytes());
+        assertEquals(59, legacySize(death));
+        assertEquals(12, encode(death).readableBytes());
+    }
+}
@@ -0,0 +1,164 @@
+package io.github.stone_brick.spotteddog.network.s2c;
+
+import io.github.stone_brick.spotteddog.network.SpotWireCodec;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketByteBuf;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 公开 Spot 列表响应的往返测试，以及与原先编码的字节数对比。
+ */
+class PublicSpotListS2CPayloadTest {
+
+    private static final String[] OWNERS = {"stone_brick", "Notch", "xXDragonSlayerXx", "alex_builds", "Steve"};
+    private static final String[] NAMES = {"home", "mine_entrance", "villager_trading_hall", "nether_hub", "base",
+            "farm_iron", "end_portal", "spawn_shop", "ocean_monument", "witch_hut"};
+    private static final String NEXT_CURSOR = "witch_hut\0steve\0" + "3f2504e0-4f89-11d3-9a0c-0305e82c3301";
+    private static final long REVISION = 1_760_000_000_000L;
+
+    /**
+     * 生成一页真实规模的列表：5 个所有者、3 个原版维度、玩家站立位置的坐标（带小数）。
+     */
+    static List<PublicSpotListS2CPayload.PublicSpotInfo> realisticPage(int size) {
+        List<PublicSpotListS2CPayload.PublicSpotInfo> spots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String name = NAMES[i % NAMES.length] + (i >= NAMES.length ? "_" + (i / NAMES.length) : "");
+            double x = (i * 7919 % 10000) - 5000 + (i * 37 % 100) / 100.0 + 0.003;
+            double y = 62 + i * 13 % 60;
+            double z = (i * 104729 % 8000) - 4000 + (i * 53 % 100) / 100.0 + 0.007;
+            int d = i % 10;
+            String dimension = d < 7 ? "minecraft:overworld" : d < 9 ? "minecraft:the_nether" : "minecraft:the_end";
+            spots.add(new PublicSpotListS2CPayload.PublicSpotInfo(OWNERS[i % OWNERS.length], name, x, y, z, dimension));
+        }
+        return spots;
+    }
+
+    private static PacketByteBuf encode(PublicSpotListS2CPayload payload) {
+        PacketByteBuf buf = new PacketByteBuf(Unpooled.buffer());
+        PublicSpotListS2CPayload.CODEC.encode(buf, payload);
+        return buf;
+    }
+
+    /**
+     * 按指定的坐标编码方式构造响应（不读取配置）。
+     */
+    private static PublicSpotListS2CPayload page(List<PublicSpotListS2CPayload.PublicSpotInfo> spots,
+                                                 String cursor, String nextCursor, boolean filtered,
+                                                 boolean fixedPoint) {
+        byte[] body = PublicSpotListS2CPayload.encodeBody(spots, cursor, nextCursor, filtered, REVISION, fixedPoint);
+        return PublicSpotListS2CPayload.encoded(spots, true, false, cursor, nextCursor, filtered, REVISION, body);
+    }
+
+    /**
+     * 原先的编码：4 字节条数，每个条目完整发送所有者名、名称和维度，坐标为 3 个 double。
+     */
+    private static int legacySize(List<PublicSpotListS2CPayload.PublicSpotInfo> spots) {
+        PacketByteBuf buf = new PacketByteBuf(Unpooled.buffer());
+        buf.writeInt(spots.size());
+        for (PublicSpotListS2CPayload.PublicSpotInfo spot : spots) {
+            buf.writeString(spot.ownerName());
+            buf.writeString(spot.displayName());
+            buf.writeDouble(spot.x());
+            buf.writeDouble(spot.y());
+            buf.writeDouble(spot.z());
+            buf.writeString(spot.dimension());
+        }
+        buf.writeBoolean(true);
+        buf.writeBoolean(false);
+        return buf.readableBytes();
+    }
+
+    private static void assertRoundTrip(boolean fixedPoint, double tolerance) {
+        List<PublicSpotListS2CPayload.PublicSpotInfo> spots = realisticPage(50);
+        spots.add(new PublicSpotListS2CPayload.PublicSpotInfo("Steve", "sky", -0.5, 200, 0.25, "examplemod:sky_islands"));
+
+        PacketByteBuf buf = encode(page(spots, "cursor", NEXT_CURSOR, true, fixedPoint));
+        PublicSpotListS2CPayload decoded = PublicSpotListS2CPayload.CODEC.decode(buf);
+        assertEquals(0, buf.readableBytes());
+
+        assertTrue(decoded.canTeleport());
+        assertFalse(decoded.canManagePublicSpots());
+        assertEquals("cursor", decoded.cursor());
+        assertEquals(NEXT_CURSOR, decoded.nextCursor());
+        assertTrue(decoded.filtered());
+        assertEquals(REVISION, decoded.revision());
+        assertEquals(spots.size(), decoded.spots().size());
+
+        for (int i = 0; i < spots.size(); i++) {
+            PublicSpotListS2CPayload.PublicSpotInfo expected = spots.get(i);
+            PublicSpotListS2CPayload.PublicSpotInfo actual = decoded.spots().get(i);
+            assertEquals(expected.ownerName(), actual.ownerName());
+            assertEquals(expected.displayName(), actual.displayName());
+            assertEquals(expected.dimension(), actual.dimension());
+            assertEquals(expected.x(), actual.x(), tolerance);
+            assertEquals(expected.y(), actual.y(), tolerance);
+            assertEquals(expected.z(), actual.z(), tolerance);
+        }
+    }
+
+    @Test
+    void fixedPointPageRoundTrip() {
+        // 定点数模式下坐标精确到 1/16 方块
+        assertRoundTrip(true, 0.5 / SpotWireCodec.FIXED_POINT_SCALE);
+    }
+
+    @Test
+    void doublePageRoundTrip() {
+        assertRoundTrip(false, 0.0);
+    }
+
+    @Test
+    void emptyPageRoundTrip() {
+        PacketByteBuf buf = encode(PublicSpotListS2CPayload.page(List.of(), false, true, "", "", false, 0));
+        PublicSpotListS2CPayload decoded = PublicSpotListS2CPayload.CODEC.decode(buf);
+        assertTrue(decoded.spots().isEmpty());
+        assertTrue(decoded.canManagePublicSpots());
+        assertFalse(decoded.hasMore());
+    }
+
+    @Test
+    void preEncodedBodyMatchesDirectEncoding() {
+        List<PublicSpotListS2CPayload.PublicSpotInfo> spots = realisticPage(20);
+        // 两者使用同一配置，结果与配置取值无关
+        byte[] body = PublicSpotListS2CPayload.encodeBody(spots, "", NEXT_CURSOR, false, REVISION);
+
+        PacketByteBuf direct = encode(PublicSpotListS2CPayload.page(spots, true, true, "", NEXT_CURSOR, false, REVISION));
+        PacketByteBuf cached = encode(PublicSpotListS2CPayload.encoded(spots, true, true, "", NEXT_CURSOR, false,
+                REVISION, body));
+
+        byte[] directBytes = new byte[direct.readableBytes()];
+        direct.readBytes(directBytes);
+        byte[] cachedBytes = new byte[cached.readableBytes()];
+        cached.readBytes(cachedBytes);
+        assertArrayEquals(directBytes, cachedBytes);
+    }
+
+    /**
+     * 真实规模列表的字节数（新编码额外包含续传令牌和版本号）。
+     * 每行依次为：条数、原先编码、定点数坐标、double 坐标。
+     */
+    @Test
+    void compactEncodingSizesOnRealisticPages() {
+        int[][] expected = {
+                {10, 666, 390, 553},
+                {50, 3386, 1314, 2129},
+                {200, 13686, 4893, 8140},
+        };
+        for (int[] row : expected) {
+            List<PublicSpotListS2CPayload.PublicSpotInfo> spots = realisticPage(row[0]);
+            assertEquals(row[1], legacySize(spots), "legacy size of " + row[0]);
+            assertEquals(row[2], encode(page(spots, "", NEXT_CURSOR, false, true)).readableBytes(),
+                    "fixed point size of " + row[0]);
+            assertEquals(row[3], encode(page(spots, "", NEXT_CURSOR, false, false)).readableBytes(),
+                    "double size of " + row[0]);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package io.github.stone_brick.spotteddog.server.data;
+
+import com.google.gson.Gson;
+import net.fabricmc.loader.api.FabricLoader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 验证 {@link PublicSpotManager} 的索引查询与原先线性查找的语义一致。
+ */
+class PublicSpotManagerIndexTest {
+
+    private static final String STEVE_UUID = "00000000-0000-0000-0000-000000000001";
+    private static final String ALEX_UUID = "00000000-0000-0000-0000-000000000002";
+
+    private PublicSpotManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = PublicSpotManager.getInstance();
+        manager.clearAll();
+    }
+
+    private boolean publish(String owner, String uuid, String name) {
+        return manager.publishSpot(owner, uuid, name, 1, 64, 2, 0, 0, "minecraft:overworld");
+    }
+
+    @Test
+    void ownerNameIsCaseInsensitiveAndSpotNameIsCaseSensitive() {
+        assertTrue(publish("Steve", STEVE_UUID, "home"));
+
+        assertTrue(manager.hasPublicSpot("steve", "home"));
+        assertTrue(manager.hasPublicSpot("STEVE", "home"));
+        assertFalse(manager.hasPublicSpot("Steve", "Home"));
+
+        // 所有者名称只是大小写不同时视为同一个 Spot
+        assertFalse(publish("STEVE", STEVE_UUID, "home"));
+        // Spot 名称大小写不同时是另一个 Spot
+        assertTrue(publish("Steve", STEVE_UUID, "Home"));
+        assertEquals(2, manager.getPublicSpotCount());
+    }
+
+    @Test
+    void fullNameLookupSplitsAtLastDash() {
+        assertTrue(publish("Steve", STEVE_UUID, "my-home"));
+
+        Optional<PublicSpot> spot = manager.getPublicSpotByFullName("-my-home-steve");
+        assertTrue(spot.isPresent());
+        assertEquals("my-home", spot.get().getDisplayName());
+
+        assertFalse(manager.getPublicSpotByFullName("my-home-Steve").isPresent());
+        assertFalse(manager.getPublicSpotByFullName("-My-home-Steve").isPresent());
+        assertFalse(manager.getPublicSpotByFullName("-my-home-").isPresent());
+    }
+
+    @Test
+    void ownerUuidLookupIgnoresOwnerName() {
+        // 同一 UUID 改名后发布的 Spot 仍属于该玩家
+        assertTrue(publish("Steve", STEVE_UUID, "home"));
+        assertTrue(publish("Steve2", STEVE_UUID, "farm"));
+        // 不同 UUID 使用相同的名称
+        assertTrue(publish("Alex", ALEX_UUID, "home"));
+
+        List<String> steveSpots = manager.getPublicSpotsByOwnerUuid(STEVE_UUID).stream()
+                .map(PublicSpot::getDisplayName).toList();
+        assertEquals(List.of("home", "farm"), steveSpots);
+        assertEquals(1, manager.getPublicSpotsByOwnerUuid(ALEX_UUID).size());
+        assertTrue(manager.getPublicSpotsByOwnerUuid("unknown").isEmpty());
+
+        // 按名称查找不考虑 UUID
+        assertFalse(manager.hasPublicSpot("Steve", "farm"));
+        assertTrue(manager.hasPublicSpot("steve2", "farm"));
+    }
+
+    @Test
+    void renameMovesCompositeKeyAndKeepsOtherIndexes() {
+        assertTrue(publish("Steve", STEVE_UUID, "home"));
+        assertTrue(publish("Steve", STEVE_UUID, "farm"));
+        String id = manager.getPublicSpotByFullName("-home-Steve").orElseThrow().getId();
+
+        // 新名称已存在或原名称不存在时失败
+        assertFalse(manager.renamePublicSpot("Steve", "home", "farm"));
+        assertFalse(manager.renamePublicSpot("Steve", "missing", "base"));
+
+        assertTrue(manager.renamePublicSpot("steve", "home", "base"));
+        assertFalse(manager.hasPublicSpot("Steve", "home"));
+        assertTrue(manager.hasPublicSpot("Steve", "base"));
+        assertEquals(id, manager.getPublicSpotByFullName("-base-Steve").orElseThrow().getId());
+        assertEquals("base", manager.getPublicSpotById(id).orElseThrow().getDisplayName());
+        // 重命名不改变 Spot 的顺序
+        assertEquals(List.of("base", "farm"), manager.getPublicSpotsByOwnerUuid(STEVE_UUID).stream()
+                .map(PublicSpot::getDisplayName).toList());
+        assertEquals(List.of("base", "farm"), manager.getAllPublicSpots().stream()
+                .map(PublicSpot::getDisplayName).toList());
+
+        // 原名称可以重新发布
+        assertTrue(publish("Steve", STEVE_UUID, "home"));
+    }
+
+    @Test
+    void unpublishRemovesFromAllIndexes() {
+        assertTrue(publish("Steve", STEVE_UUID, "home"));
+        String id = manager.getPublicSpotByFullName("-home-Steve").orElseThrow().getId();
+
+        assertFalse(manager.unpublishSpot("Steve", "Home"));
+        assertTrue(manager.unpublishSpot("STEVE", "home"));
+
+        assertFalse(manager.hasPublicSpot("Steve", "home"));
+        assertFalse(manager.getPublicSpotByFullName("-home-Steve").isPresent());
+        assertFalse(manager.getPublicSpotById(id).isPresent());
+        assertTrue(manager.getPublicSpotsByOwnerUuid(STEVE_UUID).isEmpty());
+        assertEquals(0, manager.getPublicSpotCount());
+        assertFalse(manager.unpublishSpot("Steve", "home"));
+    }
+
+    /**
+     * 快照中同一玩家的同名 Spot 不会在加载时丢失：第一个保留原名，其余加后缀。
+     */
+    @Test
+    void duplicateSpotsInSnapshotAreKeptOnLoad() throws IOException {
+        Path directory = FabricLoader.getInstance().getConfigDir()
+                .resolve("spotteddog").resolve("data").resolve("multiplayer").resolve("server");
+        Files.createDirectories(directory);
+        Files.deleteIfExists(directory.resolve("public_spots.journal"));
+        List<PublicSpot> snapshot = List.of(
+                new PublicSpot("a", "Steve", STEVE_UUID, "home", 1, 64, 2, 0, 0, "minecraft:overworld"),
+                new PublicSpot("b", "steve", STEVE_UUID, "home", 3, 64, 4, 0, 0, "minecraft:overworld"),
+                new PublicSpot("c", "Steve", STEVE_UUID, "home_2", 5, 64, 6, 0, 0, "minecraft:overworld"));
+        Files.writeString(directory.resolve("public_spots.json"), new Gson().toJson(snapshot));
+
+        manager.initialize(null);
+        assertEquals(3, manager.getPublicSpotCount());
+        assertEquals(1, manager.getPublicSpotByFullName("-home-Steve").orElseThrow().getX());
+        assertEquals("home_3", manager.getPublicSpotById("b").orElseThrow().getDisplayName());
+        assertEquals("home_2", manager.getPublicSpotById("c").orElseThrow().getDisplayName());
+
+        // 重命名后的名称写回快照，重新加载后保持不变
+        manager.flush();
+        manager.initialize(null);
+        assertEquals(List.of("home", "home_3", "home_2"), manager.getAllPublicSpots().stream()
+                .map(PublicSpot::getDisplayName).toList());
+        manager.clearAll();
+        manager.flush();
+    }
+
+    /**
+     * 随机执行发布、取消、更新和重命名操作，每一步都与原先的线性查找实现比较返回值和查询结果。
+     */
+    @Test
+    void randomOperationsMatchLinearScan() {
+        String[] owners = {"Steve", "steve", "STEVE", "Alex", "alex", "Notch"};
+        String[] uuids = {STEVE_UUID, STEVE_UUID, STEVE_UUID, ALEX_UUID, ALEX_UUID, "notch-uuid"};
+        String[] names = {"home", "Home", "farm", "a-b", "base"};
+        Random random = new Random(20240601L);
+        LinearScanSpots reference = new LinearScanSpots();
+
+        for (int step = 0; step < 2000; step++) {
+            int owner = random.nextInt(owners.length);
+            String name = names[random.nextInt(names.length)];
+            switch (random.nextInt(4)) {
+                case 0 -> assertEquals(
+                        reference.publish(owners[owner], uuids[owner], name),
+                        publish(owners[owner], uuids[owner], name), "publish at step " + step);
+                case 1 -> assertEquals(
+                        reference.unpublish(owners[owner], name),
+                        manager.unpublishSpot(owners[owner], name), "unpublish at step " + step);
+                case 2 -> {
+                    double y = step;
+                    assertEquals(
+                            reference.update(owners[owner], name, y),
+                            manager.updatePublicSpot(owners[owner], name, 1, y, 2, 0, 0, "minecraft:overworld"),
+                            "update at step " + step);
+                }
+                default -> {
+                    String newName = names[random.nextInt(names.length)];
+                    assertEquals(
+                            reference.rename(owners[owner], name, newName),
+                            manager.renamePublicSpot(owners[owner], name, newName), "rename at step " + step);
+                }
+            }
+            assertSameQueries(reference, owners, uuids, names, step);
+        }
+    }
+
+    private void assertSameQueries(LinearScanSpots reference, String[] owners, String[] uuids,
+                                   String[] names, int step) {
+        assertEquals(reference.spots.size(), manager.getPublicSpotCount(), "count at step " + step);
+        for (int i = 0; i < owners.length; i++) {
+            assertEquals(describe(reference.byOwnerUuid(uuids[i])),
+                    describe(manager.getPublicSpotsByOwnerUuid(uuids[i])), "uuid lookup at step " + step);
+            for (String name : names) {
+                assertEquals(reference.has(owners[i], name), manager.hasPublicSpot(owners[i], name),
+                        "has at step " + step);
+                String fullName = "-" + name + "-" + owners[i];
+                assertEquals(reference.byFullName(fullName).map(this::describe),
+                        manager.getPublicSpotByFullName(fullName).map(this::describe),
+                        "full name lookup at step " + step);
+            }
+        }
+    }
+
+    private String describe(PublicSpot spot) {
+        return spot.getOwnerName() + "/" + spot.getOwnerUuid() + "/" + spot.getDisplayName() + "@" + spot.getY();
+    }
+
+    private List<String> describe(List<PublicSpot> spots) {
+        return spots.stream().map(this::describe).toList();
+    }
+
+    /**
+     * 原先基于 List 的线性查找实现（作为对照）。
+     */
+    private static final class LinearScanSpots {
+        private final List<PublicSpot> spots = new ArrayList<>();
+
+        boolean has(String ownerName, String spotName) {
+            return spots.stream().anyMatch(s ->
+                    s.getOwnerName().equalsIgnoreCase(ownerName) && s.getDisplayName().equals(spotName));
+        }
+
+        boolean publish(String ownerName, String ownerUuid, String spotName) {
+            if (has(ownerName, spotName)) {
+                return false;
+            }
+            spots.add(new PublicSpot("ref", ownerName, ownerUuid, spotName, 1, 64, 2, 0, 0, "minecraft:overworld"));
+            return true;
+        }
+
+        boolean unpublish(String ownerName, String spotName) {
+            return spots.removeIf(s ->
+                    s.getOwnerName().equalsIgnoreCase(ownerName) && s.getDisplayName().equals(spotName));
+        }
+
+        boolean update(String ownerName, String spotName, double y) {
+            for (PublicSpot spot : spots) {
+                if (spot.getOwnerName().equalsIgnoreCase(ownerName) && spot.getDisplayName().equals(spotName)) {
+                    spot.setPositionAndRotation(1, y, 2, 0, 0, "minecraft:overworld");
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean rename(String ownerName, String oldName, String newName) {
+            if (has(ownerName, newName)) {
+                return false;
+            }
+            for (PublicSpot spot : spots) {
+                if (spot.getOwnerName().equalsIgnoreCase(ownerName) && spot.getDisplayName().equals(oldName)) {
+                    spot.setDisplayName(newName);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        List<PublicSpot> byOwnerUuid(String ownerUuid) {
+            return spots.stream().filter(s -> s.getOwnerUuid().equals(ownerUuid)).toList();
+        }
+
+        Optional<PublicSpot> byFullName(String fullName) {
+            PublicSpotManager.PublicSpotName name = PublicSpotManager.parsePublicSpotName(fullName);
+            if (name == null) {
+                return Optional.empty();
+            }
+            return spots.stream()
+                    .filter(s -> s.getDisplayName().equals(name.spotName()))
+                    .filter(s -> s.getOwnerName().equalsIgnoreCase(name.ownerName()))
+                    .findFirst();
+        }
+    }
+}